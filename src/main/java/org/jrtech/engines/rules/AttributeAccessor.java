@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * The class <code>AttributeAccessor</code> reads one (possibly nested)
+ * attribute of an object through a single pre-resolved {@link MethodHandle},
+ * see {@link AttributeAccessorRegistry}.
+ */
+public final class AttributeAccessor {
+
+    private final Class<?> type;
+
+    private final String attributePath;
+
+    private final MethodHandle getter;
+
+    AttributeAccessor(Class<?> type, String attributePath, MethodHandle getter) {
+        this.type = type;
+        this.attributePath = attributePath;
+        this.getter = getter;
+    }
+
+    /**
+     * @return the attribute value, or <code>null</code> if the value or one of
+     *         the intermediate values of a nested path is <code>null</code>.
+     * @throws Throwable
+     *             anything thrown by the getters.
+     */
+    public Object read(Object object) throws Throwable {
+        return getter.invokeExact(object);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public String getAttributePath() {
+        return attributePath;
+    }
+
+    @Override
+    public String toString() {
+        return type.getName() + "#" + attributePath;
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.beans.Introspector;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.commons.beanutils.ConvertUtils;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.reflect.MethodUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The class <code>AttributeAccessorRegistry</code> is the engine wide cache of
+ * {@link AttributeAccessor}s per object type and attribute path. <br>
+ * An attribute path is a dot separated list of property names, each of them
+ * resolved to a public getter (<code>getXxx()</code>, or <code>isXxx()</code>
+ * for booleans) of the declared type of the previous property, so a nested
+ * path becomes a single composed {@link MethodHandle}. Paths which cannot be
+ * resolved this way (maps, method expressions, properties only declared by
+ * subclasses, ...) have no accessor and are left to the reflective
+ * property utilities. <br>
+ * The registry caches the {@link AttributeMutator}s of the goals the same
+ * way: a property name is resolved to the public setter of the bean property
+ * (or to the entry of a map), its string conversion being the BeanUtils
+ * converter registered for the setter parameter type when the mutator is
+ * created.
+ */
+public class AttributeAccessorRegistry {
+
+    private static Logger log = LoggerFactory.getLogger(AttributeAccessorRegistry.class);
+
+    private static final AttributeAccessorRegistry INSTANCE = new AttributeAccessorRegistry();
+
+    private static final AttributeAccessor UNRESOLVABLE = new AttributeAccessor(Object.class, "",
+            MethodHandles.constant(Object.class, null));
+
+    private static final AttributeMutator UNRESOLVABLE_MUTATOR = new AttributeMutator(Object.class, "", Object.class,
+            null, null);
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final MethodHandle IS_NULL;
+
+    private static final MethodHandle MAP_PUT;
+
+    static {
+        try {
+            IS_NULL = MethodHandles.lookup().findStatic(Objects.class, "isNull",
+                    MethodType.methodType(boolean.class, Object.class));
+            MAP_PUT = MethodHandles.lookup().findVirtual(Map.class, "put",
+                    MethodType.methodType(Object.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final ConcurrentHashMap<Class<?>, Map<String, AttributeAccessor>> accessorCatalog = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Class<?>, Map<String, AttributeMutator>> mutatorCatalog = new ConcurrentHashMap<>();
+
+    public static AttributeAccessorRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the accessor of the attribute path on the given type, or
+     *         <code>null</code> if the path cannot be resolved to getters.
+     */
+    public AttributeAccessor getAccessor(Class<?> type, String attributePath) {
+        if (type == null || attributePath == null) {
+            return null;
+        }
+
+        Map<String, AttributeAccessor> typeAccessorCatalog = accessorCatalog.get(type);
+        if (typeAccessorCatalog == null) {
+            typeAccessorCatalog = accessorCatalog.computeIfAbsent(type,
+                    (Class<?> key) -> new ConcurrentHashMap<String, AttributeAccessor>());
+        }
+
+        AttributeAccessor accessor = typeAccessorCatalog.get(attributePath);
+        if (accessor == null) {
+            accessor = resolveAccessor(type, attributePath);
+            typeAccessorCatalog.put(attributePath, accessor);
+        }
+
+        return accessor == UNRESOLVABLE ? null : accessor;
+    }
+
+    /**
+     * @return the mutator of the property on the given type, or
+     *         <code>null</code> if the property cannot be resolved to a public
+     *         setter or a map entry (e.g. nested or indexed properties).
+     */
+    public AttributeMutator getMutator(Class<?> type, String propertyName) {
+        if (type == null || propertyName == null) {
+            return null;
+        }
+
+        return getMutator(type, propertyName, () -> resolveMutator(type, propertyName));
+    }
+
+    /**
+     * @return the mutator calling the public method
+     *         <code>methodName(String, Object)</code> of the given type with
+     *         the given attribute name as first argument, or <code>null</code>
+     *         if there is no such instance method.
+     */
+    public AttributeMutator getMutator(Class<?> type, String methodName, String attributeName) {
+        if (type == null || methodName == null) {
+            return null;
+        }
+
+        return getMutator(type, methodName + "(" + attributeName + ")",
+                () -> resolveMethodMutator(type, methodName, attributeName));
+    }
+
+    private AttributeMutator getMutator(Class<?> type, String mutatorKey, Supplier<AttributeMutator> resolver) {
+        Map<String, AttributeMutator> typeMutatorCatalog = mutatorCatalog.get(type);
+        if (typeMutatorCatalog == null) {
+            typeMutatorCatalog = mutatorCatalog.computeIfAbsent(type,
+                    (Class<?> key) -> new ConcurrentHashMap<String, AttributeMutator>());
+        }
+
+        AttributeMutator mutator = typeMutatorCatalog.get(mutatorKey);
+        if (mutator == null) {
+            mutator = resolver.get();
+            typeMutatorCatalog.put(mutatorKey, mutator);
+        }
+
+        return mutator == UNRESOLVABLE_MUTATOR ? null : mutator;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, AttributeAccessor> typeAccessorCatalog : accessorCatalog.values()) {
+            size += typeAccessorCatalog.size();
+        }
+
+        return size;
+    }
+
+    public void clear() {
+        accessorCatalog.clear();
+        mutatorCatalog.clear();
+    }
+
+    private AttributeAccessor resolveAccessor(Class<?> type, String attributePath) {
+        if (Map.class.isAssignableFrom(type)) {
+            return UNRESOLVABLE;
+        }
+
+        MethodHandle getter = null;
+        Class<?> currentType = type;
+        for (String propertyName : StringUtils.splitPreserveAllTokens(attributePath, '.')) {
+            Method getterMethod = findGetter(currentType, propertyName);
+            if (getterMethod == null) {
+                return UNRESOLVABLE;
+            }
+
+            MethodHandle propertyGetter;
+            try {
+                propertyGetter = MethodHandles.publicLookup().unreflect(getterMethod).asType(GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                log.debug("Getter not accessible: '" + getterMethod + "'", e);
+                return UNRESOLVABLE;
+            }
+
+            if (getter == null) {
+                getter = propertyGetter;
+            } else {
+                // null intermediate value -> null attribute value
+                MethodHandle nullSafeGetter = MethodHandles.guardWithTest(IS_NULL,
+                        MethodHandles.dropArguments(MethodHandles.constant(Object.class, null), 0, Object.class),
+                        propertyGetter);
+                getter = MethodHandles.filterReturnValue(getter, nullSafeGetter);
+            }
+            currentType = getterMethod.getReturnType();
+        }
+
+        return getter == null ? UNRESOLVABLE : new AttributeAccessor(type, attributePath, getter);
+    }
+
+    private AttributeMutator resolveMutator(Class<?> type, String propertyName) {
+        if (propertyName.isEmpty() || StringUtils.containsAny(propertyName, ".[]()")) {
+            // Nested, indexed or mapped property
+            return UNRESOLVABLE_MUTATOR;
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            MethodHandle setter = MethodHandles.insertArguments(MAP_PUT, 1, propertyName).asType(SETTER_TYPE);
+            return new AttributeMutator(type, propertyName, Object.class, setter, null);
+        }
+
+        Method setterMethod = findSetter(type, propertyName);
+        if (setterMethod == null) {
+            return UNRESOLVABLE_MUTATOR;
+        }
+
+        Class<?> parameterType = setterMethod.getParameterTypes()[0];
+        Converter converter = null;
+        if (!String.class.equals(parameterType) && !Object.class.equals(parameterType)) {
+            converter = ConvertUtils.lookup(parameterType);
+            if (converter == null) {
+                return UNRESOLVABLE_MUTATOR;
+            }
+        }
+
+        try {
+            MethodHandle setter = MethodHandles.publicLookup().unreflect(setterMethod).asType(SETTER_TYPE);
+            return new AttributeMutator(type, propertyName, parameterType, setter, converter);
+        } catch (IllegalAccessException e) {
+            log.debug("Setter not accessible: '" + setterMethod + "'", e);
+            return UNRESOLVABLE_MUTATOR;
+        }
+    }
+
+    private AttributeMutator resolveMethodMutator(Class<?> type, String methodName, String attributeName) {
+        // Same resolution as MethodUtils.invokeExactMethod(...)
+        Method method = MethodUtils.getAccessibleMethod(type, methodName, String.class, Object.class);
+        if (method == null || Modifier.isStatic(method.getModifiers())) {
+            return UNRESOLVABLE_MUTATOR;
+        }
+
+        try {
+            MethodHandle setter = MethodHandles
+                    .insertArguments(MethodHandles.publicLookup().unreflect(method), 1, attributeName)
+                    .asType(SETTER_TYPE);
+            return new AttributeMutator(type, methodName + "(" + attributeName + ")", Object.class, setter, null);
+        } catch (IllegalAccessException e) {
+            log.debug("Method not accessible: '" + method + "'", e);
+            return UNRESOLVABLE_MUTATOR;
+        }
+    }
+
+    private static Method findGetter(Class<?> type, String propertyName) {
+        if (type.isPrimitive() || Map.class.isAssignableFrom(type) || !isPropertyName(propertyName)) {
+            return null;
+        }
+
+        String capitalizedName = StringUtils.capitalize(propertyName);
+        Method getterMethod = findPublicMethod(type, "get" + capitalizedName);
+        if (getterMethod == null) {
+            getterMethod = findPublicMethod(type, "is" + capitalizedName);
+            if (getterMethod != null && !boolean.class.equals(getterMethod.getReturnType())
+                    && !Boolean.class.equals(getterMethod.getReturnType())) {
+                getterMethod = null;
+            }
+        }
+
+        return getterMethod == null || void.class.equals(getterMethod.getReturnType()) ? null : getterMethod;
+    }
+
+    /**
+     * @return the single public setter of the bean property as seen by the
+     *         {@link Introspector}, or <code>null</code> if there is none or
+     *         the setter is overloaded.
+     */
+    private static Method findSetter(Class<?> type, String propertyName) {
+        String capitalizedName = StringUtils.capitalize(propertyName);
+        if (type.isPrimitive() || !isPropertyName(propertyName)
+                || !Introspector.decapitalize(capitalizedName).equals(propertyName)) {
+            return null;
+        }
+
+        Method getterMethod = findGetter(type, propertyName);
+        Method setterMethod = null;
+        for (Method method : type.getMethods()) {
+            if (!method.getName().equals("set" + capitalizedName) || method.getParameterCount() != 1
+                    || method.isBridge() || !void.class.equals(method.getReturnType())
+                    || Modifier.isStatic(method.getModifiers())
+                    || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                continue;
+            }
+            if (getterMethod != null && !getterMethod.getReturnType().equals(method.getParameterTypes()[0])) {
+                continue;
+            }
+            if (setterMethod != null) {
+                return null;
+            }
+            setterMethod = method;
+        }
+
+        return setterMethod;
+    }
+
+    private static boolean isPropertyName(String propertyName) {
+        if (propertyName.isEmpty() || !Character.isJavaIdentifierStart(propertyName.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < propertyName.length(); i++) {
+            if (!Character.isJavaIdentifierPart(propertyName.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static Method findPublicMethod(Class<?> type, String methodName) {
+        try {
+            Method method = type.getMethod(methodName);
+            if (Modifier.isStatic(method.getModifiers())
+                    || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                return null;
+            }
+            return method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
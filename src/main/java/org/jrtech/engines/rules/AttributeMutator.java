@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.lang.invoke.MethodHandle;
+
+import org.apache.commons.beanutils.Converter;
+
+/**
+ * The class <code>AttributeMutator</code> writes one attribute of an object
+ * through a single pre-resolved {@link MethodHandle}, converting string values
+ * with a pre-selected BeanUtils {@link Converter}, see
+ * {@link AttributeAccessorRegistry#getMutator(Class, String)}.
+ */
+public final class AttributeMutator {
+
+    private final Class<?> type;
+
+    private final String attributePath;
+
+    private final Class<?> parameterType;
+
+    private final Class<?> valueType;
+
+    private final MethodHandle setter;
+
+    private final Converter converter;
+
+    AttributeMutator(Class<?> type, String attributePath, Class<?> parameterType, MethodHandle setter,
+            Converter converter) {
+        this.type = type;
+        this.attributePath = attributePath;
+        this.parameterType = parameterType;
+        this.valueType = toWrapperType(parameterType);
+        this.setter = setter;
+        this.converter = converter;
+    }
+
+    /**
+     * Writes the given value, an instance of the value type as is, anything
+     * else as string converted to the value type.
+     *
+     * @throws Throwable
+     *             anything thrown by the setter or the converter.
+     */
+    public void write(Object object, Object value) throws Throwable {
+        setter.invokeExact(object, convert(value));
+    }
+
+    private Object convert(Object value) {
+        if (value != null && valueType.isInstance(value)) {
+            return value;
+        }
+
+        String stringValue = value == null ? null : value.toString();
+        return converter == null ? stringValue : converter.convert(parameterType, stringValue);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public String getAttributePath() {
+        return attributePath;
+    }
+
+    /**
+     * @return the type of the values written without conversion, i.e. the
+     *         wrapper type for a primitive setter parameter.
+     */
+    public Class<?> getValueType() {
+        return valueType;
+    }
+
+    private static Class<?> toWrapperType(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        // @formatter:off
+        if (int.class.equals(type)) return Integer.class;
+        if (long.class.equals(type)) return Long.class;
+        if (boolean.class.equals(type)) return Boolean.class;
+        if (double.class.equals(type)) return Double.class;
+        if (float.class.equals(type)) return Float.class;
+        if (short.class.equals(type)) return Short.class;
+        if (byte.class.equals(type)) return Byte.class;
+        if (char.class.equals(type)) return Character.class;
+        // @formatter:on
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return type.getName() + "#" + attributePath + "(" + parameterType.getName() + ")";
+    }
+}
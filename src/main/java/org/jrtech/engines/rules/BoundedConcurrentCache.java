@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The class <code>BoundedConcurrentCache</code> is a thread safe cache holding
+ * up to a maximum number of entries. <br>
+ * Reads are lock free: a hit only stamps the access time of its entry. Writes
+ * (i.e. misses) are serialized, and once the cache is full they evict the
+ * least recently used of a few randomly sampled entries, which approximates
+ * an LRU eviction without maintaining an access order. The hit, miss and
+ * eviction counters are {@link LongAdder}s, so they are not a contention
+ * point either.
+ */
+public class BoundedConcurrentCache<K, V> {
+
+    public static final int DEFAULT_SAMPLE_SIZE = 8;
+
+    // Hot entries are stamped at most once per this period (nanoseconds)
+    private static final long ACCESS_STAMP_PERIOD = 1000000L;
+
+    private final int maxSize;
+
+    private final int sampleSize;
+
+    private final ConcurrentHashMap<K, Node<K, V>> nodeCatalog;
+
+    // Dense array of the entries for the uniform sampling, guarded by this
+    private final Node<K, V>[] slots;
+
+    private int size = 0;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    public BoundedConcurrentCache(int maxSize) {
+        this(maxSize, DEFAULT_SAMPLE_SIZE);
+    }
+
+    public BoundedConcurrentCache(int maxSize, int sampleSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Invalid maximum cache size: [" + maxSize + "].");
+        }
+        if (sampleSize < 1) {
+            throw new IllegalArgumentException("Invalid eviction sample size: [" + sampleSize + "].");
+        }
+        this.maxSize = maxSize;
+        this.sampleSize = sampleSize;
+        this.nodeCatalog = new ConcurrentHashMap<>(Math.min(maxSize, 1 << 16) * 4 / 3 + 1);
+        @SuppressWarnings("unchecked")
+        Node<K, V>[] slots = (Node<K, V>[]) new Node<?, ?>[maxSize];
+        this.slots = slots;
+    }
+
+    /**
+     * @return the cached value, or <code>null</code> if there is none.
+     */
+    public V get(K key) {
+        Node<K, V> node = nodeCatalog.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+
+        hitCount.increment();
+        node.touch();
+        return node.value;
+    }
+
+    /**
+     * @return the cached value, or the value computed (outside of any lock)
+     *         and cached on a miss. A concurrently cached value wins over the
+     *         computed one.
+     * @throws RuntimeException
+     *             the exception of the mapping function, nothing is cached.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+
+        value = mappingFunction.apply(key);
+        if (value == null) {
+            return null;
+        }
+
+        return putIfAbsent(key, value);
+    }
+
+    /**
+     * Caches the value, replacing the value cached for the key.
+     */
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Invalid cache entry: [" + key + "=" + value + "].");
+        }
+
+        synchronized (this) {
+            Node<K, V> node = nodeCatalog.get(key);
+            if (node != null) {
+                Node<K, V> replacement = new Node<>(key, value, node.slot);
+                slots[node.slot] = replacement;
+                nodeCatalog.put(key, replacement);
+                return;
+            }
+            insert(key, value);
+        }
+    }
+
+    /**
+     * @return the value already cached for the key, or the given value which
+     *         is cached now.
+     */
+    public V putIfAbsent(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Invalid cache entry: [" + key + "=" + value + "].");
+        }
+
+        synchronized (this) {
+            Node<K, V> node = nodeCatalog.get(key);
+            if (node != null) {
+                return node.value;
+            }
+            insert(key, value);
+        }
+
+        return value;
+    }
+
+    public V remove(K key) {
+        synchronized (this) {
+            Node<K, V> node = nodeCatalog.remove(key);
+            if (node == null) {
+                return null;
+            }
+            removeSlot(node.slot);
+            return node.value;
+        }
+    }
+
+    public void clear() {
+        synchronized (this) {
+            nodeCatalog.clear();
+            for (int i = 0; i < size; i++) {
+                slots[i] = null;
+            }
+            size = 0;
+        }
+    }
+
+    public int size() {
+        return nodeCatalog.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedConcurrentCache[size: " + size() + "/" + maxSize + ", hits: " + getHitCount() + ", misses: "
+                + getMissCount() + ", evictions: " + getEvictionCount() + "]";
+    }
+
+    // Must hold the lock
+    private void insert(K key, V value) {
+        if (size == maxSize) {
+            evict();
+        }
+        Node<K, V> node = new Node<>(key, value, size);
+        slots[size++] = node;
+        nodeCatalog.put(key, node);
+    }
+
+    // Must hold the lock
+    private void evict() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Node<K, V> victim = null;
+        for (int i = 0; i < sampleSize; i++) {
+            Node<K, V> candidate = slots[random.nextInt(size)];
+            if (victim == null || candidate.accessTime < victim.accessTime) {
+                victim = candidate;
+            }
+        }
+
+        nodeCatalog.remove(victim.key, victim);
+        removeSlot(victim.slot);
+        evictionCount.increment();
+    }
+
+    // Must hold the lock, moves the last entry into the freed slot
+    private void removeSlot(int slot) {
+        Node<K, V> last = slots[--size];
+        slots[size] = null;
+        if (slot != size) {
+            last.slot = slot;
+            slots[slot] = last;
+        }
+    }
+
+    private static class Node<K, V> {
+        private final K key;
+        private final V value;
+        private int slot;
+        private volatile long accessTime;
+
+        private Node(K key, V value, int slot) {
+            this.key = key;
+            this.value = value;
+            this.slot = slot;
+            this.accessTime = System.nanoTime();
+        }
+
+        private void touch() {
+            long now = System.nanoTime();
+            if (now - accessTime > ACCESS_STAMP_PERIOD) {
+                accessTime = now;
+            }
+        }
+    }
+}
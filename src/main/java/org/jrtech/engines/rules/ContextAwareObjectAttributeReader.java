@@ -18,6 +18,12 @@ package org.jrtech.engines.rules;
 
 import java.util.Map;
 
+/**
+ * @deprecated The context is set on the single reader instance of the
+ *             attribute, so the evaluations using it are serialized. Implement
+ *             the stateless {@link ContextualObjectAttributeReader} instead.
+ */
+@Deprecated
 public interface ContextAwareObjectAttributeReader<T, V> extends ObjectAttributeReader<T, V> {
 
     public void setContextData(Map<String, Object> contextData);
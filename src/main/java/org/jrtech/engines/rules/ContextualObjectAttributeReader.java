@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The interface <code>ContextualObjectAttributeReader</code> is a reader which
+ * gets the context variables of the evaluation passed along with the object
+ * value. <br>
+ * An attribute keeps a single reader instance which is shared by all threads
+ * evaluating its rule set, so implementations must be stateless (or at least
+ * reentrant). The deprecated {@link ContextAwareObjectAttributeReader}s are
+ * wrapped by {@link #adapt(ObjectAttributeReader)}.
+ */
+public interface ContextualObjectAttributeReader<T, V> extends ObjectAttributeReader<T, V> {
+
+    /**
+     * @param contextData
+     *            the context variables of the evaluation, never
+     *            <code>null</code>.
+     */
+    public V read(T objectValue, Map<String, Object> contextData);
+
+    @Override
+    public default V read(T objectValue) {
+        return read(objectValue, Collections.<String, Object> emptyMap());
+    }
+
+    /**
+     * @return the reader as a contextual reader: the reader itself, a reader
+     *         ignoring the context for plain readers, or a reader serializing
+     *         the calls of a {@link ContextAwareObjectAttributeReader} which
+     *         keeps the context in a field.
+     */
+    @SuppressWarnings({ "unchecked", "deprecation" })
+    public static <T, V> ContextualObjectAttributeReader<T, V> adapt(ObjectAttributeReader<T, V> reader) {
+        if (reader == null) {
+            return null;
+        } else if (reader instanceof ContextualObjectAttributeReader) {
+            return (ContextualObjectAttributeReader<T, V>) reader;
+        } else if (reader instanceof ContextAwareObjectAttributeReader) {
+            final ContextAwareObjectAttributeReader<T, V> contextAwareReader = (ContextAwareObjectAttributeReader<T, V>) reader;
+            return (T objectValue, Map<String, Object> contextData) -> {
+                synchronized (contextAwareReader) {
+                    contextAwareReader.setContextData(contextData);
+                    return contextAwareReader.read(objectValue);
+                }
+            };
+        }
+
+        return (T objectValue, Map<String, Object> contextData) -> reader.read(objectValue);
+    }
+}
@@ -0,0 +1,472 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jrtech.common.xmlutils.XmlUtils;
+import org.jrtech.engines.rules.model.AttributeInterner;
+import org.jrtech.engines.rules.model.ConditionalAttribute;
+import org.jrtech.engines.rules.model.Rule;
+import org.jrtech.engines.rules.model.RuleCondition;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * The class <code>IncrementalRuleSetLoader</code> is a {@link RuleSetLoader}
+ * which reuses the results of its previous load when the same rule set is
+ * loaded again. <br>
+ * Every include document is tracked by the SHA-256 hash of its content. An
+ * include whose content and nested includes are unchanged is not parsed
+ * again; its rules are carried over as they are. In changed documents, every
+ * rule element is tracked by the hash of its content, so only new or changed
+ * rules are converted; the unchanged ones keep their instance and thereby
+ * their compiled conditions (see {@link Rule#compile()}). Rules without id
+ * are always converted, as their id depends on their position. <br>
+ * Rules are shared between the results of successive loads and must not be
+ * modified. As the carried over rules keep their condition and value slot ids,
+ * the {@link AttributeInterner} of the previous load is kept as well. Once it
+ * holds more than {@link #COMPACTION_RATIO} times the conditional attributes
+ * of the last loaded rule set, the next load starts from scratch (see
+ * {@link #reset()}) to number the attributes densely again. The rule set
+ * index of a new {@link RuleSetExecutor} is still built from scratch, which
+ * only visits the carried over rules. One instance loads one rule set at a
+ * time, e.g. as loader of a {@link RuleSetRegistry}.
+ */
+public class IncrementalRuleSetLoader extends RuleSetLoader {
+
+    /**
+     * The ratio of interned to used conditional attributes from which the
+     * next load converts every rule again.
+     */
+    public static final int COMPACTION_RATIO = 2;
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private Map<String, IncludeState> includeStateCatalog = Collections.emptyMap();
+
+    private Map<String, Rule<?>> ruleCatalog = Collections.emptyMap();
+
+    private Map<String, IncludeState> loadingIncludeStateCatalog = null;
+
+    private Map<String, Rule<?>> loadingRuleCatalog = null;
+
+    private Deque<DocumentFrame> documentFrameStack = null;
+
+    private int parsedIncludeCount = 0;
+
+    private int reusedIncludeCount = 0;
+
+    private int convertedRuleCount = 0;
+
+    private int reusedRuleCount = 0;
+
+    private int usedConditionCount = 0;
+
+    public static IncrementalRuleSetLoader newInstance() {
+        return new IncrementalRuleSetLoader();
+    }
+
+    @Override
+    public synchronized <T> List<Rule<T>> load(Document xmlDocument) throws Exception {
+        if (getAttributeInterner().getConditionCount() > COMPACTION_RATIO * usedConditionCount) {
+            reset();
+        }
+        loadingIncludeStateCatalog = new HashMap<>();
+        loadingRuleCatalog = new HashMap<>();
+        documentFrameStack = new ArrayDeque<>();
+        documentFrameStack.push(new DocumentFrame());
+        parsedIncludeCount = 0;
+        reusedIncludeCount = 0;
+        convertedRuleCount = 0;
+        reusedRuleCount = 0;
+        try {
+            List<Rule<T>> result = super.load(xmlDocument);
+
+            includeStateCatalog = loadingIncludeStateCatalog;
+            ruleCatalog = loadingRuleCatalog;
+            usedConditionCount = countConditionalAttributes(result);
+
+            return result;
+        } finally {
+            loadingIncludeStateCatalog = null;
+            loadingRuleCatalog = null;
+            documentFrameStack = null;
+        }
+    }
+
+    /**
+     * Forgets the results of the previous load, so the next load converts
+     * every rule again with a new {@link AttributeInterner}.
+     */
+    public synchronized void reset() {
+        includeStateCatalog = Collections.emptyMap();
+        ruleCatalog = Collections.emptyMap();
+        usedConditionCount = 0;
+    }
+
+    /**
+     * @return the number of include documents parsed by the last load.
+     */
+    public synchronized int getParsedIncludeCount() {
+        return parsedIncludeCount;
+    }
+
+    /**
+     * @return the number of include documents carried over by the last load.
+     */
+    public synchronized int getReusedIncludeCount() {
+        return reusedIncludeCount;
+    }
+
+    /**
+     * @return the number of rule elements converted by the last load.
+     */
+    public synchronized int getConvertedRuleCount() {
+        return convertedRuleCount;
+    }
+
+    /**
+     * @return the number of rules of parsed documents carried over by the
+     *         last load.
+     */
+    public synchronized int getReusedRuleCount() {
+        return reusedRuleCount;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T> Rule<T> xmlToRule(Element xmlRuleElement) {
+        if (xmlRuleElement == null || loadingRuleCatalog == null
+                || xmlRuleElement.getAttribute(XmlUtils.XML_ATTRIBUTE_ID).trim().length() < 1) {
+            return super.xmlToRule(xmlRuleElement);
+        }
+
+        String ruleDigest = digestElement(xmlRuleElement);
+        Rule<T> rule = (Rule<T>) ruleCatalog.get(ruleDigest);
+        if (rule == null) {
+            rule = (Rule<T>) loadingRuleCatalog.get(ruleDigest);
+        }
+        if (rule == null) {
+            rule = super.xmlToRule(xmlRuleElement);
+            convertedRuleCount++;
+        } else {
+            reusedRuleCount++;
+        }
+        loadingRuleCatalog.put(ruleDigest, rule);
+        documentFrameStack.peek().ruleCatalog.put(ruleDigest, rule);
+
+        return rule;
+    }
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    protected <T> List<Rule<T>> loadInclude(IncludeDocument includeDocument, IncludeFetcher includeFetcher,
+            Set<String> includeChain) throws Exception {
+        if (loadingIncludeStateCatalog == null || !(includeFetcher instanceof IncrementalIncludeFetcher)) {
+            return super.loadInclude(includeDocument, includeFetcher, includeChain);
+        }
+
+        IncrementalIncludeFetcher incrementalIncludeFetcher = (IncrementalIncludeFetcher) includeFetcher;
+        Document document = includeDocument.getDocument();
+        String includeUrl = includeDocument.getUrl();
+        if (document == null && incrementalIncludeFetcher.isUnchanged(includeUrl)) {
+            IncludeState includeState = includeStateCatalog.get(includeUrl);
+            carryOver(includeUrl);
+            reusedIncludeCount++;
+            return new ArrayList<Rule<T>>((List) includeState.rules);
+        }
+        if (document == null) {
+            // Failed, already logged
+            documentFrameStack.peek().complete = false;
+            return new ArrayList<Rule<T>>();
+        }
+
+        DocumentFrame documentFrame = new DocumentFrame();
+        documentFrameStack.push(documentFrame);
+        List<Rule<T>> result = null;
+        try {
+            result = super.loadInclude(includeDocument, includeFetcher, includeChain);
+        } finally {
+            documentFrameStack.pop();
+            if (result == null) {
+                // Failed, skipped by the including document
+                documentFrameStack.peek().complete = false;
+            }
+        }
+        parsedIncludeCount++;
+
+        if (documentFrame.complete) {
+            loadingIncludeStateCatalog.put(includeUrl,
+                    new IncludeState(incrementalIncludeFetcher.getDigest(includeUrl), documentFrame.includeUrls,
+                            documentFrame.ruleCatalog, new ArrayList<Rule<?>>(result)));
+        } else {
+            documentFrameStack.peek().complete = false;
+        }
+
+        return result;
+    }
+
+    @Override
+    protected AttributeInterner createAttributeInterner() {
+        if (ruleCatalog.isEmpty()) {
+            return super.createAttributeInterner();
+        }
+
+        // The carried over rules keep their ids
+        return getAttributeInterner();
+    }
+
+    @Override
+    protected IncludeFetcher createIncludeFetcher() {
+        if (loadingIncludeStateCatalog == null) {
+            return super.createIncludeFetcher();
+        }
+
+        return new IncrementalIncludeFetcher(getIncludeParallelism(), includeStateCatalog);
+    }
+
+    private static <T> int countConditionalAttributes(List<Rule<T>> ruleSet) {
+        Set<ConditionalAttribute> conditionalAttributes = Collections
+                .newSetFromMap(new IdentityHashMap<ConditionalAttribute, Boolean>());
+        for (Rule<T> rule : ruleSet) {
+            for (RuleCondition condition : rule.getConditions()) {
+                conditionalAttributes.addAll(condition.getAttributes());
+            }
+        }
+
+        return conditionalAttributes.size();
+    }
+
+    private void carryOver(String includeUrl) {
+        IncludeState includeState = includeStateCatalog.get(includeUrl);
+        if (includeState == null || loadingIncludeStateCatalog.put(includeUrl, includeState) != null) {
+            return;
+        }
+
+        loadingRuleCatalog.putAll(includeState.ruleCatalog);
+        for (String nestedIncludeUrl : includeState.includeUrls) {
+            carryOver(nestedIncludeUrl);
+        }
+    }
+
+    protected static String digestElement(Element xmlElement) {
+        MessageDigest messageDigest = newMessageDigest();
+        updateDigest(messageDigest, xmlElement);
+
+        return Base64.getEncoder().encodeToString(messageDigest.digest());
+    }
+
+    private static void updateDigest(MessageDigest messageDigest, Element xmlElement) {
+        updateDigest(messageDigest, "<" + xmlElement.getTagName());
+
+        NamedNodeMap xmlAttributes = xmlElement.getAttributes();
+        Map<String, String> attributeCatalog = new TreeMap<>();
+        for (int i = 0; i < xmlAttributes.getLength(); i++) {
+            Node xmlAttribute = xmlAttributes.item(i);
+            attributeCatalog.put(xmlAttribute.getNodeName(), xmlAttribute.getNodeValue());
+        }
+        for (Map.Entry<String, String> entry : attributeCatalog.entrySet()) {
+            updateDigest(messageDigest, entry.getKey());
+            updateDigest(messageDigest, entry.getValue());
+        }
+
+        NodeList xmlChildNodes = xmlElement.getChildNodes();
+        for (int i = 0; i < xmlChildNodes.getLength(); i++) {
+            Node xmlChildNode = xmlChildNodes.item(i);
+            if (xmlChildNode instanceof Element) {
+                updateDigest(messageDigest, (Element) xmlChildNode);
+            } else if (xmlChildNode.getNodeType() == Node.TEXT_NODE
+                    || xmlChildNode.getNodeType() == Node.CDATA_SECTION_NODE) {
+                updateDigest(messageDigest, xmlChildNode.getNodeValue());
+            }
+        }
+        updateDigest(messageDigest, ">");
+    }
+
+    private static void updateDigest(MessageDigest messageDigest, String value) {
+        messageDigest.update(value.getBytes(StandardCharsets.UTF_8));
+        messageDigest.update((byte) 0);
+    }
+
+    private static MessageDigest newMessageDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Missing message digest: " + DIGEST_ALGORITHM, e);
+        }
+    }
+
+    /**
+     * The class <code>IncrementalIncludeFetcher</code> hashes the fetched
+     * include documents and only parses the changed ones.
+     */
+    protected class IncrementalIncludeFetcher extends IncludeFetcher {
+
+        private final Map<String, IncludeState> previousIncludeStateCatalog;
+
+        private final Map<String, byte[]> digestCatalog = new ConcurrentHashMap<>();
+
+        private final Set<String> unchangedIncludeUrls = ConcurrentHashMap.newKeySet();
+
+        protected IncrementalIncludeFetcher(int parallelism, Map<String, IncludeState> previousIncludeStateCatalog) {
+            super(parallelism);
+            this.previousIncludeStateCatalog = previousIncludeStateCatalog;
+        }
+
+        @Override
+        public IncludeDocument fetch(String includeDocLocation, Set<String> includeChain) {
+            IncludeDocument includeDocument = super.fetch(includeDocLocation, includeChain);
+            DocumentFrame documentFrame = documentFrameStack.peek();
+            if (includeDocument != null) {
+                documentFrame.includeUrls.add(includeDocument.getUrl());
+            } else if (includeDocLocation.length() > 0) {
+                // Unresolvable or cyclic include: the result depends on more than the content
+                documentFrame.complete = false;
+            }
+
+            return includeDocument;
+        }
+
+        /**
+         * @return the parsed document, or <code>null</code> if the document
+         *         and its nested includes did not change since the previous
+         *         load.
+         */
+        @Override
+        protected Document readDocument(URL includeDocUrl) throws Exception {
+            String includeUrl = includeDocUrl.toExternalForm();
+            byte[] content = readContent(includeDocUrl);
+            byte[] digest = newMessageDigest().digest(content);
+            digestCatalog.put(includeUrl, digest);
+
+            if (isUnchanged(includeUrl, digest, new HashSet<String>())) {
+                unchangedIncludeUrls.add(includeUrl);
+                return null;
+            }
+
+            return XmlUtils.createDocument(new ByteArrayInputStream(content));
+        }
+
+        public boolean isUnchanged(String includeUrl) {
+            return unchangedIncludeUrls.contains(includeUrl);
+        }
+
+        public byte[] getDigest(String includeUrl) {
+            return digestCatalog.get(includeUrl);
+        }
+
+        private boolean isUnchanged(String includeUrl, byte[] digest, Set<String> visitedIncludeUrls)
+                throws Exception {
+            IncludeState includeState = previousIncludeStateCatalog.get(includeUrl);
+            if (includeState == null || !Arrays.equals(includeState.digest, digest)) {
+                return false;
+            }
+
+            for (String nestedIncludeUrl : includeState.includeUrls) {
+                if (!visitedIncludeUrls.add(nestedIncludeUrl)) {
+                    continue;
+                }
+                byte[] nestedDigest = newMessageDigest().digest(readContent(new URL(nestedIncludeUrl)));
+                if (!isUnchanged(nestedIncludeUrl, nestedDigest, visitedIncludeUrls)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private byte[] readContent(URL includeDocUrl) throws Exception {
+            InputStream subStructureStream = includeDocUrl.openStream();
+            try {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                for (int length = subStructureStream.read(buffer); length >= 0; length = subStructureStream
+                        .read(buffer)) {
+                    content.write(buffer, 0, length);
+                }
+
+                return content.toByteArray();
+            } finally {
+                try {
+                    subStructureStream.close();
+                } catch (Exception e) {
+                    // do nothing
+                }
+            }
+        }
+    }
+
+    /**
+     * The class <code>IncludeState</code> is the result of an include document
+     * of the previous load.
+     */
+    protected static class IncludeState {
+
+        private final byte[] digest;
+
+        private final List<String> includeUrls;
+
+        private final Map<String, Rule<?>> ruleCatalog;
+
+        private final List<Rule<?>> rules;
+
+        protected IncludeState(byte[] digest, List<String> includeUrls, Map<String, Rule<?>> ruleCatalog,
+                List<Rule<?>> rules) {
+            this.digest = digest;
+            this.includeUrls = includeUrls;
+            this.ruleCatalog = ruleCatalog;
+            this.rules = rules;
+        }
+    }
+
+    /**
+     * The class <code>DocumentFrame</code> collects the includes and rules of
+     * the document being converted.
+     */
+    private static class DocumentFrame {
+
+        private final List<String> includeUrls = new ArrayList<>();
+
+        private final Map<String, Rule<?>> ruleCatalog = new HashMap<>();
+
+        private boolean complete = true;
+    }
+}
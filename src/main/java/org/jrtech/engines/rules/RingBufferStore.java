@@ -19,6 +19,12 @@ package org.jrtech.engines.rules;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * @deprecated An access ordered map is modified by every
+ *             {@link #get(Object)}, so this store is serialized on all
+ *             operations. Use the {@link BoundedConcurrentCache} instead.
+ */
+@Deprecated
 public class RingBufferStore<K, V> extends LinkedHashMap<K, V> {
 
     private static final long serialVersionUID = 8594222201635650361L;
@@ -34,6 +40,12 @@ public class RingBufferStore<K, V> extends LinkedHashMap<K, V> {
         this.maxSize = maxSize;
     }
     
+    @Override
+    public synchronized V get(Object key) {
+        // Moves the entry to the end of the access order
+        return super.get(key);
+    }
+
     @Override
     public synchronized V put(K key, V value) {
         return super.put(key, value);
@@ -0,0 +1,573 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jrtech.engines.rules.index.RuleSetIndex;
+import org.jrtech.engines.rules.model.AbstractAttribute;
+import org.jrtech.engines.rules.model.ColumnarEvaluation;
+import org.jrtech.engines.rules.model.ConditionalAttribute;
+import org.jrtech.engines.rules.model.EvaluationContext;
+import org.jrtech.engines.rules.model.GoalApplicationException;
+import org.jrtech.engines.rules.model.Result;
+import org.jrtech.engines.rules.model.Rule;
+import org.jrtech.engines.rules.model.RuleCondition;
+
+/**
+ * The class <code>RuleSetExecutor</code> is an immutable snapshot of a loaded
+ * rule set (e.g. the result of {@link RuleSetLoader#load(String)}) which
+ * applies the rules in their loaded order according to its
+ * {@link ExecutionMode}. <br>
+ * The rule list and the scope index catalog are copied when the snapshot is
+ * created, so a single instance can be shared by any number of threads. The
+ * rules are compiled (see {@link Rule#compile()}) when the snapshot is created
+ * and must not be modified afterwards. <br>
+ * Only the rules selected by the {@link RuleSetIndex} of the snapshot are
+ * tried, in their loaded order. The candidates are selected again after the
+ * goals of an applied rule, so a rule enabled by these goals is not missed.
+ * The results of conditions shared by several rules (see
+ * {@link org.jrtech.engines.rules.model.AttributeInterner}) are
+ * evaluated once per application until the goals of an applied rule may have
+ * changed the objects, see {@link EvaluationContext}. The clock of the
+ * <code>SYSTEM</code> variables is read once per application, see
+ * {@link SystemVariableProvider}.
+ */
+public class RuleSetExecutor<T> {
+
+    /** The number of facts evaluated together by {@link #applyBatch(List, List, Map)}. */
+    public static final int BATCH_CHUNK_SIZE = 256;
+
+    /** The number of facts evaluated together by {@link #applyColumnar(List, List, Map)}. */
+    public static final int COLUMNAR_CHUNK_SIZE = 4096;
+
+    private final String ruleSetName;
+
+    private final ExecutionMode executionMode;
+
+    private final Rule<T>[] rules;
+
+    private final List<Rule<T>> ruleList;
+
+    private final RuleSetIndex ruleSetIndex;
+
+    private final boolean[] defaultApplyRules;
+
+    private final ThreadLocal<EvaluationContext> evaluationContextHolder;
+
+    private final Map<String, RuleSetExecutor<T>> scopedExecutorCatalog;
+
+    public static <T> RuleSetExecutor<T> newInstance(List<Rule<T>> ruleSet) {
+        return newInstance(ruleSet, ExecutionMode.FIRST_MATCH);
+    }
+
+    public static <T> RuleSetExecutor<T> newInstance(List<Rule<T>> ruleSet, ExecutionMode executionMode) {
+        return newInstance(null, ruleSet, executionMode);
+    }
+
+    public static <T> RuleSetExecutor<T> newInstance(String ruleSetName, List<Rule<T>> ruleSet,
+            ExecutionMode executionMode) {
+        return new RuleSetExecutor<T>(ruleSetName, ruleSet, executionMode, true);
+    }
+
+    protected RuleSetExecutor(String ruleSetName, List<Rule<T>> ruleSet, ExecutionMode executionMode,
+            boolean indexScopes) {
+        if (executionMode == null) {
+            throw new IllegalArgumentException("Invalid execution mode: [NULL].");
+        }
+        this.ruleSetName = ruleSetName;
+        this.executionMode = executionMode;
+        this.ruleList = ruleSet == null ? Collections.<Rule<T>> emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(ruleSet));
+        this.rules = toArray(ruleList);
+        for (Rule<T> rule : rules) {
+            rule.compile();
+        }
+        this.ruleSetIndex = RuleSetIndex.newInstance(ruleList);
+        this.defaultApplyRules = new boolean[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            defaultApplyRules[i] = rules[i].hasDefaultApply();
+        }
+        this.evaluationContextHolder = createEvaluationContextHolder(rules);
+
+        if (indexScopes) {
+            // Same grouping as RuleSetLoader.indexRule(...), but frozen per scope
+            Map<String, List<Rule<T>>> scopedRuleSetCatalog = new LinkedHashMap<>();
+            for (Rule<T> rule : rules) {
+                if (rule.getScopeIndex() == null || rule.getScopeIndex().length() < 1) {
+                    continue;
+                }
+                List<Rule<T>> scopedRuleSet = scopedRuleSetCatalog.get(rule.getScopeIndex());
+                if (scopedRuleSet == null) {
+                    scopedRuleSet = new ArrayList<>();
+                    scopedRuleSetCatalog.put(rule.getScopeIndex(), scopedRuleSet);
+                }
+                scopedRuleSet.add(rule);
+            }
+
+            Map<String, RuleSetExecutor<T>> scopedExecutors = new LinkedHashMap<>();
+            for (Map.Entry<String, List<Rule<T>>> entry : scopedRuleSetCatalog.entrySet()) {
+                scopedExecutors.put(entry.getKey(),
+                        new RuleSetExecutor<T>(ruleSetName, entry.getValue(), executionMode, false));
+            }
+            this.scopedExecutorCatalog = Collections.unmodifiableMap(scopedExecutors);
+        } else {
+            this.scopedExecutorCatalog = Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Applies the rule set on the given objects.
+     *
+     * @return the successfully applied rules in their application order, or an
+     *         empty list if no rule is applicable.
+     */
+    public <S> List<Rule<T>> apply(S sourceObject, T targetObject, Map<String, Object> contextVariables)
+            throws GoalApplicationException {
+        EvaluationContext evaluationContext = beginEvaluation();
+        SystemVariableProvider systemVariableProvider = SystemVariableProvider.getDefault();
+        systemVariableProvider.begin();
+        try {
+            return apply(sourceObject, targetObject, contextVariables, evaluationContext);
+        } finally {
+            systemVariableProvider.end();
+            if (evaluationContext != null) {
+                evaluationContext.end();
+            }
+        }
+    }
+
+    private <S> List<Rule<T>> apply(S sourceObject, T targetObject, Map<String, Object> contextVariables,
+            EvaluationContext evaluationContext) throws GoalApplicationException {
+        List<Rule<T>> appliedRules = null;
+        BitSet candidates = ruleSetIndex.getCandidates(sourceObject, targetObject, contextVariables,
+                evaluationContext);
+        for (int i = nextCandidate(candidates, 0); i >= 0; i = nextCandidate(candidates, i + 1)) {
+            Rule<T> rule = rules[i];
+            Result result = defaultApplyRules[i]
+                    ? rule.apply(sourceObject, targetObject, contextVariables, evaluationContext)
+                    : rule.apply(sourceObject, targetObject, contextVariables);
+            if (!Result.SUCCESS.equals(result)) {
+                continue;
+            }
+
+            boolean stop = ExecutionMode.FIRST_MATCH.equals(executionMode)
+                    || (ExecutionMode.TERMINATING.equals(executionMode) && rule.isTerminating());
+            if (!stop && changesObjects(i)) {
+                // The goals may have changed the values memoized so far and
+                // the guards of the next rules
+                if (evaluationContext != null) {
+                    evaluationContext.invalidate();
+                }
+                candidates = ruleSetIndex.getCandidates(sourceObject, targetObject, contextVariables,
+                        evaluationContext);
+            }
+            if (stop && appliedRules == null) {
+                return Collections.singletonList(rule);
+            }
+
+            if (appliedRules == null) {
+                appliedRules = new ArrayList<>();
+            }
+            appliedRules.add(rule);
+
+            if (stop) {
+                break;
+            }
+        }
+
+        return appliedRules == null ? Collections.<Rule<T>> emptyList() : appliedRules;
+    }
+
+    /**
+     * Applies the rule set on each pair of source and target objects, like
+     * {@link #apply(Object, Object, Map)} would do one pair after the other.
+     * <br>
+     * The facts are processed in chunks of {@link #BATCH_CHUNK_SIZE}: the
+     * index candidates of the whole chunk are collected first (see
+     * {@link RuleSetIndex#getCandidates(Object[], Object[], Map, EvaluationContext[])}),
+     * then every rule is tried on every fact of the chunk before the next
+     * rule, so the rules are still applied in their loaded order per fact.
+     * The facts must be independent of each other, e.g. must not share a
+     * target object.
+     *
+     * @return the successfully applied rules of each fact, in the order of the
+     *         given source objects.
+     */
+    public <S> List<List<Rule<T>>> applyBatch(List<S> sourceObjects, List<T> targetObjects,
+            Map<String, Object> contextVariables) throws GoalApplicationException {
+        checkBatch(sourceObjects, targetObjects);
+
+        List<List<Rule<T>>> appliedRuleLists = new ArrayList<>(sourceObjects.size());
+        int chunkSize = Math.min(BATCH_CHUNK_SIZE, sourceObjects.size());
+        EvaluationContext[] evaluationContexts = createEvaluationContexts(chunkSize);
+        SystemVariableProvider systemVariableProvider = SystemVariableProvider.getDefault();
+        systemVariableProvider.begin();
+        try {
+            for (int from = 0; from < sourceObjects.size(); from += chunkSize) {
+                int to = Math.min(from + chunkSize, sourceObjects.size());
+                appliedRuleLists.addAll(applyChunk(sourceObjects.subList(from, to), targetObjects.subList(from, to),
+                        contextVariables, evaluationContexts));
+            }
+        } finally {
+            systemVariableProvider.end();
+        }
+
+        return appliedRuleLists;
+    }
+
+    private <S> List<List<Rule<T>>> applyChunk(List<S> sourceObjects, List<T> targetObjects,
+            Map<String, Object> contextVariables, EvaluationContext[] evaluationContexts)
+            throws GoalApplicationException {
+        int factCount = sourceObjects.size();
+        Object[] sources = sourceObjects.toArray();
+        Object[] targets = targetObjects.toArray();
+        boolean[] stopped = new boolean[factCount];
+        List<List<Rule<T>>> appliedRuleLists = new ArrayList<>(factCount);
+        for (int f = 0; f < factCount; f++) {
+            if (evaluationContexts != null) {
+                evaluationContexts[f].begin();
+            }
+            appliedRuleLists.add(Collections.<Rule<T>> emptyList());
+        }
+
+        int activeFactCount = factCount;
+        try {
+            BitSet[] candidates = ruleSetIndex.getCandidates(sources, targets, contextVariables, evaluationContexts);
+            for (int i = 0; i < rules.length && activeFactCount > 0; i++) {
+                Rule<T> rule = rules[i];
+                boolean stop = ExecutionMode.FIRST_MATCH.equals(executionMode)
+                        || (ExecutionMode.TERMINATING.equals(executionMode) && rule.isTerminating());
+                for (int f = 0; f < factCount; f++) {
+                    if (stopped[f] || (candidates[f] != null && !candidates[f].get(i))) {
+                        continue;
+                    }
+                    @SuppressWarnings("unchecked")
+                    T targetObject = (T) targets[f];
+                    Result result = defaultApplyRules[i]
+                            ? rule.apply(sources[f], targetObject, contextVariables,
+                                    evaluationContexts == null ? null : evaluationContexts[f])
+                            : rule.apply(sources[f], targetObject, contextVariables);
+                    if (!Result.SUCCESS.equals(result)) {
+                        continue;
+                    }
+
+                    addAppliedRule(appliedRuleLists, f, rule, stop);
+                    if (stop) {
+                        stopped[f] = true;
+                        activeFactCount--;
+                    } else if (changesObjects(i)) {
+                        EvaluationContext evaluationContext = evaluationContexts == null ? null
+                                : evaluationContexts[f];
+                        if (evaluationContext != null) {
+                            evaluationContext.invalidate();
+                        }
+                        candidates[f] = ruleSetIndex.getCandidates(sources[f], targets[f], contextVariables,
+                                evaluationContext);
+                    }
+                }
+            }
+        } finally {
+            if (evaluationContexts != null) {
+                for (int f = 0; f < factCount; f++) {
+                    evaluationContexts[f].end();
+                }
+            }
+        }
+
+        return appliedRuleLists;
+    }
+
+    /**
+     * Applies the rule set on each pair of source and target objects like
+     * {@link #applyBatch(List, List, Map)}, but matches the conditions column
+     * by column, see {@link ColumnarEvaluation}. This pays off for large
+     * batches of map-shaped facts sharing a few distinct values per
+     * attribute. <br>
+     * The facts are processed in chunks of {@link #COLUMNAR_CHUNK_SIZE}. The
+     * source attributes are read once per chunk, so the goals must not modify
+     * the source objects. A chunk with a fact whose source object is its
+     * target object is therefore applied like {@link #applyBatch(List, List, Map)}
+     * does.
+     *
+     * @return the successfully applied rules of each fact, in the order of the
+     *         given source objects.
+     */
+    public <S> List<List<Rule<T>>> applyColumnar(List<S> sourceObjects, List<T> targetObjects,
+            Map<String, Object> contextVariables) throws GoalApplicationException {
+        checkBatch(sourceObjects, targetObjects);
+
+        List<List<Rule<T>>> appliedRuleLists = new ArrayList<>(sourceObjects.size());
+        SystemVariableProvider systemVariableProvider = SystemVariableProvider.getDefault();
+        systemVariableProvider.begin();
+        try {
+            for (int from = 0; from < sourceObjects.size(); from += COLUMNAR_CHUNK_SIZE) {
+                int to = Math.min(from + COLUMNAR_CHUNK_SIZE, sourceObjects.size());
+                Object[] sources = sourceObjects.subList(from, to).toArray();
+                Object[] targets = targetObjects.subList(from, to).toArray();
+                if (isSelfTargeting(sources, targets)) {
+                    appliedRuleLists.addAll(applyChunk(sourceObjects.subList(from, to),
+                            targetObjects.subList(from, to), contextVariables, createEvaluationContexts(to - from)));
+                } else {
+                    appliedRuleLists.addAll(applyColumnarChunk(sources, targets, contextVariables));
+                }
+            }
+        } finally {
+            systemVariableProvider.end();
+        }
+
+        return appliedRuleLists;
+    }
+
+    private List<List<Rule<T>>> applyColumnarChunk(Object[] sources, Object[] targets,
+            Map<String, Object> contextVariables) throws GoalApplicationException {
+        ColumnarEvaluation evaluation = new ColumnarEvaluation(sources, targets, contextVariables);
+        BitSet activeFacts = new BitSet(sources.length);
+        activeFacts.set(0, sources.length);
+        List<List<Rule<T>>> appliedRuleLists = new ArrayList<>(sources.length);
+        for (int f = 0; f < sources.length; f++) {
+            appliedRuleLists.add(Collections.<Rule<T>> emptyList());
+        }
+
+        for (int i = 0; i < rules.length && !activeFacts.isEmpty(); i++) {
+            Rule<T> rule = rules[i];
+            boolean stop = ExecutionMode.FIRST_MATCH.equals(executionMode)
+                    || (ExecutionMode.TERMINATING.equals(executionMode) && rule.isTerminating());
+            BitSet appliedFacts;
+            if (defaultApplyRules[i] && !rule.getConditions().isEmpty()) {
+                appliedFacts = evaluation.match(rule, activeFacts);
+                for (int f = appliedFacts.nextSetBit(0); f >= 0; f = appliedFacts.nextSetBit(f + 1)) {
+                    evaluation.applyGoals(rule, f);
+                }
+            } else {
+                appliedFacts = new BitSet(sources.length);
+                for (int f = activeFacts.nextSetBit(0); f >= 0; f = activeFacts.nextSetBit(f + 1)) {
+                    @SuppressWarnings("unchecked")
+                    T targetObject = (T) targets[f];
+                    if (Result.SUCCESS.equals(rule.apply(sources[f], targetObject, contextVariables))) {
+                        appliedFacts.set(f);
+                    }
+                }
+            }
+
+            for (int f = appliedFacts.nextSetBit(0); f >= 0; f = appliedFacts.nextSetBit(f + 1)) {
+                addAppliedRule(appliedRuleLists, f, rule, stop);
+            }
+            if (stop) {
+                activeFacts.andNot(appliedFacts);
+            }
+        }
+
+        return appliedRuleLists;
+    }
+
+    /**
+     * @return <code>true</code> if applying the rule may change the source or
+     *         target object, i.e. the rule has goals or its own apply method.
+     */
+    private boolean changesObjects(int ruleOrdinal) {
+        return !defaultApplyRules[ruleOrdinal] || !rules[ruleOrdinal].getGoals().isEmpty();
+    }
+
+    /**
+     * @return <code>true</code> if the goals of a fact may modify its source
+     *         object, i.e. the source object is the target object.
+     */
+    private static boolean isSelfTargeting(Object[] sources, Object[] targets) {
+        for (int f = 0; f < sources.length; f++) {
+            if (sources[f] != null && sources[f] == targets[f]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void checkBatch(List<?> sourceObjects, List<?> targetObjects) {
+        if (sourceObjects == null) {
+            throw new IllegalArgumentException("Invalid source objects: [NULL].");
+        }
+        if (targetObjects == null || targetObjects.size() != sourceObjects.size()) {
+            throw new IllegalArgumentException(
+                    "Invalid target object count: [" + (targetObjects == null ? "NULL" : targetObjects.size()) + "].");
+        }
+    }
+
+    private void addAppliedRule(List<List<Rule<T>>> appliedRuleLists, int fact, Rule<T> rule, boolean stop) {
+        List<Rule<T>> appliedRules = appliedRuleLists.get(fact);
+        if (stop && appliedRules.isEmpty()) {
+            appliedRuleLists.set(fact, Collections.singletonList(rule));
+            return;
+        }
+        if (appliedRules.isEmpty()) {
+            appliedRules = new ArrayList<>();
+            appliedRuleLists.set(fact, appliedRules);
+        }
+        appliedRules.add(rule);
+    }
+
+    /**
+     * @return one evaluation context per fact of a chunk, or <code>null</code>
+     *         if the rules cannot share condition results.
+     */
+    private EvaluationContext[] createEvaluationContexts(int chunkSize) {
+        if (evaluationContextHolder == null) {
+            return null;
+        }
+
+        EvaluationContext template = evaluationContextHolder.get();
+        EvaluationContext[] evaluationContexts = new EvaluationContext[chunkSize];
+        for (int f = 0; f < chunkSize; f++) {
+            evaluationContexts[f] = new EvaluationContext(template.getConditionCount(), template.getValueSlotCount());
+        }
+
+        return evaluationContexts;
+    }
+
+    /**
+     * @return the evaluation context of the current thread, or
+     *         <code>null</code> if the rules cannot share condition results.
+     */
+    private EvaluationContext beginEvaluation() {
+        if (evaluationContextHolder == null) {
+            return null;
+        }
+
+        EvaluationContext evaluationContext = evaluationContextHolder.get();
+        if (evaluationContext.isActive()) {
+            // Re-entrant application (e.g. from a goal writer)
+            evaluationContext = new EvaluationContext(evaluationContext.getConditionCount(),
+                    evaluationContext.getValueSlotCount());
+        }
+        evaluationContext.begin();
+
+        return evaluationContext;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Rule<T>[] toArray(List<Rule<T>> ruleList) {
+        return ruleList.toArray((Rule<T>[]) new Rule<?>[ruleList.size()]);
+    }
+
+    /**
+     * @return the holder of the per thread evaluation contexts, or
+     *         <code>null</code> if the condition ids of the rules are missing
+     *         or ambiguous (e.g. rules of different loaders).
+     */
+    private static <T> ThreadLocal<EvaluationContext> createEvaluationContextHolder(Rule<T>[] rules) {
+        Map<Integer, ConditionalAttribute> conditionCatalog = new HashMap<>();
+        Map<Integer, String> valueSlotCatalog = new HashMap<>();
+        int conditionCount = 0;
+        int valueSlotCount = 0;
+        for (Rule<T> rule : rules) {
+            for (RuleCondition condition : rule.getConditions()) {
+                for (ConditionalAttribute attribute : condition.getAttributes()) {
+                    if (attribute.getConditionId() < 0) {
+                        continue;
+                    }
+                    ConditionalAttribute knownAttribute = conditionCatalog.put(attribute.getConditionId(), attribute);
+                    String valueSource = (AbstractAttribute.Owner.TARGET.equals(attribute.getOwner()) ? "T:" : "S:")
+                            + attribute.getName() + ":" + attribute.getReaderClass();
+                    String knownValueSource = valueSlotCatalog.put(attribute.getValueSlotId(), valueSource);
+                    if ((knownAttribute != null && knownAttribute != attribute)
+                            || (knownValueSource != null && !knownValueSource.equals(valueSource))) {
+                        return null;
+                    }
+                    conditionCount = Math.max(conditionCount, attribute.getConditionId() + 1);
+                    valueSlotCount = Math.max(valueSlotCount, attribute.getValueSlotId() + 1);
+                }
+            }
+        }
+        if (conditionCount == 0) {
+            return null;
+        }
+
+        final int contextConditionCount = conditionCount;
+        final int contextValueSlotCount = valueSlotCount;
+        return ThreadLocal.withInitial(() -> new EvaluationContext(contextConditionCount, contextValueSlotCount));
+    }
+
+    private int nextCandidate(BitSet candidates, int fromIndex) {
+        if (candidates == null) {
+            return fromIndex < rules.length ? fromIndex : -1;
+        }
+
+        return candidates.nextSetBit(fromIndex);
+    }
+
+    /**
+     * Applies the rule set and returns the first successfully applied rule.
+     *
+     * @return the first applied rule or <code>null</code> if no rule is
+     *         applicable.
+     */
+    public <S> Rule<T> applyFirst(S sourceObject, T targetObject, Map<String, Object> contextVariables)
+            throws GoalApplicationException {
+        List<Rule<T>> appliedRules = apply(sourceObject, targetObject, contextVariables);
+        return appliedRules.isEmpty() ? null : appliedRules.get(0);
+    }
+
+    /**
+     * @return the snapshot of the rules having the given scope index, or
+     *         <code>null</code> if there is no rule with this scope index.
+     */
+    public RuleSetExecutor<T> getScopedExecutor(String scopeIndex) {
+        return scopedExecutorCatalog.get(scopeIndex);
+    }
+
+    public String getRuleSetName() {
+        return ruleSetName;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public List<Rule<T>> getRules() {
+        return ruleList;
+    }
+
+    public RuleSetIndex getRuleSetIndex() {
+        return ruleSetIndex;
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    @Override
+    public String toString() {
+        return (ruleSetName == null ? "" : ruleSetName) + "[" + executionMode + ", " + rules.length + " rule(s)]";
+    }
+
+    public static enum ExecutionMode {
+        // @formatter:off
+        /** Stops at the first applied rule. */
+        FIRST_MATCH,
+        /** Applies every applicable rule. */
+        ALL_MATCH,
+        /** Applies every applicable rule up to the first applied terminating rule. */
+        TERMINATING
+        // @formatter:on
+        ;
+    }
+}
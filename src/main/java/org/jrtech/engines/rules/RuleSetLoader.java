@@ -19,17 +19,25 @@ package org.jrtech.engines.rules;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jrtech.common.utils.ResourceLocatorUtil;
 import org.jrtech.common.xmlutils.XmlUtils;
 import org.jrtech.engines.rules.model.AbstractAttribute;
+import org.jrtech.engines.rules.model.AttributeInterner;
 import org.jrtech.engines.rules.model.BooleanConditionalAttribute;
 import org.jrtech.engines.rules.model.CallParameter;
 import org.jrtech.engines.rules.model.ConditionalAttribute;
@@ -60,6 +68,8 @@ public class RuleSetLoader {
 
     public static final String SCOPE_INDEX_SEPARATOR = "-";
 
+    public static final int DEFAULT_INCLUDE_PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+
     private static Logger log = LoggerFactory.getLogger(RuleSetLoader.class);
 
     private static final String DEFAULT_CONDITIONAL_ATTRIBUTE_SUFFIX = ConditionalAttribute.class.getSimpleName()
@@ -71,6 +81,10 @@ public class RuleSetLoader {
 
     private String ruleSetName = null;
 
+    private AttributeInterner attributeInterner = AttributeInterner.newInstance();
+
+    private int includeParallelism = DEFAULT_INCLUDE_PARALLELISM;
+
     public static RuleSetLoader newInstance() {
         return new RuleSetLoader();
     }
@@ -86,63 +100,90 @@ public class RuleSetLoader {
     }
 
     public <T> List<Rule<T>> load(Document xmlDocument) throws Exception {
+        ruleSetName = null;
+        scopeIndexedRuleSetCatalog = null;
+        attributeInterner = createAttributeInterner();
+
+        Element xmlRootElement = xmlDocument.getDocumentElement();
+        if (xmlRootElement == null) {
+            return new ArrayList<Rule<T>>();
+        }
+        ruleSetName = xmlRootElement.getAttribute(ATTR_NAME);
+
+        List<Rule<T>> result;
+        IncludeFetcher includeFetcher = createIncludeFetcher();
+        try {
+            result = loadRuleSet(xmlRootElement, includeFetcher, Collections.<String> emptySet());
+        } finally {
+            includeFetcher.shutdown();
+        }
+
+        Map<String, List<Rule<?>>> ruleSetCatalog = new ConcurrentHashMap<>();
+        for (Rule<T> rule : result) {
+            indexRule(ruleSetCatalog, rule);
+        }
+        scopeIndexedRuleSetCatalog = ruleSetCatalog;
+
+        return result;
+    }
+
+    /**
+     * Converts the rules of the given root element and of its includes in
+     * document order. The include documents of the element are fetched and
+     * parsed concurrently before the conversion starts.
+     *
+     * @param includeChain
+     *            the URLs of the include documents containing the given
+     *            element, used to detect include cycles.
+     */
+    protected <T> List<Rule<T>> loadRuleSet(Element xmlRootElement, IncludeFetcher includeFetcher,
+            Set<String> includeChain) throws Exception {
         List<Rule<T>> result = new ArrayList<Rule<T>>();
         Set<String> loadedRuleSet = new HashSet<String>();
 
-        ruleSetName = null;
-        scopeIndexedRuleSetCatalog = null;
+        List<Element> xmlNodeList = XmlUtils.getChildElementList(xmlRootElement);
+        List<IncludeDocument> includeDocumentList = new ArrayList<>();
+        for (Element xmlElement : xmlNodeList) {
+            if (TAG_INCLUDE.equals(xmlElement.getTagName())) {
+                includeDocumentList.add(includeFetcher.fetch(xmlElement.getAttribute(ATTR_URI).trim(), includeChain));
+            }
+        }
 
         int ruleIndex = 0;
-        Element xmlRootElement = xmlDocument.getDocumentElement();
-        if (xmlRootElement != null) {
-            ruleSetName = xmlRootElement.getAttribute(ATTR_NAME);
-            scopeIndexedRuleSetCatalog = new ConcurrentHashMap<>();
-
-            ResourceLocatorUtil locationUtil = ResourceLocatorUtil.newInstance();
-            List<Element> xmlNodeList = XmlUtils.getChildElementList(xmlRootElement);
-            for (int i = 0; i < xmlNodeList.size(); i++) {
-                Element xmlElement = xmlNodeList.get(i);
-                if (Rule.TAG_RULE.equals(xmlElement.getTagName())) {
-                    Rule<T> rule = xmlToRule(xmlElement);
-                    if (rule.getId() == null || rule.getId().trim().length() < 1) {
-                        rule.setId("" + (ruleIndex++));
-                    }
-                    if (rule != null && !loadedRuleSet.contains(rule.getId())) {
-                        loadedRuleSet.add(rule.getId());
-                        result.add(rule);
-                        indexRule(scopeIndexedRuleSetCatalog, rule);
+        int includeIndex = 0;
+        for (int i = 0; i < xmlNodeList.size(); i++) {
+            Element xmlElement = xmlNodeList.get(i);
+            if (Rule.TAG_RULE.equals(xmlElement.getTagName())) {
+                Rule<T> rule = xmlToRule(xmlElement);
+                if (rule.getId() == null || rule.getId().trim().length() < 1) {
+                    rule.setId("" + (ruleIndex++));
+                }
+                if (rule != null && !loadedRuleSet.contains(rule.getId())) {
+                    loadedRuleSet.add(rule.getId());
+                    result.add(rule);
+                }
+            } else if (TAG_INCLUDE.equals(xmlElement.getTagName())) {
+                IncludeDocument includeDocument = includeDocumentList.get(includeIndex++);
+                if (includeDocument == null) {
+                    continue;
+                }
+
+                List<Rule<T>> includeRuleList;
+                try {
+                    includeRuleList = loadInclude(includeDocument, includeFetcher, includeChain);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    log.warn("Failure in loading include rule document: '" + includeDocument.getLocation() + "'", e);
+                    continue;
+                }
+                for (Rule<T> includeIntepretation : includeRuleList) {
+                    if (includeIntepretation.getId() == null || includeIntepretation.getId().trim().length() < 1) {
+                        includeIntepretation.setId("" + (ruleIndex++));
                     }
-                } else if (TAG_INCLUDE.equals(xmlElement.getTagName())) {
-                    String includeDocLocation = xmlElement.getAttribute(ATTR_URI).trim();
-                    if (includeDocLocation.length() > 0) {
-                        URL includeDocUrl = locationUtil.resolveUrlFromLocationString(includeDocLocation);
-                        InputStream subStructureStream = null;
-                        try {
-                            subStructureStream = includeDocUrl.openStream();
-                            Document subStructureConfigDoc = XmlUtils.createDocument(subStructureStream);
-                            List<Rule<T>> includeRuleList = load(subStructureConfigDoc);
-                            for (Rule<T> includeIntepretation : includeRuleList) {
-                                if (includeIntepretation.getId() == null
-                                        || includeIntepretation.getId().trim().length() < 1) {
-                                    includeIntepretation.setId("" + (ruleIndex++));
-                                }
-                                if (!loadedRuleSet.contains(includeIntepretation.getId())) {
-                                    result.add(includeIntepretation);
-                                    loadedRuleSet.add(includeIntepretation.getId());
-                                    indexRule(scopeIndexedRuleSetCatalog, includeIntepretation);
-                                }
-                            }
-                        } catch (Exception e) {
-                            log.warn("Failure in loading include rule document: '" + includeDocLocation + "'", e);
-                        } finally {
-                            if (subStructureStream != null) {
-                                try {
-                                    subStructureStream.close();
-                                } catch (Exception e) {
-                                    // do nothing
-                                }
-                            }
-                        }
+                    if (!loadedRuleSet.contains(includeIntepretation.getId())) {
+                        result.add(includeIntepretation);
+                        loadedRuleSet.add(includeIntepretation.getId());
                     }
                 }
             }
@@ -151,6 +192,39 @@ public class RuleSetLoader {
         return result;
     }
 
+    /**
+     * Converts the rules of an include document of the given include chain.
+     *
+     * @return the rules of the include document, or an empty list if it could
+     *         not be fetched.
+     * @throws Exception
+     *             if a rule of the include document cannot be converted, the
+     *             include document is then skipped by the including one.
+     */
+    protected <T> List<Rule<T>> loadInclude(IncludeDocument includeDocument, IncludeFetcher includeFetcher,
+            Set<String> includeChain) throws Exception {
+        Document subStructureConfigDoc = includeDocument.getDocument();
+        if (subStructureConfigDoc == null || subStructureConfigDoc.getDocumentElement() == null) {
+            return new ArrayList<Rule<T>>();
+        }
+
+        Set<String> subIncludeChain = new HashSet<>(includeChain);
+        subIncludeChain.add(includeDocument.getUrl());
+        return loadRuleSet(subStructureConfigDoc.getDocumentElement(), includeFetcher, subIncludeChain);
+    }
+
+    /**
+     * Creates the interner of a new load, so the condition ids and value slot
+     * ids (see {@link AttributeInterner}) stay dense over successive loads.
+     */
+    protected AttributeInterner createAttributeInterner() {
+        return AttributeInterner.newInstance();
+    }
+
+    protected IncludeFetcher createIncludeFetcher() {
+        return new IncludeFetcher(includeParallelism);
+    }
+
     public String writeAsString(List<Rule<?>> ruleSet) throws Exception {
         return writeAsString(ruleSet, "root");
     }
@@ -240,7 +314,9 @@ public class RuleSetLoader {
         List<Element> xmlGoalAttributeElementList = XmlUtils.getChildElementListByTagName(xmlGoalsElement,
                 AbstractAttribute.TAG);
         for (Element xmlGoalAttributeElement : xmlGoalAttributeElementList) {
-            GoalAttribute ga = xmlToGoalAttribute(xmlGoalAttributeElement);
+            GoalAttribute ga = attributeInterner.intern(xmlToGoalAttribute(xmlGoalAttributeElement));
+            // Compiles the variables of the value at load time, see VariableTemplate
+            ga.getVariableTemplate();
             rule.getGoals().add(ga);
         }
 
@@ -252,7 +328,12 @@ public class RuleSetLoader {
             List<Element> xmlConditionAttributeElementList = XmlUtils.getChildElementListByTagName(xmlConditionElement,
                     AbstractAttribute.TAG);
             for (Element xmlConditionAttributeElement : xmlConditionAttributeElementList) {
-                ConditionalAttribute ca = xmlToConditionalAttribute(xmlConditionAttributeElement);
+                ConditionalAttribute ca = attributeInterner
+                        .intern(xmlToConditionalAttribute(xmlConditionAttributeElement));
+                if (ca != null && StringConditionalAttribute.INTERNAL_FUNCTION_IN.equals(ca.getOperatorFunction())) {
+                    // Builds the value set at load time, see StringInFunctionImpl.compile(...)
+                    ca.getExpectedValueMatcher();
+                }
                 caList.add(ca);
             }
             if (!caList.isEmpty()) {
@@ -511,10 +592,43 @@ public class RuleSetLoader {
         scopeIndexedRuleSetCatalog.put(scopeIndexValue, scopedRuleSet);
     }
 
+    public int getIncludeParallelism() {
+        return includeParallelism;
+    }
+
+    /**
+     * @param includeParallelism
+     *            the maximum number of include documents fetched and parsed
+     *            concurrently, <code>1</code> to fetch them one after the
+     *            other on the loading thread.
+     */
+    public void setIncludeParallelism(int includeParallelism) {
+        if (includeParallelism < 1) {
+            throw new IllegalArgumentException("Invalid include parallelism: [" + includeParallelism + "].");
+        }
+        this.includeParallelism = includeParallelism;
+    }
+
+    /**
+     * @return the interner sharing identical attributes among the rules of the
+     *         last load.
+     */
+    public AttributeInterner getAttributeInterner() {
+        return attributeInterner;
+    }
+
+    protected void setAttributeInterner(AttributeInterner attributeInterner) {
+        this.attributeInterner = attributeInterner;
+    }
+
     public Map<String, List<Rule<?>>> getScopeIndexedRuleSetCatalog() {
         return scopeIndexedRuleSetCatalog;
     }
 
+    protected void setScopeIndexedRuleSetCatalog(Map<String, List<Rule<?>>> scopeIndexedRuleSetCatalog) {
+        this.scopeIndexedRuleSetCatalog = scopeIndexedRuleSetCatalog;
+    }
+
     @SuppressWarnings("unchecked")
     protected static final <CA extends ConditionalAttribute> ConditionalAttributeBuilder<CA> getConcreteAttributeBuilder(
             String builderKey) {
@@ -671,6 +785,140 @@ public class RuleSetLoader {
         }
     }
 
+    /**
+     * The class <code>IncludeFetcher</code> fetches and parses the include
+     * documents of one load on a bounded pool of daemon threads. The pool is
+     * only started by the first include.
+     */
+    protected static class IncludeFetcher {
+
+        private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+        private final int parallelism;
+
+        private final ResourceLocatorUtil locationUtil = ResourceLocatorUtil.newInstance();
+
+        private ExecutorService executorService = null;
+
+        protected IncludeFetcher(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        /**
+         * Starts fetching the include document at the given location.
+         *
+         * @return the include document, or <code>null</code> if the location
+         *         is empty, cannot be resolved or closes an include cycle.
+         */
+        public IncludeDocument fetch(String includeDocLocation, Set<String> includeChain) {
+            if (includeDocLocation.length() < 1) {
+                return null;
+            }
+
+            final URL includeDocUrl;
+            try {
+                includeDocUrl = locationUtil.resolveUrlFromLocationString(includeDocLocation);
+            } catch (Exception e) {
+                log.warn("Failure in loading include rule document: '" + includeDocLocation + "'", e);
+                return null;
+            }
+            if (includeDocUrl == null) {
+                log.warn("Failure in loading include rule document: '" + includeDocLocation + "'");
+                return null;
+            }
+            if (includeChain.contains(includeDocUrl.toExternalForm())) {
+                log.warn("Include cycle detected, skipping include rule document: '" + includeDocLocation + "'");
+                return null;
+            }
+
+            FutureTask<Document> documentTask = new FutureTask<>(() -> readDocument(includeDocUrl));
+            if (parallelism > 1) {
+                getExecutorService().execute(documentTask);
+            } else {
+                documentTask.run();
+            }
+
+            return new IncludeDocument(includeDocLocation, includeDocUrl.toExternalForm(), documentTask);
+        }
+
+        /**
+         * Reads the include document, called by the fetching thread.
+         */
+        protected Document readDocument(URL includeDocUrl) throws Exception {
+            InputStream subStructureStream = includeDocUrl.openStream();
+            try {
+                return XmlUtils.createDocument(subStructureStream);
+            } finally {
+                try {
+                    subStructureStream.close();
+                } catch (Exception e) {
+                    // do nothing
+                }
+            }
+        }
+
+        public void shutdown() {
+            if (executorService != null) {
+                executorService.shutdownNow();
+                executorService = null;
+            }
+        }
+
+        private ExecutorService getExecutorService() {
+            if (executorService == null) {
+                executorService = Executors.newFixedThreadPool(parallelism, runnable -> {
+                    Thread thread = new Thread(runnable, "rule-set-include-" + THREAD_COUNTER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+
+            return executorService;
+        }
+    }
+
+    /**
+     * The class <code>IncludeDocument</code> is an include document which is
+     * being fetched by an {@link IncludeFetcher}.
+     */
+    protected static class IncludeDocument {
+
+        private final String location;
+
+        private final String url;
+
+        private final Future<Document> document;
+
+        protected IncludeDocument(String location, String url, Future<Document> document) {
+            this.location = location;
+            this.url = url;
+            this.document = document;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * Waits for the include document.
+         *
+         * @return the parsed document, or <code>null</code> if it could not be
+         *         loaded.
+         */
+        public Document getDocument() throws InterruptedException {
+            try {
+                return document.get();
+            } catch (ExecutionException e) {
+                log.warn("Failure in loading include rule document: '" + location + "'", e.getCause());
+                return null;
+            }
+        }
+    }
+
     public static interface ConditionalAttributeBuilder<CA extends ConditionalAttribute> {
         CA xmlToConcreteConditionalAttribute(Element xmlConditionAttributeElement);
     }
@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.jrtech.engines.rules.RuleSetExecutor.ExecutionMode;
+import org.jrtech.engines.rules.model.Rule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The class <code>RuleSetRegistry</code> keeps the current
+ * {@link RuleSetExecutor} of any number of rule sets and replaces it when the
+ * rule set changes. <br>
+ * A rule set is either read from a file, which is watched for changes by a
+ * {@link WatchService}, or pushed as document. New versions are loaded,
+ * compiled and indexed by a background thread with a fresh
+ * {@link RuleSetLoader} and then published by a single volatile write, so
+ * {@link #getExecutor(String)} never waits for a reload and evaluations which
+ * already got an executor finish on their version. If a new version cannot be
+ * loaded, the current one stays published. <br>
+ * Only the rule set files themselves are watched, not their include
+ * documents; use {@link #reload(String)} for those.
+ */
+public class RuleSetRegistry<T> implements Closeable {
+
+    private static Logger log = LoggerFactory.getLogger(RuleSetRegistry.class);
+
+    private final ConcurrentMap<String, RuleSetEntry<T>> ruleSetCatalog = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Path, Set<String>> watchedFileCatalog = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Path, WatchKey> watchedDirectoryCatalog = new ConcurrentHashMap<>();
+
+    private final Supplier<RuleSetLoader> loaderFactory;
+
+    private final ExecutorService buildExecutor;
+
+    private WatchService watchService = null;
+
+    private volatile boolean closed = false;
+
+    public static <T> RuleSetRegistry<T> newInstance() {
+        return newInstance(RuleSetLoader::newInstance);
+    }
+
+    /**
+     * @param loaderFactory
+     *            creates the loader of each new rule set version, e.g.
+     *            <code>StreamingRuleSetLoader::newInstance</code>.
+     */
+    public static <T> RuleSetRegistry<T> newInstance(Supplier<RuleSetLoader> loaderFactory) {
+        return new RuleSetRegistry<T>(loaderFactory);
+    }
+
+    protected RuleSetRegistry(Supplier<RuleSetLoader> loaderFactory) {
+        this.loaderFactory = loaderFactory;
+        this.buildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rule-set-registry-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the current executor of the rule set, or <code>null</code> if
+     *         the rule set is not registered.
+     */
+    public RuleSetExecutor<T> getExecutor(String key) {
+        RuleSetEntry<T> entry = ruleSetCatalog.get(key);
+        return entry == null ? null : entry.executor;
+    }
+
+    /**
+     * @return the number of versions published for the rule set, or
+     *         <code>-1</code> if the rule set is not registered.
+     */
+    public long getVersion(String key) {
+        RuleSetEntry<T> entry = ruleSetCatalog.get(key);
+        return entry == null ? -1 : entry.version;
+    }
+
+    public Set<String> getKeys() {
+        return Collections.unmodifiableSet(ruleSetCatalog.keySet());
+    }
+
+    /**
+     * @return the directories watched for changes of the registered rule set
+     *         files.
+     */
+    public Set<Path> getWatchedDirectories() {
+        return Collections.unmodifiableSet(watchedDirectoryCatalog.keySet());
+    }
+
+    /**
+     * Loads the rule set file on the calling thread and reloads it in the
+     * background whenever the file changes.
+     *
+     * @return the executor of the first version.
+     */
+    public RuleSetExecutor<T> register(String key, Path ruleSetFile, ExecutionMode executionMode) throws Exception {
+        checkOpen();
+        Path sourceFile = ruleSetFile.toAbsolutePath().normalize();
+        RuleSetEntry<T> entry = new RuleSetEntry<T>(key, sourceFile, executionMode);
+        publish(entry, build(entry, null));
+
+        RuleSetEntry<T> previousEntry = ruleSetCatalog.put(key, entry);
+        if (previousEntry != null) {
+            unwatch(previousEntry);
+        }
+        watch(entry);
+
+        return entry.executor;
+    }
+
+    /**
+     * Publishes a new version of the rule set from the given document. An
+     * unknown rule set is registered once its first version is built; a
+     * watched file of the rule set stays watched. The execution mode applies
+     * to this and later versions.
+     *
+     * @return the executor of the new version, once it is published.
+     */
+    public Future<RuleSetExecutor<T>> push(String key, final String ruleSetDocument, ExecutionMode executionMode) {
+        checkOpen();
+
+        return buildExecutor.submit(() -> {
+            RuleSetEntry<T> entry = ruleSetCatalog.get(key);
+            if (entry == null) {
+                RuleSetEntry<T> newEntry = new RuleSetEntry<T>(key, null, executionMode);
+                RuleSetExecutor<T> executor = publish(newEntry, build(newEntry, ruleSetDocument));
+                entry = ruleSetCatalog.putIfAbsent(key, newEntry);
+                if (entry == null) {
+                    return executor;
+                }
+                // Registered meanwhile, e.g. by register(...)
+            }
+            entry.executionMode = executionMode;
+
+            return publish(entry, build(entry, ruleSetDocument));
+        });
+    }
+
+    /**
+     * Reloads the file of the rule set in the background.
+     *
+     * @return the executor of the new version, once it is published.
+     */
+    public Future<RuleSetExecutor<T>> reload(String key) {
+        checkOpen();
+        RuleSetEntry<T> entry = ruleSetCatalog.get(key);
+        if (entry == null || entry.sourceFile == null) {
+            throw new IllegalArgumentException("No rule set file registered for: [" + key + "].");
+        }
+
+        return buildExecutor.submit(() -> publish(entry, build(entry, null)));
+    }
+
+    public void unregister(String key) {
+        RuleSetEntry<T> entry = ruleSetCatalog.remove(key);
+        if (entry != null) {
+            unwatch(entry);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        buildExecutor.shutdownNow();
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RuleSetRegistry" + ruleSetCatalog.keySet();
+    }
+
+    protected RuleSetExecutor<T> build(RuleSetEntry<T> entry, String ruleSetDocument) throws Exception {
+        RuleSetLoader loader = loaderFactory.get();
+        List<Rule<T>> ruleSet;
+        InputStream ruleSetStream = ruleSetDocument == null ? Files.newInputStream(entry.sourceFile)
+                : new ByteArrayInputStream(ruleSetDocument.getBytes(StandardCharsets.UTF_8));
+        try {
+            ruleSet = loader.load(ruleSetStream);
+        } finally {
+            ruleSetStream.close();
+        }
+
+        return RuleSetExecutor.newInstance(loader.getRuleSetName(), ruleSet, entry.executionMode);
+    }
+
+    private RuleSetExecutor<T> publish(RuleSetEntry<T> entry, RuleSetExecutor<T> executor) {
+        synchronized (entry) {
+            entry.executor = executor;
+            entry.version++;
+        }
+        log.info("Published rule set '" + entry.key + "' version " + entry.version + ": " + executor);
+
+        return executor;
+    }
+
+    private void scheduleReload(String key) {
+        final RuleSetEntry<T> entry = ruleSetCatalog.get(key);
+        if (entry == null || closed || !entry.reloadPending.compareAndSet(false, true)) {
+            return; // Already pending: the pending reload reads the latest file content
+        }
+
+        buildExecutor.execute(() -> {
+            entry.reloadPending.set(false);
+            if (ruleSetCatalog.get(entry.key) != entry) {
+                return;
+            }
+            try {
+                publish(entry, build(entry, null));
+            } catch (Exception e) {
+                log.warn("Failure in reloading rule set '" + entry.key + "' from: '" + entry.sourceFile
+                        + "', keeping version " + entry.version, e);
+            }
+        });
+    }
+
+    private synchronized void watch(RuleSetEntry<T> entry) throws IOException {
+        watchedFileCatalog.computeIfAbsent(entry.sourceFile, file -> ConcurrentHashMap.newKeySet()).add(entry.key);
+
+        Path directory = entry.sourceFile.getParent();
+        if (directory == null || watchedDirectoryCatalog.containsKey(directory)) {
+            return;
+        }
+        if (watchService == null) {
+            watchService = entry.sourceFile.getFileSystem().newWatchService();
+            Thread watchThread = new Thread(this::processWatchEvents, "rule-set-registry-watcher");
+            watchThread.setDaemon(true);
+            watchThread.start();
+        }
+        watchedDirectoryCatalog.put(directory, directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY));
+    }
+
+    /**
+     * Stops watching the file of the rule set once no other rule set is read
+     * from it, and its directory once no other watched file is in it.
+     */
+    private synchronized void unwatch(RuleSetEntry<T> entry) {
+        if (entry.sourceFile == null) {
+            return;
+        }
+        Set<String> keys = watchedFileCatalog.get(entry.sourceFile);
+        if (keys == null) {
+            return;
+        }
+        keys.remove(entry.key);
+        if (!keys.isEmpty()) {
+            return;
+        }
+        watchedFileCatalog.remove(entry.sourceFile);
+
+        Path directory = entry.sourceFile.getParent();
+        for (Path file : watchedFileCatalog.keySet()) {
+            if (file.getParent() != null && file.getParent().equals(directory)) {
+                return;
+            }
+        }
+        WatchKey watchKey = directory == null ? null : watchedDirectoryCatalog.remove(directory);
+        if (watchKey != null) {
+            watchKey.cancel();
+        }
+    }
+
+    private void processWatchEvents() {
+        WatchService currentWatchService;
+        synchronized (this) {
+            currentWatchService = watchService;
+        }
+
+        try {
+            while (!closed) {
+                WatchKey watchKey = currentWatchService.take();
+                Path directory = (Path) watchKey.watchable();
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    if (OVERFLOW.equals(event.kind())) {
+                        // Events lost -> reload every rule set of the directory
+                        for (Path file : watchedFileCatalog.keySet()) {
+                            if (directory.equals(file.getParent())) {
+                                scheduleReloads(watchedFileCatalog.get(file));
+                            }
+                        }
+                        continue;
+                    }
+                    scheduleReloads(watchedFileCatalog.get(directory.resolve((Path) event.context())));
+                }
+                watchKey.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Registry closed
+        }
+    }
+
+    private void scheduleReloads(Set<String> keys) {
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            scheduleReload(key);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Rule set registry is closed.");
+        }
+    }
+
+    /**
+     * The class <code>RuleSetEntry</code> holds the published version of one
+     * rule set.
+     */
+    protected static class RuleSetEntry<T> {
+
+        private final String key;
+
+        private final Path sourceFile;
+
+        private volatile ExecutionMode executionMode;
+
+        private final AtomicBoolean reloadPending = new AtomicBoolean(false);
+
+        private volatile RuleSetExecutor<T> executor = null;
+
+        private volatile long version = 0;
+
+        protected RuleSetEntry(String key, Path sourceFile, ExecutionMode executionMode) {
+            this.key = key;
+            this.sourceFile = sourceFile;
+            this.executionMode = executionMode;
+        }
+    }
+}
@@ -0,0 +1,582 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jrtech.engines.rules.model.AbstractAttribute;
+import org.jrtech.engines.rules.model.AbstractAttribute.Owner;
+import org.jrtech.engines.rules.model.AttributeInterner;
+import org.jrtech.engines.rules.model.BooleanConditionalAttribute;
+import org.jrtech.engines.rules.model.CallParameter;
+import org.jrtech.engines.rules.model.ConditionalAttribute;
+import org.jrtech.engines.rules.model.DateConditionalAttribute;
+import org.jrtech.engines.rules.model.DatetimeConditionalAttribute;
+import org.jrtech.engines.rules.model.GoalAttribute;
+import org.jrtech.engines.rules.model.NumberConditionalAttribute;
+import org.jrtech.engines.rules.model.Rule;
+import org.jrtech.engines.rules.model.RuleCondition;
+import org.jrtech.engines.rules.model.StringConditionalAttribute;
+import org.jrtech.engines.rules.model.TimeConditionalAttribute;
+
+/**
+ * The class <code>RuleSetSnapshot</code> is a loaded rule set stored in a
+ * compact binary file, so it can be loaded again without parsing any XML.
+ * <br>
+ * A snapshot is written by {@link #write(File, RuleSetLoader, List)} and
+ * opened by {@link #open(File)}, which memory-maps the file and only reads its
+ * header. Strings, attributes and rules are materialized on first access and
+ * then kept; attributes shared by several rules when the snapshot was written
+ * are shared again, and are interned (see {@link AttributeInterner}) when they
+ * are materialized. <br>
+ * File layout (all numbers big endian <code>int</code>s, strings as UTF-8
+ * bytes prefixed with their length, string references as string table index
+ * or <code>-1</code> for <code>null</code>):
+ *
+ * <pre>
+ * header:     magic, version, ruleSetName, stringCount, attributeCount, ruleCount, scopeCount
+ * tables:     stringOffset[stringCount], attributeOffset[attributeCount], ruleOffset[ruleCount]
+ * scopes:     (scopeIndex, ruleCount, ruleIndex[ruleCount])[scopeCount]
+ * records:    strings, attributes, rules
+ * </pre>
+ *
+ * Only the rule and attribute types of the engine can be stored, custom
+ * subclasses are rejected by the writer.
+ */
+public class RuleSetSnapshot {
+
+    public static final int MAGIC = 0x4A525253; // "JRRS"
+
+    public static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 7 * 4;
+
+    // @formatter:off
+    private static final byte KIND_GOAL = 0;
+    private static final byte KIND_CONDITIONAL = 1;
+    private static final byte KIND_STRING = 2;
+    private static final byte KIND_NUMBER = 3;
+    private static final byte KIND_BOOLEAN = 4;
+    private static final byte KIND_DATE = 5;
+    private static final byte KIND_TIME = 6;
+    private static final byte KIND_DATETIME = 7;
+    // @formatter:on
+
+    private static final Map<Class<?>, Byte> KIND_CATALOG = new HashMap<>();
+
+    static {
+        KIND_CATALOG.put(GoalAttribute.class, KIND_GOAL);
+        KIND_CATALOG.put(ConditionalAttribute.class, KIND_CONDITIONAL);
+        KIND_CATALOG.put(StringConditionalAttribute.class, KIND_STRING);
+        KIND_CATALOG.put(NumberConditionalAttribute.class, KIND_NUMBER);
+        KIND_CATALOG.put(BooleanConditionalAttribute.class, KIND_BOOLEAN);
+        KIND_CATALOG.put(DateConditionalAttribute.class, KIND_DATE);
+        KIND_CATALOG.put(TimeConditionalAttribute.class, KIND_TIME);
+        KIND_CATALOG.put(DatetimeConditionalAttribute.class, KIND_DATETIME);
+    }
+
+    private final ByteBuffer buffer;
+
+    private final String ruleSetName;
+
+    private final int stringTablePosition;
+
+    private final int attributeTablePosition;
+
+    private final int ruleTablePosition;
+
+    private final String[] strings;
+
+    private final AbstractAttribute[] attributes;
+
+    private final AtomicReferenceArray<Rule<?>> rules;
+
+    private final List<Rule<?>> ruleList;
+
+    private final Map<String, List<Rule<?>>> scopeIndexedRuleSetCatalog;
+
+    private final AttributeInterner attributeInterner = AttributeInterner.newInstance();
+
+    private int materializedRuleCount = 0;
+
+    /**
+     * Opens the snapshot file. The file is memory-mapped and must not be
+     * modified while the snapshot is used.
+     */
+    public static RuleSetSnapshot open(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+                FileChannel channel = randomAccessFile.getChannel()) {
+            MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new RuleSetSnapshot(mappedBuffer);
+        }
+    }
+
+    /**
+     * Reads a snapshot from the given buffer, e.g. the content of a snapshot
+     * file which is not on the local file system.
+     */
+    public static RuleSetSnapshot open(ByteBuffer buffer) throws IOException {
+        return new RuleSetSnapshot(buffer.duplicate());
+    }
+
+    protected RuleSetSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        try {
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Invalid rule set snapshot: missing header.");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported rule set snapshot version: [" + buffer.getInt(4) + "].");
+            }
+            int ruleSetNameId = buffer.getInt(8);
+            int stringCount = buffer.getInt(12);
+            int attributeCount = buffer.getInt(16);
+            int ruleCount = buffer.getInt(20);
+            int scopeCount = buffer.getInt(24);
+
+            this.stringTablePosition = HEADER_SIZE;
+            this.attributeTablePosition = stringTablePosition + 4 * stringCount;
+            this.ruleTablePosition = attributeTablePosition + 4 * attributeCount;
+            this.strings = new String[stringCount];
+            this.attributes = new AbstractAttribute[attributeCount];
+            this.rules = new AtomicReferenceArray<>(ruleCount);
+            this.ruleList = new LazyRuleList(null);
+            this.ruleSetName = getString(ruleSetNameId);
+
+            Map<String, List<Rule<?>>> ruleSetCatalog = new LinkedHashMap<>();
+            int position = ruleTablePosition + 4 * ruleCount;
+            for (int i = 0; i < scopeCount; i++) {
+                String scopeIndex = getString(buffer.getInt(position));
+                int[] ruleIndexes = new int[buffer.getInt(position + 4)];
+                position += 8;
+                for (int j = 0; j < ruleIndexes.length; j++, position += 4) {
+                    ruleIndexes[j] = buffer.getInt(position);
+                }
+                ruleSetCatalog.put(scopeIndex, new LazyRuleList(ruleIndexes));
+            }
+            this.scopeIndexedRuleSetCatalog = Collections.unmodifiableMap(ruleSetCatalog);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Invalid rule set snapshot: truncated content.", e);
+        }
+    }
+
+    /**
+     * Writes the rules last loaded by the given loader, including its rule set
+     * name and scope index catalog.
+     */
+    public static void write(File file, RuleSetLoader loader, List<? extends Rule<?>> ruleSet) throws IOException {
+        write(file, loader.getRuleSetName(), ruleSet, loader.getScopeIndexedRuleSetCatalog());
+    }
+
+    public static void write(File file, String ruleSetName, List<? extends Rule<?>> ruleSet,
+            Map<String, List<Rule<?>>> scopeIndexedRuleSetCatalog) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            new SnapshotWriter().write(out, ruleSetName, ruleSet, scopeIndexedRuleSetCatalog);
+        }
+    }
+
+    public String getRuleSetName() {
+        return ruleSetName;
+    }
+
+    /**
+     * @return the rules of the snapshot, materialized on first access.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public <T> List<Rule<T>> getRules() {
+        return (List) ruleList;
+    }
+
+    public Map<String, List<Rule<?>>> getScopeIndexedRuleSetCatalog() {
+        return scopeIndexedRuleSetCatalog;
+    }
+
+    public AttributeInterner getAttributeInterner() {
+        return attributeInterner;
+    }
+
+    public int size() {
+        return rules.length();
+    }
+
+    public synchronized int getMaterializedRuleCount() {
+        return materializedRuleCount;
+    }
+
+    @Override
+    public String toString() {
+        return "RuleSetSnapshot[" + (ruleSetName == null ? "" : ruleSetName) + ", " + rules.length() + " rule(s)]";
+    }
+
+    protected Rule<?> getRule(int ruleIndex) {
+        Rule<?> rule = rules.get(ruleIndex);
+        if (rule == null) {
+            rule = materializeRule(ruleIndex);
+        }
+
+        return rule;
+    }
+
+    private synchronized Rule<?> materializeRule(int ruleIndex) {
+        Rule<?> rule = rules.get(ruleIndex);
+        if (rule != null) {
+            return rule;
+        }
+
+        int position = buffer.getInt(ruleTablePosition + 4 * ruleIndex);
+        rule = new Rule<Object>(getString(buffer.getInt(position)));
+        rule.setScopeIndex(getString(buffer.getInt(position + 4)));
+        rule.setTerminating(buffer.get(position + 8) != 0);
+        position += 9;
+
+        int goalCount = buffer.getInt(position);
+        position += 4;
+        for (int i = 0; i < goalCount; i++, position += 4) {
+            rule.getGoals().add((GoalAttribute) getAttribute(buffer.getInt(position)));
+        }
+
+        int conditionCount = buffer.getInt(position);
+        position += 4;
+        for (int i = 0; i < conditionCount; i++) {
+            List<ConditionalAttribute> caList = new ArrayList<>();
+            int attributeCount = buffer.getInt(position);
+            position += 4;
+            for (int j = 0; j < attributeCount; j++, position += 4) {
+                caList.add((ConditionalAttribute) getAttribute(buffer.getInt(position)));
+            }
+            rule.getConditions().add(new RuleCondition(caList));
+        }
+
+        rules.set(ruleIndex, rule);
+        materializedRuleCount++;
+
+        return rule;
+    }
+
+    private AbstractAttribute getAttribute(int attributeId) {
+        AbstractAttribute attribute = attributes[attributeId];
+        if (attribute != null) {
+            return attribute;
+        }
+
+        int position = buffer.getInt(attributeTablePosition + 4 * attributeId);
+        byte kind = buffer.get(position);
+        String name = getString(buffer.getInt(position + 1));
+        String value = getString(buffer.getInt(position + 5));
+        byte ownerOrdinal = buffer.get(position + 9);
+        Owner owner = ownerOrdinal < 0 ? null : Owner.values()[ownerOrdinal];
+        String readerClass = getString(buffer.getInt(position + 10));
+        position += 14;
+
+        if (kind == KIND_GOAL) {
+            GoalAttribute ga = new GoalAttribute(name, value, getString(buffer.getInt(position)), owner,
+                    getString(buffer.getInt(position + 4)));
+            ga.setReaderClass(readerClass);
+            int parameterCount = buffer.getInt(position + 8);
+            position += 12;
+            if (parameterCount > 0) {
+                List<CallParameter> parameterList = new ArrayList<>();
+                for (int i = 0; i < parameterCount; i++, position += 8) {
+                    parameterList.add(new CallParameter(getString(buffer.getInt(position)),
+                            getString(buffer.getInt(position + 4))));
+                }
+                ga.setParameterList(parameterList);
+            }
+            attribute = attributeInterner.intern(ga);
+        } else {
+            boolean negate = buffer.get(position) != 0;
+            ConditionalAttribute ca;
+            switch (kind) {
+            case KIND_CONDITIONAL:
+                ca = new ConditionalAttribute(name, value, negate, owner);
+                break;
+            case KIND_STRING:
+                ca = new StringConditionalAttribute(name, value, negate, owner);
+                break;
+            case KIND_NUMBER:
+                ca = new NumberConditionalAttribute(name, value, negate, owner);
+                break;
+            case KIND_BOOLEAN:
+                ca = new BooleanConditionalAttribute(name, value, negate, owner);
+                break;
+            case KIND_DATE:
+                ca = new DateConditionalAttribute(name, value, negate, owner);
+                break;
+            case KIND_TIME:
+                ca = new TimeConditionalAttribute(name, value, negate, owner);
+                break;
+            case KIND_DATETIME:
+                ca = new DatetimeConditionalAttribute(name, value, negate, owner);
+                break;
+            default:
+                throw new IllegalStateException("Invalid rule set snapshot attribute type: [" + kind + "].");
+            }
+            ca.setReaderClass(readerClass);
+            ca.setOperatorFunction(getString(buffer.getInt(position + 1)));
+            attribute = attributeInterner.intern(ca);
+        }
+
+        attributes[attributeId] = attribute;
+        return attribute;
+    }
+
+    private String getString(int stringId) {
+        if (stringId < 0) {
+            return null;
+        }
+
+        synchronized (strings) {
+            String value = strings[stringId];
+            if (value == null) {
+                int position = buffer.getInt(stringTablePosition + 4 * stringId);
+                byte[] bytes = new byte[buffer.getInt(position)];
+                ByteBuffer stringBuffer = buffer.duplicate();
+                stringBuffer.position(position + 4);
+                stringBuffer.get(bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+                strings[stringId] = value;
+            }
+
+            return value;
+        }
+    }
+
+    /**
+     * The class <code>LazyRuleList</code> is a read-only view of all or some
+     * rules of the snapshot.
+     */
+    private class LazyRuleList extends AbstractList<Rule<?>> implements RandomAccess {
+
+        private final int[] ruleIndexes;
+
+        private LazyRuleList(int[] ruleIndexes) {
+            this.ruleIndexes = ruleIndexes;
+        }
+
+        @Override
+        public Rule<?> get(int index) {
+            if (ruleIndexes == null) {
+                return getRule(index);
+            }
+
+            return getRule(ruleIndexes[index]);
+        }
+
+        @Override
+        public int size() {
+            return ruleIndexes == null ? rules.length() : ruleIndexes.length;
+        }
+    }
+
+    /**
+     * The class <code>SnapshotWriter</code> collects the string and attribute
+     * tables while writing the records of one snapshot.
+     */
+    private static class SnapshotWriter {
+
+        private final Map<String, Integer> stringIds = new HashMap<>();
+
+        private final List<String> stringList = new ArrayList<>();
+
+        private final Map<AbstractAttribute, Integer> attributeIds = new IdentityHashMap<>();
+
+        private final List<AbstractAttribute> attributeList = new ArrayList<>();
+
+        void write(DataOutputStream out, String ruleSetName, List<? extends Rule<?>> ruleSet,
+                Map<String, List<Rule<?>>> scopeIndexedRuleSetCatalog) throws IOException {
+            int ruleSetNameId = stringId(ruleSetName);
+
+            Map<Rule<?>, Integer> ruleIds = new IdentityHashMap<>();
+            ByteArrayOutputStream ruleBytes = new ByteArrayOutputStream();
+            DataOutputStream ruleOut = new DataOutputStream(ruleBytes);
+            int[] ruleOffsets = new int[ruleSet.size()];
+            for (int i = 0; i < ruleOffsets.length; i++) {
+                Rule<?> rule = ruleSet.get(i);
+                ruleIds.put(rule, i);
+                ruleOffsets[i] = ruleOut.size();
+                writeRule(ruleOut, rule);
+            }
+
+            ByteArrayOutputStream attributeBytes = new ByteArrayOutputStream();
+            DataOutputStream attributeOut = new DataOutputStream(attributeBytes);
+            int[] attributeOffsets = new int[attributeList.size()];
+            for (int i = 0; i < attributeOffsets.length; i++) {
+                attributeOffsets[i] = attributeOut.size();
+                writeAttribute(attributeOut, attributeList.get(i));
+            }
+
+            ByteArrayOutputStream scopeBytes = new ByteArrayOutputStream();
+            DataOutputStream scopeOut = new DataOutputStream(scopeBytes);
+            int scopeCount = 0;
+            if (scopeIndexedRuleSetCatalog != null) {
+                for (Map.Entry<String, List<Rule<?>>> entry : scopeIndexedRuleSetCatalog.entrySet()) {
+                    scopeOut.writeInt(stringId(entry.getKey()));
+                    scopeOut.writeInt(entry.getValue().size());
+                    for (Rule<?> rule : entry.getValue()) {
+                        Integer ruleId = ruleIds.get(rule);
+                        if (ruleId == null) {
+                            throw new IllegalArgumentException(
+                                    "Scoped rule is not part of the rule set: [" + rule.getId() + "].");
+                        }
+                        scopeOut.writeInt(ruleId);
+                    }
+                    scopeCount++;
+                }
+            }
+
+            ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+            DataOutputStream stringOut = new DataOutputStream(stringBytes);
+            int[] stringOffsets = new int[stringList.size()];
+            for (int i = 0; i < stringOffsets.length; i++) {
+                stringOffsets[i] = stringOut.size();
+                byte[] bytes = stringList.get(i).getBytes(StandardCharsets.UTF_8);
+                stringOut.writeInt(bytes.length);
+                stringOut.write(bytes);
+            }
+
+            // @formatter:off
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(ruleSetNameId);
+            out.writeInt(stringOffsets.length);
+            out.writeInt(attributeOffsets.length);
+            out.writeInt(ruleOffsets.length);
+            out.writeInt(scopeCount);
+            // @formatter:on
+            long stringPosition = HEADER_SIZE + 4L * (stringOffsets.length + attributeOffsets.length + ruleOffsets.length)
+                    + scopeBytes.size();
+            long attributePosition = stringPosition + stringBytes.size();
+            long rulePosition = attributePosition + attributeBytes.size();
+            if (rulePosition + ruleBytes.size() > Integer.MAX_VALUE) {
+                throw new IOException("Rule set too large for a snapshot.");
+            }
+            writeOffsets(out, stringOffsets, (int) stringPosition);
+            writeOffsets(out, attributeOffsets, (int) attributePosition);
+            writeOffsets(out, ruleOffsets, (int) rulePosition);
+            scopeBytes.writeTo(out);
+            stringBytes.writeTo(out);
+            attributeBytes.writeTo(out);
+            ruleBytes.writeTo(out);
+        }
+
+        private void writeOffsets(DataOutputStream out, int[] offsets, int basePosition) throws IOException {
+            for (int offset : offsets) {
+                out.writeInt(basePosition + offset);
+            }
+        }
+
+        private void writeRule(DataOutputStream out, Rule<?> rule) throws IOException {
+            if (!rule.hasDefaultApply()) {
+                throw new IllegalArgumentException(
+                        "Unsupported rule type for a snapshot: [" + rule.getClass().getName() + "].");
+            }
+            out.writeInt(stringId(rule.getId()));
+            out.writeInt(stringId(rule.getScopeIndex()));
+            out.writeBoolean(rule.isTerminating());
+
+            out.writeInt(rule.getGoals().size());
+            for (GoalAttribute goal : rule.getGoals()) {
+                out.writeInt(attributeId(goal));
+            }
+
+            out.writeInt(rule.getConditions().size());
+            for (RuleCondition condition : rule.getConditions()) {
+                out.writeInt(condition.getAttributes().size());
+                for (ConditionalAttribute attribute : condition.getAttributes()) {
+                    out.writeInt(attributeId(attribute));
+                }
+            }
+        }
+
+        private void writeAttribute(DataOutputStream out, AbstractAttribute attribute) throws IOException {
+            out.writeByte(KIND_CATALOG.get(attribute.getClass()));
+            out.writeInt(stringId(attribute.getName()));
+            out.writeInt(stringId(attribute.getValue()));
+            out.writeByte(attribute.getOwner() == null ? -1 : attribute.getOwner().ordinal());
+            out.writeInt(stringId(attribute.getReaderClass()));
+
+            if (attribute instanceof GoalAttribute) {
+                GoalAttribute ga = (GoalAttribute) attribute;
+                out.writeInt(stringId(ga.getMethod()));
+                out.writeInt(stringId(ga.getWriterClass()));
+                List<CallParameter> parameterList = ga.getParameterList();
+                out.writeInt(parameterList == null ? 0 : parameterList.size());
+                if (parameterList != null) {
+                    for (CallParameter parameter : parameterList) {
+                        out.writeInt(stringId(parameter.getName()));
+                        out.writeInt(stringId(parameter.getValue()));
+                    }
+                }
+            } else {
+                ConditionalAttribute ca = (ConditionalAttribute) attribute;
+                out.writeBoolean(ca.isNegated());
+                out.writeInt(stringId(ca.getOperatorFunction()));
+            }
+        }
+
+        private int attributeId(AbstractAttribute attribute) {
+            Integer attributeId = attributeIds.get(attribute);
+            if (attributeId == null) {
+                if (!KIND_CATALOG.containsKey(attribute.getClass())) {
+                    throw new IllegalArgumentException(
+                            "Unsupported attribute type for a snapshot: [" + attribute.getClass().getName() + "].");
+                }
+                attributeId = attributeList.size();
+                attributeIds.put(attribute, attributeId);
+                attributeList.add(attribute);
+            }
+
+            return attributeId;
+        }
+
+        private int stringId(String value) {
+            if (value == null) {
+                return -1;
+            }
+
+            Integer stringId = stringIds.get(value);
+            if (stringId == null) {
+                stringId = stringList.size();
+                stringIds.put(value, stringId);
+                stringList.add(value);
+            }
+
+            return stringId;
+        }
+    }
+}
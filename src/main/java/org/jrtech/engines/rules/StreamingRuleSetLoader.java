@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jrtech.common.utils.ResourceLocatorUtil;
+import org.jrtech.common.xmlutils.XmlUtils;
+import org.jrtech.engines.rules.model.Rule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * The class <code>StreamingRuleSetLoader</code> is a {@link RuleSetLoader}
+ * which reads rule documents with StAX instead of building the DOM of the
+ * whole document. <br>
+ * Only the element of the rule being converted is kept as a small DOM
+ * fragment, so the rule conversion (including the registered
+ * {@link RuleSetLoader.ConditionalAttributeBuilder}s) is the same as for the
+ * DOM path while the transient heap no longer grows with the document size.
+ * Included documents are streamed as well and their rules are indexed in the
+ * same scope index catalog as the rules of the including document.
+ */
+public class StreamingRuleSetLoader extends RuleSetLoader {
+
+    private static Logger log = LoggerFactory.getLogger(StreamingRuleSetLoader.class);
+
+    private final XMLInputFactory xmlInputFactory;
+
+    public static StreamingRuleSetLoader newInstance() {
+        return new StreamingRuleSetLoader();
+    }
+
+    public StreamingRuleSetLoader() {
+        xmlInputFactory = XMLInputFactory.newInstance();
+        xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    @Override
+    public <T> List<Rule<T>> load(String xmlString) throws Exception {
+        XMLStreamReader xmlReader = xmlInputFactory.createXMLStreamReader(new StringReader(xmlString));
+        try {
+            return load(xmlReader);
+        } finally {
+            xmlReader.close();
+        }
+    }
+
+    @Override
+    public <T> List<Rule<T>> load(InputStream xmlStream) throws Exception {
+        XMLStreamReader xmlReader = xmlInputFactory.createXMLStreamReader(xmlStream);
+        try {
+            return load(xmlReader);
+        } finally {
+            xmlReader.close();
+        }
+    }
+
+    /**
+     * Loads the rules of the document read by the given reader. The reader is
+     * not closed.
+     */
+    public <T> List<Rule<T>> load(XMLStreamReader xmlReader) throws Exception {
+        setRuleSetName(null);
+        setScopeIndexedRuleSetCatalog(null);
+        setAttributeInterner(createAttributeInterner());
+
+        if (!nextStartElement(xmlReader)) {
+            return new ArrayList<Rule<T>>();
+        }
+        setRuleSetName(StringUtils.defaultString(xmlReader.getAttributeValue(null, ATTR_NAME)));
+
+        Document fragmentDocument = XmlUtils.createDocument("<" + Rule.TAG_RULE + "/>");
+        List<Rule<T>> result = readRuleSet(xmlReader, fragmentDocument, ResourceLocatorUtil.newInstance(),
+                Collections.<String> emptySet());
+
+        Map<String, List<Rule<?>>> scopeIndexedRuleSetCatalog = new ConcurrentHashMap<>();
+        for (Rule<T> rule : result) {
+            indexRule(scopeIndexedRuleSetCatalog, rule);
+        }
+        setScopeIndexedRuleSetCatalog(scopeIndexedRuleSetCatalog);
+
+        return result;
+    }
+
+    /**
+     * Reads the children of the root element the reader is positioned on, with
+     * the same id assignment and duplicate handling as
+     * {@link RuleSetLoader#load(Document)}.
+     *
+     * @param includeChain
+     *            the URLs of the include documents containing the current
+     *            element, used to detect include cycles.
+     */
+    protected <T> List<Rule<T>> readRuleSet(XMLStreamReader xmlReader, Document fragmentDocument,
+            ResourceLocatorUtil locationUtil, Set<String> includeChain) throws Exception {
+        List<Rule<T>> result = new ArrayList<Rule<T>>();
+        Set<String> loadedRuleSet = new HashSet<String>();
+
+        int ruleIndex = 0;
+        while (xmlReader.hasNext()) {
+            int event = xmlReader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            String tagName = getTagName(xmlReader);
+            if (Rule.TAG_RULE.equals(tagName)) {
+                Rule<T> rule = xmlToRule(readElement(xmlReader, fragmentDocument));
+                if (rule.getId() == null || rule.getId().trim().length() < 1) {
+                    rule.setId("" + (ruleIndex++));
+                }
+                if (loadedRuleSet.add(rule.getId())) {
+                    result.add(rule);
+                }
+            } else if (TAG_INCLUDE.equals(tagName)) {
+                String includeDocLocation = StringUtils.trimToEmpty(xmlReader.getAttributeValue(null, ATTR_URI));
+                skipElement(xmlReader);
+                if (includeDocLocation.length() > 0) {
+                    List<Rule<T>> includeRuleList = readInclude(includeDocLocation, fragmentDocument, locationUtil,
+                            includeChain);
+                    for (Rule<T> includeRule : includeRuleList) {
+                        if (includeRule.getId() == null || includeRule.getId().trim().length() < 1) {
+                            includeRule.setId("" + (ruleIndex++));
+                        }
+                        if (loadedRuleSet.add(includeRule.getId())) {
+                            result.add(includeRule);
+                        }
+                    }
+                }
+            } else {
+                skipElement(xmlReader);
+            }
+        }
+
+        return result;
+    }
+
+    private <T> List<Rule<T>> readInclude(String includeDocLocation, Document fragmentDocument,
+            ResourceLocatorUtil locationUtil, Set<String> includeChain) {
+        InputStream subStructureStream = null;
+        XMLStreamReader xmlReader = null;
+        try {
+            URL includeDocUrl = locationUtil.resolveUrlFromLocationString(includeDocLocation);
+            if (includeChain.contains(includeDocUrl.toExternalForm())) {
+                log.warn("Include cycle detected, skipping include rule document: '" + includeDocLocation + "'");
+                return new ArrayList<Rule<T>>();
+            }
+            subStructureStream = includeDocUrl.openStream();
+            xmlReader = xmlInputFactory.createXMLStreamReader(subStructureStream);
+            if (!nextStartElement(xmlReader)) {
+                return new ArrayList<Rule<T>>();
+            }
+
+            Set<String> subIncludeChain = new HashSet<>(includeChain);
+            subIncludeChain.add(includeDocUrl.toExternalForm());
+            return readRuleSet(xmlReader, fragmentDocument, locationUtil, subIncludeChain);
+        } catch (Exception e) {
+            log.warn("Failure in loading include rule document: '" + includeDocLocation + "'", e);
+            return new ArrayList<Rule<T>>();
+        } finally {
+            if (xmlReader != null) {
+                try {
+                    xmlReader.close();
+                } catch (Exception e) {
+                    // do nothing
+                }
+            }
+            if (subStructureStream != null) {
+                try {
+                    subStructureStream.close();
+                } catch (Exception e) {
+                    // do nothing
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the element the reader is positioned on, including its attributes,
+     * child elements and text, into a detached element of the given document.
+     * The reader is positioned on the end tag of the element afterwards.
+     */
+    protected Element readElement(XMLStreamReader xmlReader, Document fragmentDocument) throws XMLStreamException {
+        Element xmlElement = fragmentDocument.createElement(getTagName(xmlReader));
+        for (int i = 0; i < xmlReader.getAttributeCount(); i++) {
+            String prefix = xmlReader.getAttributePrefix(i);
+            String localName = xmlReader.getAttributeLocalName(i);
+            xmlElement.setAttribute(prefix == null || prefix.length() < 1 ? localName : prefix + ":" + localName,
+                    xmlReader.getAttributeValue(i));
+        }
+
+        while (xmlReader.hasNext()) {
+            switch (xmlReader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+                xmlElement.appendChild(readElement(xmlReader, fragmentDocument));
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                xmlElement.appendChild(fragmentDocument.createTextNode(xmlReader.getText()));
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                return xmlElement;
+            default:
+                break;
+            }
+        }
+
+        return xmlElement;
+    }
+
+    private void skipElement(XMLStreamReader xmlReader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && xmlReader.hasNext()) {
+            int event = xmlReader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private boolean nextStartElement(XMLStreamReader xmlReader) throws XMLStreamException {
+        if (xmlReader.isStartElement()) {
+            return true;
+        }
+        while (xmlReader.hasNext()) {
+            if (xmlReader.next() == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private String getTagName(XMLStreamReader xmlReader) {
+        String prefix = xmlReader.getPrefix();
+        return prefix == null || prefix.length() < 1 ? xmlReader.getLocalName() : prefix + ":" + xmlReader.getLocalName();
+    }
+}
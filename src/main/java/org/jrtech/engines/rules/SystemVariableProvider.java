@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.jrtech.engines.rules.model.AbstractAttribute;
+
+/**
+ * The class <code>SystemVariableProvider</code> provides the values of the
+ * <code>SYSTEM</code> variables (e.g. <code>${now@SYSTEM}</code>) from a
+ * {@link Clock}. <br>
+ * <code>now</code> is the ISO date time with offset of the current second,
+ * <code>today</code> the ISO date with offset of the current day. The
+ * formatted values are cached until the next second respectively day. <br>
+ * Between {@link #begin()} and {@link #end()} (e.g. during one application of
+ * a {@link RuleSetExecutor}) the clock is read at most once per thread, so all
+ * the goals of an evaluation get the same timestamp.
+ */
+public class SystemVariableProvider {
+
+    private static volatile SystemVariableProvider defaultInstance = newInstance(Clock.systemDefaultZone());
+
+    private final Clock clock;
+
+    private final ThreadLocal<Evaluation> evaluationHolder = ThreadLocal.withInitial(Evaluation::new);
+
+    private volatile CachedValue cachedNow = new CachedValue(0, 0, null);
+
+    private volatile CachedValue cachedToday = new CachedValue(0, 0, null);
+
+    public static SystemVariableProvider newInstance(Clock clock) {
+        return new SystemVariableProvider(clock);
+    }
+
+    protected SystemVariableProvider(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Invalid clock: [NULL].");
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * @return the provider used to resolve the <code>SYSTEM</code> variables,
+     *         by default based on the system clock.
+     */
+    public static SystemVariableProvider getDefault() {
+        return defaultInstance;
+    }
+
+    /**
+     * Replaces the provider used to resolve the <code>SYSTEM</code> variables,
+     * e.g. by one based on a fixed clock in tests.
+     */
+    public static void setDefault(SystemVariableProvider provider) {
+        if (provider == null) {
+            throw new IllegalArgumentException("Invalid system variable provider: [NULL].");
+        }
+        defaultInstance = provider;
+    }
+
+    /**
+     * Starts an evaluation on the current thread, the clock is read at most
+     * once until the matching {@link #end()}. Evaluations may be nested, the
+     * outermost one defines the timestamp.
+     */
+    public void begin() {
+        evaluationHolder.get().depth++;
+    }
+
+    public void end() {
+        Evaluation evaluation = evaluationHolder.get();
+        if (evaluation.depth > 0 && --evaluation.depth == 0) {
+            evaluation.pinned = false;
+        }
+    }
+
+    /**
+     * @return the current date time, e.g. <code>2026-10-18T09:30:15+02:00</code>.
+     */
+    public String getNow() {
+        long epochSecond = Math.floorDiv(currentTimeMillis(), 1000L);
+        CachedValue now = cachedNow;
+        if (!now.isValid(epochSecond)) {
+            now = new CachedValue(epochSecond, epochSecond + 1, DateTimeFormatter.ISO_OFFSET_DATE_TIME
+                    .format(ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), clock.getZone())));
+            cachedNow = now;
+        }
+
+        return now.value;
+    }
+
+    /**
+     * @return the current date, e.g. <code>2026-10-18+02:00</code>.
+     */
+    public String getToday() {
+        long epochSecond = Math.floorDiv(currentTimeMillis(), 1000L);
+        CachedValue today = cachedToday;
+        if (!today.isValid(epochSecond)) {
+            ZoneId zone = clock.getZone();
+            LocalDate date = Instant.ofEpochSecond(epochSecond).atZone(zone).toLocalDate();
+            ZonedDateTime startOfDay = date.atStartOfDay(zone);
+            today = new CachedValue(startOfDay.toEpochSecond(), date.plusDays(1).atStartOfDay(zone).toEpochSecond(),
+                    DateTimeFormatter.ISO_OFFSET_DATE.format(startOfDay));
+            cachedToday = today;
+        }
+
+        return today.value;
+    }
+
+    /**
+     * @return the value of the given <code>SYSTEM</code> variable, or an empty
+     *         string if the variable is unknown.
+     */
+    public String getValue(String variableName) {
+        if (AbstractAttribute.INTERNAL_VARIABLE_SYSTEM_NOW.equalsIgnoreCase(variableName)) {
+            return getNow();
+        } else if (AbstractAttribute.INTERNAL_VARIABLE_SYSTEM_TODAY.equalsIgnoreCase(variableName)) {
+            return getToday();
+        }
+
+        return "";
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    private long currentTimeMillis() {
+        Evaluation evaluation = evaluationHolder.get();
+        if (evaluation.depth == 0) {
+            return clock.millis();
+        }
+        if (!evaluation.pinned) {
+            evaluation.millis = clock.millis();
+            evaluation.pinned = true;
+        }
+
+        return evaluation.millis;
+    }
+
+    private static final class Evaluation {
+        private int depth = 0;
+
+        private boolean pinned = false;
+
+        private long millis;
+    }
+
+    /** A formatted value valid from (inclusive) until (exclusive) the given epoch seconds. */
+    private static final class CachedValue {
+        private final long validFrom;
+
+        private final long validUntil;
+
+        private final String value;
+
+        private CachedValue(long validFrom, long validUntil, String value) {
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+            this.value = value;
+        }
+
+        private boolean isValid(long epochSecond) {
+            return epochSecond >= validFrom && epochSecond < validUntil;
+        }
+    }
+}
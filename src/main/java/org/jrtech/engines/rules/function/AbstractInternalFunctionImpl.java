@@ -41,6 +41,47 @@ public abstract class AbstractInternalFunctionImpl implements Serializable {
     }
     
     public abstract boolean match(Object actualValue, Object expectedValue);
+
+    /**
+     * Binds this function to a constant expected value. Implementations
+     * override it to prepare the expected value once instead of on every
+     * {@link #match(Object, Object)} call, the returned matcher must behave
+     * exactly like <code>match(actualValue, expectedValue)</code>, also for a
+     * <code>null</code> actual value, which is never compared as the string
+     * <code>"null"</code>.
+     */
+    public ValueMatcher compile(final Object expectedValue) {
+        return (Object actualValue) -> match(actualValue, expectedValue);
+    }
     
     public abstract String createLogicalExpression(String name, String value);
+
+    /**
+     * Parses an unsigned decimal integer of up to 18 digits, skipping the given
+     * separator characters.
+     *
+     * @return the parsed value, or <code>-1</code> if the value is not such an
+     *         integer.
+     */
+    protected static long parseDigits(String value, String separators) {
+        return parseDigits(value, 0, separators);
+    }
+
+    protected static long parseDigits(String value, int beginIndex, String separators) {
+        long result = 0;
+        int digitCount = 0;
+        for (int i = beginIndex; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digitCount > 18) {
+                    return -1;
+                }
+                result = result * 10 + (c - '0');
+            } else if (separators.indexOf(c) < 0) {
+                return -1;
+            }
+        }
+
+        return digitCount == 0 ? -1 : result;
+    }
 }
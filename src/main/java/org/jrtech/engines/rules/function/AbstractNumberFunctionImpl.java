@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.function;
+
+import java.math.BigDecimal;
+
+/**
+ * The class <code>AbstractNumberFunctionImpl</code> is a common defined class
+ * for number comparison functions. <br>
+ * A compiled function keeps the expected value as a primitive <code>long</code>
+ * when it is an integer, so integer actual values are compared without any
+ * {@link BigDecimal} allocation.
+ */
+public abstract class AbstractNumberFunctionImpl extends AbstractInternalFunctionImpl {
+
+    private static final long serialVersionUID = 2307164417338437305L;
+
+    @Override
+    public boolean match(Object actualValue, Object expectedValue) {
+        if (actualValue == null && expectedValue == null) {
+            // No expectation -> match!
+            return true;
+        } else if ((actualValue != null && expectedValue == null) || actualValue == null && expectedValue != null) {
+            return false;
+        }
+
+        BigDecimal actualBd = new BigDecimal("" + actualValue);
+        BigDecimal expectedBd = new BigDecimal("" + expectedValue);
+        return compareValues(actualBd.compareTo(expectedBd));
+    }
+
+    @Override
+    public ValueMatcher compile(final Object expectedValue) {
+        if (expectedValue == null) {
+            return super.compile(expectedValue);
+        }
+
+        final BigDecimal expectedBd;
+        try {
+            expectedBd = new BigDecimal("" + expectedValue);
+        } catch (NumberFormatException e) {
+            // Reported on evaluation, like the uncompiled function does
+            return super.compile(expectedValue);
+        }
+
+        final String expected = "" + expectedValue;
+        final boolean integerExpected = isInteger(expected);
+        final long expectedLong = integerExpected ? parseInteger(expected) : 0;
+        return (Object actualValue) -> {
+            if (actualValue == null) {
+                return false;
+            }
+
+            String actual = actualValue instanceof String ? (String) actualValue : "" + actualValue;
+            if (integerExpected && isInteger(actual)) {
+                return compareValues(Long.compare(parseInteger(actual), expectedLong));
+            }
+
+            return compareValues(new BigDecimal(actual).compareTo(expectedBd));
+        };
+    }
+
+    /**
+     * @param comparison
+     *            the result of comparing the actual to the expected value, see
+     *            {@link Comparable#compareTo(Object)}.
+     */
+    protected abstract boolean compareValues(int comparison);
+
+    private static boolean isInteger(String value) {
+        return parseDigits(value, value.startsWith("-") ? 1 : 0, "") >= 0;
+    }
+
+    private static long parseInteger(String value) {
+        return value.startsWith("-") ? -parseDigits(value, 1, "") : parseDigits(value, "");
+    }
+}
@@ -35,6 +35,10 @@ public abstract class AbstractTimeFunctionImpl extends AbstractInternalFunctionI
 
 	private static final long serialVersionUID = -3470415496522230712L;
 
+	private static final BigDecimal MINUS_ONE = BigDecimal.ONE.negate();
+
+	private static final String SEPARATORS = ":";
+
 	@Override
 	public boolean match(Object actualValue, Object expectedValue) {
 		if (actualValue == null && expectedValue == null) {
@@ -50,6 +54,38 @@ public abstract class AbstractTimeFunctionImpl extends AbstractInternalFunctionI
 		return compareValues(actualTime, expectedTime);
 	}
 
+	@Override
+	public ValueMatcher compile(final Object expectedValue) {
+		if (expectedValue == null) {
+			return super.compile(expectedValue);
+		}
+
+		final String expected = cleanupTimeSeparators("" + expectedValue);
+		final BigDecimal expectedTime;
+		try {
+			expectedTime = new BigDecimal(expected);
+		} catch (NumberFormatException e) {
+			// Reported on evaluation, like the uncompiled function does
+			return super.compile(expectedValue);
+		}
+
+		// Plain digit values are compared as primitive long, anything else as before
+		final long expectedLong = parseDigits(expected, SEPARATORS);
+		return (Object actualValue) -> {
+			if (actualValue == null) {
+				return false;
+			}
+
+			String actual = actualValue instanceof String ? (String) actualValue : "" + actualValue;
+			long actualLong = expectedLong < 0 ? -1 : parseDigits(actual, SEPARATORS);
+			if (actualLong >= 0) {
+				return compareSign(Long.compare(actualLong, expectedLong));
+			}
+
+			return compareValues(new BigDecimal(cleanupTimeSeparators(actual)), expectedTime);
+		};
+	}
+
 	@Override
 	public String createLogicalExpression(String name, String value) {
 		return name + " " + getLogicalOperatorExpression() + " " + value;
@@ -59,7 +95,28 @@ public abstract class AbstractTimeFunctionImpl extends AbstractInternalFunctionI
     	return StringUtils.remove(isoDatetime, ':');
     }
     
-	protected abstract boolean compareValues(BigDecimal actualTime, BigDecimal expectedTime);
+	/**
+	 * Compares the actual with the expected value. <br>
+	 * The default implementation passes the sign of their comparison to
+	 * {@link #compareSign(int)}, subclasses override one of the two methods.
+	 */
+	protected boolean compareValues(BigDecimal actualTime, BigDecimal expectedTime) {
+		return compareSign(actualTime.compareTo(expectedTime));
+	}
+
+	/**
+	 * Evaluates the sign of the comparison of the actual with the expected value.
+	 * <br>
+	 * The default implementation passes the sign as the actual value and zero as
+	 * the expected value to {@link #compareValues(BigDecimal, BigDecimal)}.
+	 * 
+	 * @param sign
+	 *            <code>-1</code>, <code>0</code> or <code>1</code> as the actual
+	 *            value is less than, equal to or greater than the expected value.
+	 */
+	protected boolean compareSign(int sign) {
+		return compareValues(sign < 0 ? MINUS_ONE : (sign > 0 ? BigDecimal.ONE : BigDecimal.ZERO), BigDecimal.ZERO);
+	}
 	
 	protected abstract String getLogicalOperatorExpression();
 }
@@ -33,6 +33,17 @@ public class BooleanEqualsFunctionImpl extends AbstractInternalFunctionImpl {
         return ("" + actualValue).equalsIgnoreCase("" + expectedValue);
     }
 
+    @Override
+    public ValueMatcher compile(Object expectedValue) {
+        if (expectedValue == null || expectedValue instanceof Boolean) {
+            return super.compile(expectedValue);
+        }
+
+        final String expected = "" + expectedValue;
+        return (Object actualValue) -> actualValue != null
+                && expected.equalsIgnoreCase(actualValue instanceof String ? (String) actualValue : "" + actualValue);
+    }
+
     @Override
     public String createLogicalExpression(String name, String value) {
         return name + " = " + value;
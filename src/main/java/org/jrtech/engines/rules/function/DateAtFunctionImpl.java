@@ -16,8 +16,6 @@
  */
 package org.jrtech.engines.rules.function;
 
-import java.math.BigDecimal;
-
 /**
  * The class <code>DateEqualsFunctionImpl</code> is used for comparing date
  * value as string in the following date formats:
@@ -35,9 +33,8 @@ public class DateAtFunctionImpl extends AbstractDateFunctionImpl {
 	private static final long serialVersionUID = -8624494054599911253L;
 
 	@Override
-	protected boolean compareValues(BigDecimal actualDate, BigDecimal expectedDate) {
-		// TODO Auto-generated method stub
-		return actualDate.subtract(expectedDate).intValue() == 0;
+	protected boolean compareSign(int sign) {
+		return sign == 0;
 	}
 
 	@Override
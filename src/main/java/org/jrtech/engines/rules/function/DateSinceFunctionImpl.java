@@ -16,8 +16,6 @@
  */
 package org.jrtech.engines.rules.function;
 
-import java.math.BigDecimal;
-
 /**
  * The class <code>DateAfterOrEqualsFunctionImpl</code> is used for comparing
  * date value as string in the following date formats:
@@ -35,8 +33,8 @@ public class DateSinceFunctionImpl extends AbstractDateFunctionImpl {
 	private static final long serialVersionUID = 6540183266703067310L;
 
 	@Override
-	protected boolean compareValues(BigDecimal actualDate, BigDecimal expectedDate) {
-		return actualDate.subtract(expectedDate).intValue() >= 0;
+	protected boolean compareSign(int sign) {
+		return sign >= 0;
 	}
 
 	@Override
@@ -16,24 +16,13 @@
  */
 package org.jrtech.engines.rules.function;
 
-import java.math.BigDecimal;
-
-public class NumberLessThanFunctionImpl extends AbstractInternalFunctionImpl {
+public class NumberLessThanFunctionImpl extends AbstractNumberFunctionImpl {
 
     private static final long serialVersionUID = 3848231958730347002L;
 
     @Override
-    public boolean match(Object actualValue, Object expectedValue) {
-        if (actualValue == null && expectedValue == null) {
-            // No expectation -> match!
-            return true;
-        } else if ((actualValue != null && expectedValue == null) || actualValue == null && expectedValue != null) {
-            return false;
-        }
-
-        BigDecimal actualBd = new BigDecimal("" + actualValue);
-        BigDecimal expectedBd = new BigDecimal("" + expectedValue);
-        return actualBd.compareTo(expectedBd) < 0;
+    protected boolean compareValues(int comparison) {
+        return comparison < 0;
     }
 
     @Override
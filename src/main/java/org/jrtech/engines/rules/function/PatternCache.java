@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.function;
+
+import java.util.regex.Pattern;
+
+import org.jrtech.engines.rules.BoundedConcurrentCache;
+
+/**
+ * The class <code>PatternCache</code> is a bounded, thread safe cache of
+ * compiled regular expressions keyed by their expression, see
+ * {@link BoundedConcurrentCache}. <br>
+ * The hit and miss counters show how well the cache fits the regular
+ * expressions of the loaded rule sets.
+ */
+public class PatternCache {
+
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private static final PatternCache INSTANCE = new PatternCache(DEFAULT_MAX_SIZE);
+
+    private final BoundedConcurrentCache<String, Pattern> patternCatalog;
+
+    public static PatternCache getInstance() {
+        return INSTANCE;
+    }
+
+    public PatternCache(int maxSize) {
+        this.patternCatalog = new BoundedConcurrentCache<>(maxSize);
+    }
+
+    /**
+     * @return the compiled pattern of the regular expression.
+     * @throws java.util.regex.PatternSyntaxException
+     *             if the regular expression is invalid.
+     */
+    public Pattern get(String regex) {
+        return patternCatalog.computeIfAbsent(regex, Pattern::compile);
+    }
+
+    public long getHitCount() {
+        return patternCatalog.getHitCount();
+    }
+
+    public long getMissCount() {
+        return patternCatalog.getMissCount();
+    }
+
+    public int size() {
+        return patternCatalog.size();
+    }
+
+    public int getMaxSize() {
+        return patternCatalog.getMaxSize();
+    }
+
+    public void clear() {
+        patternCatalog.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "PatternCache[size: " + size() + "/" + getMaxSize() + ", hits: " + getHitCount() + ", misses: "
+                + getMissCount() + "]";
+    }
+}
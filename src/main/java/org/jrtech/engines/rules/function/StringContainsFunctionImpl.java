@@ -33,6 +33,17 @@ public class StringContainsFunctionImpl extends AbstractInternalFunctionImpl {
         return ("" + actualValue).contains("" + expectedValue);
     }
     
+    @Override
+    public ValueMatcher compile(Object expectedValue) {
+        if (expectedValue == null) {
+            return (Object actualValue) -> actualValue == null;
+        }
+
+        final String expected = "" + expectedValue;
+        return (Object actualValue) -> actualValue != null
+                && (actualValue instanceof String ? (String) actualValue : "" + actualValue).contains(expected);
+    }
+
     @Override
     public String createLogicalExpression(String name, String value) {
         return name + ".contains(\"" + value + "\")";
@@ -33,6 +33,17 @@ public class StringEndsWithFunctionImpl extends AbstractInternalFunctionImpl {
         return ("" + actualValue).endsWith("" + expectedValue);
     }
 
+    @Override
+    public ValueMatcher compile(Object expectedValue) {
+        if (expectedValue == null) {
+            return (Object actualValue) -> actualValue == null;
+        }
+
+        final String expected = "" + expectedValue;
+        return (Object actualValue) -> actualValue != null
+                && (actualValue instanceof String ? (String) actualValue : "" + actualValue).endsWith(expected);
+    }
+
     @Override
     public String createLogicalExpression(String name, String value) {
         return name + ".endsWith(\"" + value + "\")";
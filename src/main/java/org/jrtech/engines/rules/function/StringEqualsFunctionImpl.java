@@ -33,6 +33,17 @@ public class StringEqualsFunctionImpl extends AbstractInternalFunctionImpl {
         return ("" + actualValue).equals("" + expectedValue);
     }
     
+    @Override
+    public ValueMatcher compile(Object expectedValue) {
+        if (expectedValue == null) {
+            return (Object actualValue) -> actualValue == null;
+        }
+
+        final String expected = "" + expectedValue;
+        return (Object actualValue) -> actualValue != null
+                && expected.equals(actualValue instanceof String ? actualValue : "" + actualValue);
+    }
+
     @Override
     public String createLogicalExpression(String name, String value) {
         return name + ".equals(\"" + value + "\")";
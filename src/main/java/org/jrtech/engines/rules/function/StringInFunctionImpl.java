@@ -16,17 +16,13 @@
  */
 package org.jrtech.engines.rules.function;
 
-import java.util.HashSet;
-import java.util.Set;
-
-import org.apache.commons.lang3.StringUtils;
-import org.jrtech.engines.rules.RingBufferStore;
+import org.jrtech.engines.rules.BoundedConcurrentCache;
 
 public class StringInFunctionImpl extends AbstractInternalFunctionImpl {
 
     private static final long serialVersionUID = -7005087809981352893L;
 
-    private static final RingBufferStore<String, Set<String>> CACHE = new RingBufferStore<>(500);
+    private static final BoundedConcurrentCache<String, StringValueSet> CACHE = new BoundedConcurrentCache<>(500);
 
     @Override
     public boolean match(Object actualValue, Object expectedValue) {
@@ -35,34 +31,30 @@ public class StringInFunctionImpl extends AbstractInternalFunctionImpl {
         } else if ((actualValue != null && expectedValue == null) || actualValue == null && expectedValue != null) {
             return false;
         } else if (actualValue instanceof String && expectedValue instanceof String && !"".equals(expectedValue)) {
-            Set<String> valueSet = getCache().get("" + expectedValue);
-            if (valueSet == null) {
-                valueSet = new HashSet<>();
-                String[] expectedValueList = StringUtils.split("" + expectedValue, ",");
-                for (String expectedValueItem : expectedValueList) {
-                    String cleanedValue = expectedValueItem.trim();
-                    if (cleanedValue.startsWith("\"") || cleanedValue.startsWith("'")) {
-                        cleanedValue = cleanedValue.substring(1);
-                    }
-                    if (cleanedValue.endsWith("\"") || cleanedValue.endsWith("'")) {
-                        cleanedValue = cleanedValue.substring(0, cleanedValue.length() - 1);
-                    }
-                    valueSet.add(cleanedValue);
-                }
-                getCache().put("" + expectedValue, valueSet);
-            }
-            return valueSet.contains(actualValue);
+            return getCache().computeIfAbsent((String) expectedValue, StringValueSet::parse)
+                    .contains((String) actualValue);
         }
 
         return false;
     }
 
+    @Override
+    public ValueMatcher compile(Object expectedValue) {
+        if (!(expectedValue instanceof String) || "".equals(expectedValue)) {
+            return super.compile(expectedValue);
+        }
+
+        // The value set of the attribute, built once instead of looked up in the shared cache
+        final StringValueSet valueSet = StringValueSet.parse((String) expectedValue);
+        return (Object actualValue) -> actualValue instanceof String && valueSet.contains((String) actualValue);
+    }
+
     @Override
     public String createLogicalExpression(String name, String value) {
         return name + "in [" + value + "]";
     }
 
-    private RingBufferStore<String, Set<String>> getCache() {
+    private BoundedConcurrentCache<String, StringValueSet> getCache() {
         return CACHE;
     }
 
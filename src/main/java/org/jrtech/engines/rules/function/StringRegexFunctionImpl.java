@@ -16,6 +16,9 @@
  */
 package org.jrtech.engines.rules.function;
 
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
 public class StringRegexFunctionImpl extends AbstractInternalFunctionImpl {
 
     private static final long serialVersionUID = -9204258181775219914L;
@@ -30,12 +33,36 @@ public class StringRegexFunctionImpl extends AbstractInternalFunctionImpl {
         } else if (actualValue == null && expectedValue != null) {
             return false;
         } else if (actualValue instanceof String && expectedValue instanceof String) {
-            return ((String) actualValue).matches((String) expectedValue);
+            return PatternCache.getInstance().get((String) expectedValue).matcher((String) actualValue).matches();
         }
 
         return ("" + expectedValue).matches("" + actualValue);
     }
 
+    @Override
+    public ValueMatcher compile(final Object expectedValue) {
+        if (!(expectedValue instanceof String)) {
+            return super.compile(expectedValue);
+        }
+
+        final Pattern pattern;
+        try {
+            pattern = PatternCache.getInstance().get((String) expectedValue);
+        } catch (PatternSyntaxException e) {
+            // Reported on evaluation, like the uncompiled function does
+            return super.compile(expectedValue);
+        }
+
+        // A matcher per evaluation, cheap next to the match and never retained
+        return (Object actualValue) -> {
+            if (actualValue instanceof String) {
+                return pattern.matcher((String) actualValue).matches();
+            }
+
+            return match(actualValue, expectedValue);
+        };
+    }
+
     @Override
     public String createLogicalExpression(String name, String value) {
         return name + ".matches(\"" + value + "\")";
@@ -33,6 +33,17 @@ public class StringStartsWithFunctionImpl extends AbstractInternalFunctionImpl {
         return ("" + actualValue).startsWith("" + expectedValue);
     }
     
+    @Override
+    public ValueMatcher compile(Object expectedValue) {
+        if (expectedValue == null) {
+            return (Object actualValue) -> actualValue == null;
+        }
+
+        final String expected = "" + expectedValue;
+        return (Object actualValue) -> actualValue != null
+                && (actualValue instanceof String ? (String) actualValue : "" + actualValue).startsWith(expected);
+    }
+
     @Override
     public String createLogicalExpression(String name, String value) {
         return name + ".startsWith(\"" + value + "\")";
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.function;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The class <code>StringValueSet</code> is the immutable set of the values of
+ * an <code>in</code> list, e.g. <code>"USD", "EUR", 'CHF'</code>. <br>
+ * Small sets are a sorted array searched by bisection, larger ones an open
+ * addressing hash table of at most half load, so a lookup is one hash probe
+ * sequence without any boxing or shared state.
+ */
+public final class StringValueSet {
+
+    public static final int MAX_SORTED_SIZE = 16;
+
+    private final String[] sortedValues;
+
+    private final String[] table;
+
+    private final int mask;
+
+    private final int size;
+
+    private StringValueSet(Set<String> values) {
+        this.size = values.size();
+        if (size <= MAX_SORTED_SIZE) {
+            sortedValues = values.toArray(new String[size]);
+            Arrays.sort(sortedValues);
+            table = null;
+            mask = 0;
+            return;
+        }
+
+        int capacity = Integer.highestOneBit(size * 2 - 1) << 1;
+        sortedValues = null;
+        table = new String[capacity];
+        mask = capacity - 1;
+        for (String value : values) {
+            int index = spread(value.hashCode()) & mask;
+            while (table[index] != null) {
+                index = (index + 1) & mask;
+            }
+            table[index] = value;
+        }
+    }
+
+    /**
+     * Parses a comma separated list of values, each of them optionally
+     * quoted.
+     */
+    public static StringValueSet parse(String expectedValue) {
+        Set<String> values = new LinkedHashSet<>();
+        for (String expectedValueItem : StringUtils.split(expectedValue, ",")) {
+            String cleanedValue = expectedValueItem.trim();
+            if (cleanedValue.startsWith("\"") || cleanedValue.startsWith("'")) {
+                cleanedValue = cleanedValue.substring(1);
+            }
+            if (cleanedValue.endsWith("\"") || cleanedValue.endsWith("'")) {
+                cleanedValue = cleanedValue.substring(0, cleanedValue.length() - 1);
+            }
+            values.add(cleanedValue);
+        }
+
+        return new StringValueSet(values);
+    }
+
+    public boolean contains(String value) {
+        if (value == null) {
+            return false;
+        }
+
+        if (table == null) {
+            return Arrays.binarySearch(sortedValues, value) >= 0;
+        }
+
+        for (int index = spread(value.hashCode()) & mask;; index = (index + 1) & mask) {
+            String candidate = table[index];
+            if (candidate == null) {
+                return false;
+            } else if (candidate.hashCode() == value.hashCode() && candidate.equals(value)) {
+                return true;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "StringValueSet[" + size + " value(s)]";
+    }
+
+    private static int spread(int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+}
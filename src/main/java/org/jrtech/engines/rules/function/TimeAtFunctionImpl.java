@@ -16,8 +16,6 @@
  */
 package org.jrtech.engines.rules.function;
 
-import java.math.BigDecimal;
-
 /**
  * The class <code>TimeAtFunctionImpl</code> is used for comparing time value as
  * string in the following time formats:
@@ -33,8 +31,8 @@ public class TimeAtFunctionImpl extends AbstractTimeFunctionImpl {
 	private static final long serialVersionUID = -7154659639908073983L;
 
 	@Override
-	protected boolean compareValues(BigDecimal actualTime, BigDecimal expectedTime) {
-		return actualTime.subtract(expectedTime).intValue() == 0;
+	protected boolean compareSign(int sign) {
+		return sign == 0;
 	}
 
 	@Override
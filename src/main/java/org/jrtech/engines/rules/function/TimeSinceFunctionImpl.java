@@ -16,8 +16,6 @@
  */
 package org.jrtech.engines.rules.function;
 
-import java.math.BigDecimal;
-
 /**
  * The class <code>TimeSinceFunctionImpl</code> is used for comparing time value
  * as string in the following time formats:
@@ -33,8 +31,8 @@ public class TimeSinceFunctionImpl extends AbstractTimeFunctionImpl {
 	private static final long serialVersionUID = 5195111614194670821L;
 
 	@Override
-	protected boolean compareValues(BigDecimal actualTime, BigDecimal expectedTime) {
-		return actualTime.subtract(expectedTime).intValue() >= 0;
+	protected boolean compareSign(int sign) {
+		return sign >= 0;
 	}
 
 	@Override
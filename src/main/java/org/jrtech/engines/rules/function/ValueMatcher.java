@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.function;
+
+/**
+ * The interface <code>ValueMatcher</code> represents an internal function which
+ * is already bound to its expected value, see
+ * {@link AbstractInternalFunctionImpl#compile(Object)}.
+ */
+public interface ValueMatcher {
+
+    public boolean match(Object actualValue);
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.index;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.jrtech.engines.rules.model.ConditionalAttribute;
+
+/**
+ * The interface <code>AttributeIndex</code> maps the actual value of one
+ * attribute to the rules whose guard attributes may accept this value.
+ */
+public interface AttributeIndex {
+
+    /**
+     * Adds the guard of a rule condition, i.e. the conjunction of the given
+     * attributes of the condition which all test the indexed actual value.
+     */
+    public void add(List<ConditionalAttribute> guardAttributes, int ruleOrdinal);
+
+    /**
+     * Called once all guards are added, before the first
+     * {@link #collect(String, BitSet)}.
+     */
+    public default void build() {
+        // Nothing to prepare
+    }
+
+    /**
+     * Sets the ordinals of the rules whose guard attribute may accept the
+     * given actual value in the candidate set.
+     */
+    public void collect(String actualValue, BitSet candidates);
+}
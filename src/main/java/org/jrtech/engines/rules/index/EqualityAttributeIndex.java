@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.index;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jrtech.engines.rules.model.ConditionalAttribute;
+import org.jrtech.engines.rules.model.StringConditionalAttribute;
+
+/**
+ * The class <code>EqualityAttributeIndex</code> is the hash index of the
+ * string <code>equals</code> attributes, i.e. one lookup per actual value.
+ */
+public class EqualityAttributeIndex implements AttributeIndex {
+
+    private final Map<String, BitSet> ruleOrdinalsByValue = new HashMap<>();
+
+    /**
+     * @return <code>true</code> if the attribute is a plain string equality
+     *         test which can be used as a guard of this index.
+     */
+    public static boolean isIndexable(ConditionalAttribute attribute) {
+        if (!(attribute instanceof StringConditionalAttribute) || !RuleSetIndex.isPlainAttribute(attribute)) {
+            return false;
+        }
+
+        return attribute.getOperatorFunctionObject() != null && StringConditionalAttribute.INTERNAL_FUNCTION_EQUALS
+                .equals(attribute.getOperatorFunctionObject().getName());
+    }
+
+    @Override
+    public void add(List<ConditionalAttribute> guardAttributes, int ruleOrdinal) {
+        for (ConditionalAttribute guardAttribute : guardAttributes) {
+            BitSet ruleOrdinals = ruleOrdinalsByValue.get(guardAttribute.getValue());
+            if (ruleOrdinals == null) {
+                ruleOrdinals = new BitSet();
+                ruleOrdinalsByValue.put(guardAttribute.getValue(), ruleOrdinals);
+            }
+            ruleOrdinals.set(ruleOrdinal);
+        }
+    }
+
+    @Override
+    public void collect(String actualValue, BitSet candidates) {
+        if (actualValue == null) {
+            return;
+        }
+
+        BitSet ruleOrdinals = ruleOrdinalsByValue.get(actualValue);
+        if (ruleOrdinals != null) {
+            candidates.or(ruleOrdinals);
+        }
+    }
+
+    public int getCardinality() {
+        return ruleOrdinalsByValue.size();
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.index;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.jrtech.engines.rules.function.AbstractDateFunctionImpl;
+import org.jrtech.engines.rules.function.AbstractInternalFunctionImpl;
+import org.jrtech.engines.rules.function.DateAfterFunctionImpl;
+import org.jrtech.engines.rules.function.DateAtFunctionImpl;
+import org.jrtech.engines.rules.function.DateBeforeFunctionImpl;
+import org.jrtech.engines.rules.function.DateEqualsFunctionImpl;
+import org.jrtech.engines.rules.function.DateSinceFunctionImpl;
+import org.jrtech.engines.rules.function.DateUntilFunctionImpl;
+import org.jrtech.engines.rules.function.NumberEqualsFunctionImpl;
+import org.jrtech.engines.rules.function.NumberGreaterOrEqualsFunctionImpl;
+import org.jrtech.engines.rules.function.NumberGreaterThanFunctionImpl;
+import org.jrtech.engines.rules.function.NumberLessOrEqualsFunctionImpl;
+import org.jrtech.engines.rules.function.NumberLessThanFunctionImpl;
+import org.jrtech.engines.rules.model.ConditionalAttribute;
+import org.jrtech.engines.rules.model.DateConditionalAttribute;
+import org.jrtech.engines.rules.model.NumberConditionalAttribute;
+
+/**
+ * The class <code>RangeAttributeIndex</code> is the interval tree index of the
+ * number and date (or datetime) comparison attributes. <br>
+ * All comparison attributes of a condition on the same attribute (e.g.
+ * <code>since</code> and <code>before</code>) form one closed interval, so a
+ * lookup returns the rules whose interval contains the actual value in
+ * <code>O(log n + k)</code>. <br>
+ * The intervals are a superset of the accepted values: the bounds of strict
+ * comparisons are inclusive.
+ */
+public class RangeAttributeIndex implements AttributeIndex {
+
+    private final RangeType rangeType;
+
+    private AbstractDateFunctionImpl dateFunction = null;
+
+    private List<Interval> intervals = new ArrayList<>();
+
+    private Node root = null;
+
+    public RangeAttributeIndex(RangeType rangeType) {
+        this.rangeType = rangeType;
+    }
+
+    /**
+     * @return the range type of the attribute, or <code>null</code> if the
+     *         attribute is not a plain number or date comparison which can be
+     *         used as a guard of this index.
+     */
+    public static RangeType getRangeType(ConditionalAttribute attribute) {
+        if (!(attribute instanceof NumberConditionalAttribute || attribute instanceof DateConditionalAttribute)
+                || !RuleSetIndex.isPlainAttribute(attribute) || attribute.getOperatorFunctionObject() == null) {
+            return null;
+        }
+
+        AbstractInternalFunctionImpl implementation = attribute.getOperatorFunctionObject().getImplementation();
+        if (implementation == null || parseExpectedValue(attribute, implementation) == null) {
+            return null;
+        }
+
+        // Only the built-in functions, the bounds depend on their comparison
+        Class<?> implementationClass = implementation.getClass();
+        if (implementationClass == NumberEqualsFunctionImpl.class
+                || implementationClass == NumberGreaterThanFunctionImpl.class
+                || implementationClass == NumberGreaterOrEqualsFunctionImpl.class
+                || implementationClass == NumberLessThanFunctionImpl.class
+                || implementationClass == NumberLessOrEqualsFunctionImpl.class) {
+            return RangeType.NUMBER;
+        }
+        if (implementationClass == DateAtFunctionImpl.class || implementationClass == DateEqualsFunctionImpl.class
+                || implementationClass == DateAfterFunctionImpl.class
+                || implementationClass == DateSinceFunctionImpl.class
+                || implementationClass == DateBeforeFunctionImpl.class
+                || implementationClass == DateUntilFunctionImpl.class) {
+            return RangeType.DATE;
+        }
+
+        return null;
+    }
+
+    @Override
+    public void add(List<ConditionalAttribute> guardAttributes, int ruleOrdinal) {
+        // Conjunction of the attributes -> intersection of their intervals
+        BigDecimal lower = null;
+        BigDecimal upper = null;
+        for (ConditionalAttribute guardAttribute : guardAttributes) {
+            AbstractInternalFunctionImpl implementation = guardAttribute.getOperatorFunctionObject()
+                    .getImplementation();
+            if (implementation instanceof AbstractDateFunctionImpl) {
+                dateFunction = (AbstractDateFunctionImpl) implementation;
+            }
+            BigDecimal expectedValue = parseExpectedValue(guardAttribute, implementation);
+            BigDecimal[] bounds = formulateBounds(implementation, expectedValue);
+            if (bounds[0] != null && (lower == null || bounds[0].compareTo(lower) > 0)) {
+                lower = bounds[0];
+            }
+            if (bounds[1] != null && (upper == null || bounds[1].compareTo(upper) < 0)) {
+                upper = bounds[1];
+            }
+        }
+
+        if (lower == null || upper == null || lower.compareTo(upper) <= 0) {
+            intervals.add(new Interval(lower, upper, ruleOrdinal));
+        }
+    }
+
+    @Override
+    public void build() {
+        root = buildNode(intervals);
+        intervals = Collections.emptyList();
+    }
+
+    @Override
+    public void collect(String actualValue, BitSet candidates) {
+        if (actualValue == null) {
+            return;
+        }
+
+        BigDecimal value;
+        try {
+            value = new BigDecimal(dateFunction == null ? actualValue : dateFunction.cleanupSeparators(actualValue));
+        } catch (NumberFormatException e) {
+            // Not comparable, the attributes fall back to string equals
+            return;
+        }
+
+        for (Node node = root; node != null;) {
+            int comparison = value.compareTo(node.center);
+            if (comparison < 0) {
+                for (Interval interval : node.byLower) {
+                    if (interval.lower != null && interval.lower.compareTo(value) > 0) {
+                        break;
+                    }
+                    candidates.set(interval.ruleOrdinal);
+                }
+                node = node.left;
+            } else if (comparison > 0) {
+                for (Interval interval : node.byUpper) {
+                    if (interval.upper != null && interval.upper.compareTo(value) < 0) {
+                        break;
+                    }
+                    candidates.set(interval.ruleOrdinal);
+                }
+                node = node.right;
+            } else {
+                for (Interval interval : node.byLower) {
+                    candidates.set(interval.ruleOrdinal);
+                }
+                node = null;
+            }
+        }
+    }
+
+    public RangeType getRangeType() {
+        return rangeType;
+    }
+
+    private static BigDecimal parseExpectedValue(ConditionalAttribute attribute,
+            AbstractInternalFunctionImpl implementation) {
+        String expectedValue = attribute.getValue();
+        if (implementation instanceof AbstractDateFunctionImpl) {
+            expectedValue = ((AbstractDateFunctionImpl) implementation).cleanupSeparators(expectedValue);
+        }
+        try {
+            return new BigDecimal(expectedValue);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the inclusive lower and upper bound of the actual values the
+     *         function may accept, <code>null</code> for an unbounded side.
+     */
+    private static BigDecimal[] formulateBounds(AbstractInternalFunctionImpl implementation,
+            BigDecimal expectedValue) {
+        // @formatter:off
+        Class<?> implementationClass = implementation.getClass();
+        if (implementationClass == NumberGreaterThanFunctionImpl.class
+                || implementationClass == NumberGreaterOrEqualsFunctionImpl.class
+                || implementationClass == DateAfterFunctionImpl.class
+                || implementationClass == DateSinceFunctionImpl.class) {
+            return new BigDecimal[] { expectedValue, null };
+        } else if (implementationClass == NumberLessThanFunctionImpl.class
+                || implementationClass == NumberLessOrEqualsFunctionImpl.class
+                || implementationClass == DateBeforeFunctionImpl.class
+                || implementationClass == DateUntilFunctionImpl.class) {
+            return new BigDecimal[] { null, expectedValue };
+        }
+        // @formatter:on
+
+        // Number equals, date at / equals
+        return new BigDecimal[] { expectedValue, expectedValue };
+    }
+
+    /**
+     * Builds a centered interval tree: the intervals containing the median
+     * bound stay in the node, the others go to the left or right subtree.
+     */
+    private static Node buildNode(List<Interval> intervals) {
+        if (intervals.isEmpty()) {
+            return null;
+        }
+
+        TreeSet<BigDecimal> bounds = new TreeSet<>();
+        for (Interval interval : intervals) {
+            if (interval.lower != null) {
+                bounds.add(interval.lower);
+            }
+            if (interval.upper != null) {
+                bounds.add(interval.upper);
+            }
+        }
+        BigDecimal center = bounds.isEmpty() ? BigDecimal.ZERO
+                : bounds.toArray(new BigDecimal[bounds.size()])[bounds.size() / 2];
+
+        List<Interval> leftIntervals = new ArrayList<>();
+        List<Interval> rightIntervals = new ArrayList<>();
+        List<Interval> centerIntervals = new ArrayList<>();
+        for (Interval interval : intervals) {
+            if (interval.upper != null && interval.upper.compareTo(center) < 0) {
+                leftIntervals.add(interval);
+            } else if (interval.lower != null && interval.lower.compareTo(center) > 0) {
+                rightIntervals.add(interval);
+            } else {
+                centerIntervals.add(interval);
+            }
+        }
+
+        Node node = new Node(center);
+        node.byLower = centerIntervals.toArray(new Interval[centerIntervals.size()]);
+        Arrays.sort(node.byLower, (Interval i1, Interval i2) -> i1.lower == null ? (i2.lower == null ? 0 : -1)
+                : (i2.lower == null ? 1 : i1.lower.compareTo(i2.lower)));
+        node.byUpper = centerIntervals.toArray(new Interval[centerIntervals.size()]);
+        Arrays.sort(node.byUpper, (Interval i1, Interval i2) -> i1.upper == null ? (i2.upper == null ? 0 : -1)
+                : (i2.upper == null ? 1 : i2.upper.compareTo(i1.upper)));
+        node.left = buildNode(leftIntervals);
+        node.right = buildNode(rightIntervals);
+
+        return node;
+    }
+
+    public static enum RangeType {
+        NUMBER, DATE;
+    }
+
+    private static class Interval {
+        private final BigDecimal lower;
+        private final BigDecimal upper;
+        private final int ruleOrdinal;
+
+        private Interval(BigDecimal lower, BigDecimal upper, int ruleOrdinal) {
+            this.lower = lower;
+            this.upper = upper;
+            this.ruleOrdinal = ruleOrdinal;
+        }
+    }
+
+    private static class Node {
+        private final BigDecimal center;
+        private Interval[] byLower;
+        private Interval[] byUpper;
+        private Node left;
+        private Node right;
+
+        private Node(BigDecimal center) {
+            this.center = center;
+        }
+    }
+}
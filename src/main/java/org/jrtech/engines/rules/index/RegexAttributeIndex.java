@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.index;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.jrtech.engines.rules.model.ConditionalAttribute;
+import org.jrtech.engines.rules.model.StringConditionalAttribute;
+
+/**
+ * The class <code>RegexAttributeIndex</code> is the index of the string
+ * <code>regex</code> attributes. <br>
+ * The regular expressions of all rules are united into one
+ * {@link RegexAutomaton}, so a single scan of the actual value finds every
+ * rule whose expression matches it, whatever the number of rules. Expressions
+ * outside of the regular subset supported by the automaton (e.g. back
+ * references or look-arounds) are not indexable, these conditions are matched
+ * by {@link java.util.regex.Pattern} as before.
+ */
+public class RegexAttributeIndex implements AttributeIndex {
+
+    private final RegexAutomaton automaton = new RegexAutomaton();
+
+    private final BitSet allRuleOrdinals = new BitSet();
+
+    /**
+     * @return <code>true</code> if the attribute is a plain regular expression
+     *         test which can be used as a guard of this index.
+     */
+    public static boolean isIndexable(ConditionalAttribute attribute) {
+        if (!(attribute instanceof StringConditionalAttribute) || !RuleSetIndex.isPlainAttribute(attribute)
+                || attribute.getOperatorFunctionObject() == null || !StringConditionalAttribute.INTERNAL_FUNCTION_REGEX
+                        .equals(attribute.getOperatorFunctionObject().getName())) {
+            return false;
+        }
+
+        try {
+            // Invalid expressions fall back to string equals
+            Pattern.compile(attribute.getValue());
+        } catch (PatternSyntaxException e) {
+            return false;
+        }
+
+        return RegexAutomaton.isSupported(attribute.getValue());
+    }
+
+    @Override
+    public void add(List<ConditionalAttribute> guardAttributes, int ruleOrdinal) {
+        allRuleOrdinals.set(ruleOrdinal);
+        for (ConditionalAttribute guardAttribute : guardAttributes) {
+            if (!automaton.add(guardAttribute.getValue(), ruleOrdinal)) {
+                throw new IllegalArgumentException("Invalid regular expression: [" + guardAttribute.getValue() + "].");
+            }
+        }
+    }
+
+    @Override
+    public void build() {
+        automaton.build();
+    }
+
+    @Override
+    public void collect(String actualValue, BitSet candidates) {
+        if (actualValue == null) {
+            return;
+        }
+
+        if (!automaton.collect(actualValue, candidates)) {
+            candidates.or(allRuleOrdinals);
+        }
+    }
+
+    /**
+     * @return the number of states of the DFA, or <code>-1</code> if the NFA
+     *         is simulated.
+     */
+    public int getDfaStateCount() {
+        return automaton.getDfaStateCount();
+    }
+}
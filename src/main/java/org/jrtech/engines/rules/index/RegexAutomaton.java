@@ -0,0 +1,686 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The class <code>RegexAutomaton</code> matches the actual value against many
+ * regular expressions at once, in one scan of the value. <br>
+ * The expressions are compiled to a single NFA which is turned into a DFA (up
+ * to {@link #MAX_DFA_STATES} states, the NFA is simulated beyond). Only the
+ * regular subset of {@link java.util.regex.Pattern} is supported: literals,
+ * escapes, character classes, <code>.</code>, groups, alternations, greedy and
+ * lazy quantifiers and the anchors at both ends of the expression, with the
+ * full match semantic of {@link java.util.regex.Matcher#matches()}.
+ */
+class RegexAutomaton {
+
+    public static final int MAX_DFA_STATES = 4096;
+
+    private static final int MAX_NFA_STATES_PER_EXPRESSION = 10000;
+
+    private static final int MAX_REPETITION = 100;
+
+    private static final int MAX_CHAR = Character.MAX_VALUE;
+
+    // @formatter:off
+    private static final int[] DIGIT = { '0', '9' };
+    private static final int[] WORD = { '0', '9', 'A', 'Z', '_', '_', 'a', 'z' };
+    private static final int[] SPACE = { '\t', '\r', ' ', ' ' };
+    private static final int[] DOT = complement(new int[] { '\n', '\n', '\r', '\r', 0x85, 0x85, 0x2028, 0x2029 });
+    // @formatter:on
+
+    // NFA: character ranges and their target, or epsilon targets, per state
+    private final List<int[]> stateRanges = new ArrayList<>();
+
+    private final List<Integer> stateTargets = new ArrayList<>();
+
+    private final List<int[]> stateEpsilons = new ArrayList<>();
+
+    private final List<Integer> stateOrdinals = new ArrayList<>();
+
+    private final List<Integer> expressionStarts = new ArrayList<>();
+
+    // Character classes: the class of a char is the index of its range
+    private int[] classBounds;
+
+    private int[] dfaTransitions;
+
+    private int[][] dfaOrdinals;
+
+    private int classCount;
+
+    private int[][] closures;
+
+    private int startState;
+
+    private int stateLimit = 0;
+
+    /**
+     * @return <code>true</code> if the regular expression is supported.
+     */
+    public static boolean isSupported(String regex) {
+        return new RegexAutomaton().add(regex, 0);
+    }
+
+    /**
+     * Adds the regular expression for the rule.
+     *
+     * @return <code>false</code> if the regular expression is not supported.
+     */
+    public boolean add(String regex, int ruleOrdinal) {
+        Node node = new Parser(regex).parse();
+        if (node == null) {
+            return false;
+        }
+
+        int stateCount = stateRanges.size();
+        stateLimit = stateCount + MAX_NFA_STATES_PER_EXPRESSION;
+        int start = compile(node, newState(null, -1, null, ruleOrdinal));
+        if (stateRanges.size() > stateLimit) {
+            // Too many repetitions
+            while (stateRanges.size() > stateCount) {
+                int last = stateRanges.size() - 1;
+                stateRanges.remove(last);
+                stateTargets.remove(last);
+                stateEpsilons.remove(last);
+                stateOrdinals.remove(last);
+            }
+            return false;
+        }
+        expressionStarts.add(start);
+
+        return true;
+    }
+
+    /**
+     * Builds the automaton, must be called once after all regular
+     * expressions are added. The built automaton is not modified by
+     * {@link #collect(String, BitSet)} anymore.
+     */
+    public void build() {
+        int[] starts = new int[expressionStarts.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = expressionStarts.get(i);
+        }
+        startState = newState(null, -1, starts, -1);
+
+        TreeSet<Integer> bounds = new TreeSet<>();
+        bounds.add(0);
+        for (int[] ranges : stateRanges) {
+            for (int i = 0; ranges != null && i < ranges.length; i += 2) {
+                bounds.add(ranges[i]);
+                if (ranges[i + 1] < MAX_CHAR) {
+                    bounds.add(ranges[i + 1] + 1);
+                }
+            }
+        }
+        classBounds = new int[bounds.size()];
+        int c = 0;
+        for (Integer bound : bounds) {
+            classBounds[c++] = bound;
+        }
+        classCount = classBounds.length;
+
+        closures = new int[stateRanges.size()][];
+        buildDfa();
+        if (dfaTransitions == null) {
+            // The NFA is simulated by concurrent readers, so every closure
+            // they need is computed here and the closures are only read
+            closure(startState);
+            for (int state = 0; state < stateRanges.size(); state++) {
+                if (stateRanges.get(state) != null) {
+                    closure(stateTargets.get(state));
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the ordinals of the rules whose regular expression matches the
+     * whole value.
+     *
+     * @return <code>false</code> if the value cannot be matched by the
+     *         automaton (i.e. it contains surrogate characters, which
+     *         {@link java.util.regex.Pattern} matches as code points).
+     */
+    public boolean collect(String value, BitSet candidates) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isSurrogate(value.charAt(i))) {
+                return false;
+            }
+        }
+
+        if (dfaTransitions != null) {
+            int state = 0;
+            for (int i = 0; i < value.length() && state >= 0; i++) {
+                state = dfaTransitions[state * classCount + classOf(value.charAt(i))];
+            }
+            if (state >= 0) {
+                for (int ordinal : dfaOrdinals[state]) {
+                    candidates.set(ordinal);
+                }
+            }
+            return true;
+        }
+
+        // Too many DFA states: simulate the NFA
+        int[] states = closure(startState);
+        for (int i = 0; i < value.length() && states.length > 0; i++) {
+            states = step(states, value.charAt(i));
+        }
+        for (int state : states) {
+            if (stateOrdinals.get(state) >= 0) {
+                candidates.set(stateOrdinals.get(state));
+            }
+        }
+
+        return true;
+    }
+
+    public int getDfaStateCount() {
+        return dfaTransitions == null ? -1 : dfaOrdinals.length;
+    }
+
+    private void buildDfa() {
+        Map<IntArrayKey, Integer> dfaStateCatalog = new HashMap<>();
+        List<int[]> dfaStates = new ArrayList<>();
+        int[] start = closure(startState);
+        dfaStateCatalog.put(new IntArrayKey(start), 0);
+        dfaStates.add(start);
+
+        int[] transitions = new int[16 * classCount];
+        for (int d = 0; d < dfaStates.size(); d++) {
+            int[] states = dfaStates.get(d);
+            for (int c = 0; c < classCount; c++) {
+                int[] targetStates = step(states, (char) classBounds[c]);
+                int target = -1;
+                if (targetStates.length > 0) {
+                    IntArrayKey key = new IntArrayKey(targetStates);
+                    Integer known = dfaStateCatalog.get(key);
+                    if (known == null) {
+                        if (dfaStates.size() >= MAX_DFA_STATES) {
+                            return;
+                        }
+                        known = dfaStates.size();
+                        dfaStateCatalog.put(key, known);
+                        dfaStates.add(targetStates);
+                    }
+                    target = known;
+                }
+                if (transitions.length <= d * classCount + c) {
+                    transitions = Arrays.copyOf(transitions, transitions.length * 2);
+                }
+                transitions[d * classCount + c] = target;
+            }
+        }
+
+        dfaOrdinals = new int[dfaStates.size()][];
+        for (int d = 0; d < dfaOrdinals.length; d++) {
+            int[] ordinals = new int[0];
+            for (int state : dfaStates.get(d)) {
+                if (stateOrdinals.get(state) >= 0) {
+                    ordinals = Arrays.copyOf(ordinals, ordinals.length + 1);
+                    ordinals[ordinals.length - 1] = stateOrdinals.get(state);
+                }
+            }
+            dfaOrdinals[d] = ordinals;
+        }
+        dfaTransitions = transitions;
+    }
+
+    private int classOf(char c) {
+        int index = Arrays.binarySearch(classBounds, c);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * @return the closure of the states reached by the character.
+     */
+    private int[] step(int[] states, char c) {
+        BitSet targetStates = new BitSet();
+        for (int state : states) {
+            int[] ranges = stateRanges.get(state);
+            if (ranges != null && contains(ranges, c)) {
+                for (int target : closure(stateTargets.get(state))) {
+                    targetStates.set(target);
+                }
+            }
+        }
+
+        return targetStates.stream().toArray();
+    }
+
+    /**
+     * The closures are memoized while the automaton is built, see
+     * {@link #build()}.
+     *
+     * @return the states with a character range or a rule ordinal which are
+     *         reachable by epsilon moves, sorted.
+     */
+    private int[] closure(int state) {
+        int[] closure = closures[state];
+        if (closure != null) {
+            return closure;
+        }
+
+        BitSet visited = new BitSet();
+        BitSet relevant = new BitSet();
+        int[] stack = new int[] { state };
+        int top = 1;
+        visited.set(state);
+        while (top > 0) {
+            int s = stack[--top];
+            if (stateRanges.get(s) != null || stateOrdinals.get(s) >= 0) {
+                relevant.set(s);
+            }
+            int[] epsilons = stateEpsilons.get(s);
+            for (int i = 0; epsilons != null && i < epsilons.length; i++) {
+                if (!visited.get(epsilons[i])) {
+                    visited.set(epsilons[i]);
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[top++] = epsilons[i];
+                }
+            }
+        }
+
+        closure = relevant.stream().toArray();
+        closures[state] = closure;
+        return closure;
+    }
+
+    private int newState(int[] ranges, int target, int[] epsilons, int ruleOrdinal) {
+        stateRanges.add(ranges);
+        stateTargets.add(target);
+        stateEpsilons.add(epsilons);
+        stateOrdinals.add(ruleOrdinal);
+        return stateRanges.size() - 1;
+    }
+
+    /**
+     * Compiles the node in front of the given state (Thompson construction).
+     *
+     * @return the start state of the node.
+     */
+    private int compile(Node node, int next) {
+        if (stateRanges.size() > stateLimit) {
+            return next;
+        }
+
+        switch (node.type) {
+        case CHARS:
+            return newState(node.ranges, next, null, -1);
+        case CONCAT:
+            for (int i = node.children.size() - 1; i >= 0; i--) {
+                next = compile(node.children.get(i), next);
+            }
+            return next;
+        case ALTERNATION: {
+            int[] starts = new int[node.children.size()];
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = compile(node.children.get(i), next);
+            }
+            return newState(null, -1, starts, -1);
+        }
+        default: {
+            Node child = node.children.get(0);
+            int current;
+            if (node.max < 0) {
+                // Loop state: either one more child or done
+                int loop = newState(null, -1, null, -1);
+                stateEpsilons.set(loop, new int[] { compile(child, loop), next });
+                current = loop;
+            } else {
+                current = next;
+                for (int i = node.min; i < node.max; i++) {
+                    current = newState(null, -1, new int[] { compile(child, current), next }, -1);
+                }
+            }
+            for (int i = 0; i < node.min; i++) {
+                current = compile(child, current);
+            }
+            return current;
+        }
+        }
+    }
+
+    private static boolean contains(int[] ranges, int c) {
+        for (int i = 0; i < ranges.length && ranges[i] <= c; i += 2) {
+            if (c <= ranges[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] union(int[] ranges1, int[] ranges2) {
+        int[] merged = Arrays.copyOf(ranges1, ranges1.length + ranges2.length);
+        System.arraycopy(ranges2, 0, merged, ranges1.length, ranges2.length);
+        // Sort the ranges by their lower bound, then merge the overlapping ones
+        Integer[] order = new Integer[merged.length / 2];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        final int[] unsorted = merged;
+        Arrays.sort(order, (Integer i1, Integer i2) -> Integer.compare(unsorted[i1 * 2], unsorted[i2 * 2]));
+        int[] result = new int[merged.length];
+        int count = 0;
+        for (Integer i : order) {
+            int lower = merged[i * 2], upper = merged[i * 2 + 1];
+            if (count > 0 && lower <= result[count - 1] + 1) {
+                result[count - 1] = Math.max(result[count - 1], upper);
+            } else {
+                result[count++] = lower;
+                result[count++] = upper;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int[] complement(int[] ranges) {
+        int[] result = new int[ranges.length + 2];
+        int count = 0;
+        int lower = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] > lower) {
+                result[count++] = lower;
+                result[count++] = ranges[i] - 1;
+            }
+            lower = ranges[i + 1] + 1;
+        }
+        if (lower <= MAX_CHAR) {
+            result[count++] = lower;
+            result[count++] = MAX_CHAR;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static enum NodeType {
+        CHARS, CONCAT, ALTERNATION, REPETITION;
+    }
+
+    private static class Node {
+        private final NodeType type;
+        private final List<Node> children = new ArrayList<>();
+        private int[] ranges;
+        private int min;
+        private int max;
+
+        private Node(NodeType type) {
+            this.type = type;
+        }
+
+        private static Node chars(int[] ranges) {
+            Node node = new Node(NodeType.CHARS);
+            node.ranges = ranges;
+            return node;
+        }
+    }
+
+    /**
+     * The class <code>Parser</code> parses the supported subset of the
+     * {@link java.util.regex.Pattern} syntax, anything else results in
+     * <code>null</code>.
+     */
+    private static class Parser {
+        private final String regex;
+        private int pos = 0;
+        private boolean supported = true;
+
+        private Parser(String regex) {
+            this.regex = regex;
+        }
+
+        private Node parse() {
+            Node node = parseAlternation();
+            if (!supported || pos < regex.length()) {
+                return null;
+            }
+            return node;
+        }
+
+        private Node parseAlternation() {
+            Node node = new Node(NodeType.ALTERNATION);
+            node.children.add(parseConcatenation());
+            while (supported && pos < regex.length() && regex.charAt(pos) == '|') {
+                pos++;
+                node.children.add(parseConcatenation());
+            }
+            return node.children.size() == 1 ? node.children.get(0) : node;
+        }
+
+        private Node parseConcatenation() {
+            Node node = new Node(NodeType.CONCAT);
+            while (supported && pos < regex.length() && regex.charAt(pos) != '|' && regex.charAt(pos) != ')') {
+                Node atom = parseAtom();
+                if (atom != null) {
+                    node.children.add(parseQuantifier(atom));
+                }
+            }
+            return node;
+        }
+
+        private Node parseAtom() {
+            char c = regex.charAt(pos++);
+            switch (c) {
+            case '(':
+                if (regex.startsWith("?:", pos)) {
+                    pos += 2;
+                } else if (regex.startsWith("?", pos)) {
+                    return unsupported();
+                }
+                Node group = parseAlternation();
+                if (pos >= regex.length() || regex.charAt(pos) != ')') {
+                    return unsupported();
+                }
+                pos++;
+                return group;
+            case '[':
+                return parseCharacterClass();
+            case '.':
+                return Node.chars(DOT);
+            case '\\':
+                return parseEscape(false);
+            case '^':
+                // Only a no-op with the full match semantic at the very start
+                return pos == 1 ? null : unsupported();
+            case '$':
+                return pos == regex.length() ? null : unsupported();
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                return unsupported();
+            default:
+                return literal(c);
+            }
+        }
+
+        private Node parseQuantifier(Node atom) {
+            if (pos >= regex.length()) {
+                return atom;
+            }
+
+            Node node = new Node(NodeType.REPETITION);
+            node.children.add(atom);
+            char c = regex.charAt(pos);
+            if (c == '*') {
+                node.min = 0;
+                node.max = -1;
+            } else if (c == '+') {
+                node.min = 1;
+                node.max = -1;
+            } else if (c == '?') {
+                node.min = 0;
+                node.max = 1;
+            } else if (c == '{') {
+                int end = regex.indexOf('}', pos);
+                String[] bounds = end < 0 ? null : regex.substring(pos + 1, end).split(",", -1);
+                if (bounds == null || bounds.length > 2 || !isNumber(bounds[0])
+                        || (bounds.length == 2 && bounds[1].length() > 0 && !isNumber(bounds[1]))) {
+                    return unsupported();
+                }
+                node.min = Integer.parseInt(bounds[0]);
+                node.max = bounds.length == 1 ? node.min : bounds[1].length() == 0 ? -1 : Integer.parseInt(bounds[1]);
+                if (node.min > MAX_REPETITION || node.max > MAX_REPETITION || (node.max >= 0 && node.max < node.min)) {
+                    return unsupported();
+                }
+                pos = end;
+            } else {
+                return atom;
+            }
+            pos++;
+
+            // Lazy quantifiers match the same values, possessive ones do not
+            if (pos < regex.length() && regex.charAt(pos) == '?') {
+                pos++;
+            }
+            if (pos < regex.length() && "*+?{".indexOf(regex.charAt(pos)) >= 0) {
+                return unsupported();
+            }
+            return node;
+        }
+
+        private Node parseCharacterClass() {
+            boolean negated = pos < regex.length() && regex.charAt(pos) == '^';
+            if (negated) {
+                pos++;
+            }
+            if (pos >= regex.length() || regex.charAt(pos) == ']') {
+                return unsupported();
+            }
+
+            int[] ranges = new int[0];
+            while (supported && pos < regex.length() && regex.charAt(pos) != ']') {
+                char c = regex.charAt(pos++);
+                if (c == '[' || (c == '&' && pos < regex.length() && regex.charAt(pos) == '&')) {
+                    return unsupported();
+                }
+                // A literal '-' only at either end of the class
+                if (c == '-' && ranges.length > 0 && (pos >= regex.length() || regex.charAt(pos) != ']')) {
+                    return unsupported();
+                }
+
+                int[] member;
+                if (c == '\\') {
+                    Node escape = parseEscape(true);
+                    if (escape == null) {
+                        return null;
+                    }
+                    member = escape.ranges;
+                } else if (Character.isSurrogate(c)) {
+                    return unsupported();
+                } else {
+                    member = new int[] { c, c };
+                }
+
+                if (pos + 1 < regex.length() && regex.charAt(pos) == '-' && regex.charAt(pos + 1) != ']') {
+                    // Range, both ends must be single characters
+                    pos++;
+                    char upper = regex.charAt(pos++);
+                    if (upper == '\\') {
+                        Node escape = parseEscape(true);
+                        if (escape == null || escape.ranges.length != 2 || escape.ranges[0] != escape.ranges[1]) {
+                            return unsupported();
+                        }
+                        upper = (char) escape.ranges[0];
+                    } else if (upper == '[' || Character.isSurrogate(upper)) {
+                        return unsupported();
+                    }
+                    if (member.length != 2 || member[0] != member[1] || upper < member[0]) {
+                        return unsupported();
+                    }
+                    member = new int[] { member[0], upper };
+                }
+                ranges = union(ranges, member);
+            }
+            if (pos >= regex.length()) {
+                return unsupported();
+            }
+            pos++;
+
+            return Node.chars(negated ? complement(ranges) : ranges);
+        }
+
+        private Node parseEscape(boolean inCharacterClass) {
+            if (pos >= regex.length()) {
+                return unsupported();
+            }
+
+            char c = regex.charAt(pos++);
+            // @formatter:off
+            switch (c) {
+            case 'd': return Node.chars(DIGIT);
+            case 'D': return Node.chars(complement(DIGIT));
+            case 'w': return Node.chars(WORD);
+            case 'W': return Node.chars(complement(WORD));
+            case 's': return Node.chars(SPACE);
+            case 'S': return Node.chars(complement(SPACE));
+            case 't': return literal('\t');
+            case 'n': return literal('\n');
+            case 'r': return literal('\r');
+            case 'f': return literal('\f');
+            default:
+                // Other letters and digits are constructs (e.g. \b, \p, \1)
+                return Character.isLetterOrDigit(c) ? unsupported() : literal(c);
+            }
+            // @formatter:on
+        }
+
+        private Node literal(char c) {
+            return Character.isSurrogate(c) ? unsupported() : Node.chars(new int[] { c, c });
+        }
+
+        private Node unsupported() {
+            supported = false;
+            return null;
+        }
+
+        private static boolean isNumber(String value) {
+            return value.length() > 0 && value.length() < 4 && value.chars().allMatch(c -> c >= '0' && c <= '9');
+        }
+    }
+
+    private static class IntArrayKey {
+        private final int[] values;
+        private final int hashCode;
+
+        private IntArrayKey(int[] values) {
+            this.values = values;
+            this.hashCode = Arrays.hashCode(values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof IntArrayKey && Arrays.equals(values, ((IntArrayKey) obj).values);
+        }
+    }
+}
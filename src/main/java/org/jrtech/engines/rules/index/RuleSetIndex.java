@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.index;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.jrtech.engines.rules.model.AbstractAttribute.Owner;
+import org.jrtech.engines.rules.model.ConditionalAttribute;
+import org.jrtech.engines.rules.model.EvaluationContext;
+import org.jrtech.engines.rules.model.Rule;
+import org.jrtech.engines.rules.model.RuleCondition;
+
+/**
+ * The class <code>RuleSetIndex</code> is a discrimination index of a rule set.
+ * <br>
+ * Every condition of a rule is guarded by one of its indexable attributes (the
+ * one with the most distinct values in the rule set), so a rule can only match
+ * if the guard of at least one of its conditions accepts the actual value. A
+ * guard is either a string equality attribute (see
+ * {@link EqualityAttributeIndex}), a string prefix, suffix or contains
+ * attribute (see {@link StringPatternAttributeIndex}), a regular expression
+ * attribute (see {@link RegexAttributeIndex}) or the number or date range
+ * formed by the comparison attributes of a condition on one attribute (see
+ * {@link RangeAttributeIndex}). <br>
+ * Rules having a condition without indexable attribute, having no condition at
+ * all or overriding {@link Rule#apply(Object, Object, Map)} are always
+ * candidates. <br>
+ * The candidates are returned as a set of rule ordinals, so iterating them
+ * keeps the order of the rule set.
+ */
+public class RuleSetIndex {
+
+    private final int size;
+
+    private final BitSet unguardedRules;
+
+    private final ConditionalAttribute[] guardAttributes;
+
+    private final AttributeIndex[] attributeIndexes;
+
+    public static <T> RuleSetIndex newInstance(List<Rule<T>> ruleSet) {
+        return new RuleSetIndex(ruleSet);
+    }
+
+    protected <T> RuleSetIndex(List<Rule<T>> ruleSet) {
+        size = ruleSet.size();
+        unguardedRules = new BitSet(size);
+
+        // Pass 1: distinct values (or intervals) per index
+        Map<String, Set<String>> distinctValueCatalog = new HashMap<>();
+        for (Rule<T> rule : ruleSet) {
+            for (RuleCondition condition : rule.getConditions()) {
+                for (Guard guard : collectGuards(condition)) {
+                    Set<String> distinctValues = distinctValueCatalog.get(guard.indexKey);
+                    if (distinctValues == null) {
+                        distinctValues = new HashSet<>();
+                        distinctValueCatalog.put(guard.indexKey, distinctValues);
+                    }
+                    distinctValues.add(guard.value);
+                }
+            }
+        }
+
+        // Pass 2: one guard per condition
+        Map<String, ConditionalAttribute> guardAttributeCatalog = new LinkedHashMap<>();
+        Map<String, AttributeIndex> attributeIndexCatalog = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Rule<T> rule = ruleSet.get(i);
+            List<Guard> ruleGuards = selectGuards(rule, distinctValueCatalog);
+            if (ruleGuards == null) {
+                unguardedRules.set(i);
+                continue;
+            }
+
+            for (Guard guard : ruleGuards) {
+                AttributeIndex attributeIndex = attributeIndexCatalog.get(guard.indexKey);
+                if (attributeIndex == null) {
+                    attributeIndex = guard.attributeIndexFactory.get();
+                    attributeIndexCatalog.put(guard.indexKey, attributeIndex);
+                    guardAttributeCatalog.put(guard.indexKey, guard.attributes.get(0));
+                }
+                attributeIndex.add(guard.attributes, i);
+            }
+        }
+
+        guardAttributes = guardAttributeCatalog.values().toArray(new ConditionalAttribute[0]);
+        attributeIndexes = new AttributeIndex[guardAttributes.length];
+        int i = 0;
+        for (String indexKey : guardAttributeCatalog.keySet()) {
+            attributeIndexes[i] = attributeIndexCatalog.get(indexKey);
+            attributeIndexes[i++].build();
+        }
+    }
+
+    /**
+     * @return the ordinals of the rules which may match the given objects, or
+     *         <code>null</code> if every rule has to be tried.
+     */
+    public <S, T> BitSet getCandidates(S sourceObject, T targetObject, Map<String, Object> contextVariables) {
+        return getCandidates(sourceObject, targetObject, contextVariables, null);
+    }
+
+    /**
+     * @param evaluationContext
+     *            the context memoizing the actual values read by the index for
+     *            the rules, or <code>null</code>.
+     * @return the ordinals of the rules which may match the given objects, or
+     *         <code>null</code> if every rule has to be tried.
+     */
+    public <S, T> BitSet getCandidates(S sourceObject, T targetObject, Map<String, Object> contextVariables,
+            EvaluationContext evaluationContext) {
+        if (sourceObject == null || targetObject == null || guardAttributes.length == 0) {
+            return null;
+        }
+
+        BitSet candidates = (BitSet) unguardedRules.clone();
+        for (int i = 0; i < guardAttributes.length; i++) {
+            attributeIndexes[i].collect(guardAttributes[i].readActualValue(sourceObject, targetObject,
+                    contextVariables, evaluationContext), candidates);
+        }
+
+        return candidates;
+    }
+
+    /**
+     * Collects the candidates of several facts like
+     * {@link #getCandidates(Object, Object, Map, EvaluationContext)}, probing
+     * one attribute index after the other for all the facts.
+     *
+     * @param evaluationContexts
+     *            the context of each fact, or <code>null</code>.
+     * @return the candidates of each fact, an element being <code>null</code>
+     *         if every rule has to be tried for this fact.
+     */
+    public BitSet[] getCandidates(Object[] sourceObjects, Object[] targetObjects,
+            Map<String, Object> contextVariables, EvaluationContext[] evaluationContexts) {
+        BitSet[] candidates = new BitSet[sourceObjects.length];
+        if (guardAttributes.length == 0) {
+            return candidates;
+        }
+
+        for (int f = 0; f < sourceObjects.length; f++) {
+            if (sourceObjects[f] != null && targetObjects[f] != null) {
+                candidates[f] = (BitSet) unguardedRules.clone();
+            }
+        }
+        for (int i = 0; i < guardAttributes.length; i++) {
+            for (int f = 0; f < sourceObjects.length; f++) {
+                if (candidates[f] != null) {
+                    attributeIndexes[i].collect(guardAttributes[i].readActualValue(sourceObjects[f], targetObjects[f],
+                            contextVariables, evaluationContexts == null ? null : evaluationContexts[f]),
+                            candidates[f]);
+                }
+            }
+        }
+
+        return candidates;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of rules which are tried on every application.
+     */
+    public int getUnguardedRuleCount() {
+        return unguardedRules.cardinality();
+    }
+
+    @Override
+    public String toString() {
+        return "RuleSetIndex[" + size + " rule(s), " + guardAttributes.length + " attribute index(es), "
+                + getUnguardedRuleCount() + " unguarded rule(s)]";
+    }
+
+    /**
+     * @return <code>true</code> if the attribute compares the plain actual
+     *         value of a named attribute to a fixed expected value.
+     */
+    static boolean isPlainAttribute(ConditionalAttribute attribute) {
+        if (attribute.isNegated() || attribute.getValue() == null || attribute.isVariableValue()
+                || attribute.getReader() != null) {
+            return false;
+        }
+        // These values also accept a missing actual value
+        if ("".equals(attribute.getValue()) || "[NULL]".equalsIgnoreCase(attribute.getValue())) {
+            return false;
+        }
+
+        return !ConditionalAttribute.KEYWORD_SELF.equals(attribute.getName())
+                && !ConditionalAttribute.KEYWORD_SOURCE_OBJECT.equals(attribute.getName())
+                && !ConditionalAttribute.KEYWORD_TARGET_OBJECT.equals(attribute.getName());
+    }
+
+    /**
+     * @return the guard of every condition of the rule, or <code>null</code>
+     *         if the rule cannot be guarded.
+     */
+    private static <T> List<Guard> selectGuards(Rule<T> rule, Map<String, Set<String>> distinctValueCatalog) {
+        if (rule.getConditions().isEmpty() || !rule.hasDefaultApply()) {
+            return null;
+        }
+
+        List<Guard> ruleGuards = new ArrayList<>();
+        for (RuleCondition condition : rule.getConditions()) {
+            Guard selectedGuard = null;
+            int guardCardinality = 0;
+            for (Guard guard : collectGuards(condition)) {
+                int cardinality = distinctValueCatalog.get(guard.indexKey).size();
+                if (cardinality > guardCardinality) {
+                    selectedGuard = guard;
+                    guardCardinality = cardinality;
+                }
+            }
+
+            if (selectedGuard == null) {
+                return null;
+            }
+            ruleGuards.add(selectedGuard);
+        }
+
+        return ruleGuards;
+    }
+
+    /**
+     * @return the possible guards of the condition: every string equality,
+     *         prefix, suffix, contains or regular expression attribute, and
+     *         the conjunction of the number or date comparison attributes per
+     *         attribute (e.g. a <code>since</code> and <code>before</code>
+     *         range).
+     */
+    private static List<Guard> collectGuards(RuleCondition condition) {
+        List<Guard> guards = new ArrayList<>();
+        Map<String, Guard> rangeGuardCatalog = new LinkedHashMap<>();
+        for (ConditionalAttribute attribute : condition.getAttributes()) {
+            if (EqualityAttributeIndex.isIndexable(attribute)) {
+                guards.add(new Guard("EQ:" + formulateIndexKey(attribute), () -> new EqualityAttributeIndex(),
+                        attribute, attribute.getValue()));
+                continue;
+            }
+
+            StringPatternAttributeIndex.PatternType patternType = StringPatternAttributeIndex
+                    .getPatternType(attribute);
+            if (patternType != null) {
+                guards.add(new Guard(patternType + ":" + formulateIndexKey(attribute),
+                        () -> new StringPatternAttributeIndex(patternType), attribute, attribute.getValue()));
+                continue;
+            }
+
+            if (RegexAttributeIndex.isIndexable(attribute)) {
+                guards.add(new Guard("REGEX:" + formulateIndexKey(attribute), () -> new RegexAttributeIndex(),
+                        attribute, attribute.getValue()));
+                continue;
+            }
+
+            RangeAttributeIndex.RangeType rangeType = RangeAttributeIndex.getRangeType(attribute);
+            if (rangeType == null) {
+                continue;
+            }
+            String indexKey = rangeType + ":" + formulateIndexKey(attribute);
+            String value = attribute.getOperatorFunctionObject().getName() + ":" + attribute.getValue();
+            Guard rangeGuard = rangeGuardCatalog.get(indexKey);
+            if (rangeGuard == null) {
+                rangeGuardCatalog.put(indexKey,
+                        new Guard(indexKey, () -> new RangeAttributeIndex(rangeType), attribute, value));
+            } else {
+                rangeGuard.attributes.add(attribute);
+                rangeGuard.value += "," + value;
+            }
+        }
+        guards.addAll(rangeGuardCatalog.values());
+
+        return guards;
+    }
+
+    private static String formulateIndexKey(ConditionalAttribute attribute) {
+        // Any owner but TARGET reads from the source object
+        return (Owner.TARGET.equals(attribute.getOwner()) ? Owner.TARGET : Owner.SOURCE) + ":" + attribute.getName();
+    }
+
+    private static class Guard {
+        private final String indexKey;
+        private final Supplier<AttributeIndex> attributeIndexFactory;
+        private final List<ConditionalAttribute> attributes = new ArrayList<>();
+        // The expected value(s), distinct values make a selective guard
+        private String value;
+
+        private Guard(String indexKey, Supplier<AttributeIndex> attributeIndexFactory,
+                ConditionalAttribute attribute, String value) {
+            this.indexKey = indexKey;
+            this.attributeIndexFactory = attributeIndexFactory;
+            this.attributes.add(attribute);
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.index;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+import org.jrtech.engines.rules.model.ConditionalAttribute;
+import org.jrtech.engines.rules.model.StringConditionalAttribute;
+
+/**
+ * The class <code>StringPatternAttributeIndex</code> is the trie index of the
+ * string <code>startsWith</code>, <code>endsWith</code> and
+ * <code>contains</code> attributes. <br>
+ * The prefixes are kept in a trie, the suffixes in a trie of the reversed
+ * values and the contained values in an Aho-Corasick automaton, so a single
+ * pass over the actual value finds every rule whose guard accepts it.
+ */
+public class StringPatternAttributeIndex implements AttributeIndex {
+
+    private final PatternType patternType;
+
+    private final Node root = new Node();
+
+    private int nodeCount = 1;
+
+    public StringPatternAttributeIndex(PatternType patternType) {
+        this.patternType = patternType;
+    }
+
+    /**
+     * @return the pattern type of the attribute, or <code>null</code> if the
+     *         attribute is not a plain string prefix, suffix or contains test
+     *         which can be used as a guard of this index.
+     */
+    public static PatternType getPatternType(ConditionalAttribute attribute) {
+        if (!(attribute instanceof StringConditionalAttribute) || !RuleSetIndex.isPlainAttribute(attribute)
+                || attribute.getOperatorFunctionObject() == null) {
+            return null;
+        }
+
+        String operatorFunctionName = attribute.getOperatorFunctionObject().getName();
+        if (StringConditionalAttribute.INTERNAL_FUNCTION_STARTS_WITH.equals(operatorFunctionName)) {
+            return PatternType.STARTS_WITH;
+        } else if (StringConditionalAttribute.INTERNAL_FUNCTION_ENDS_WITH.equals(operatorFunctionName)) {
+            return PatternType.ENDS_WITH;
+        } else if (StringConditionalAttribute.INTERNAL_FUNCTION_CONTAINS.equals(operatorFunctionName)) {
+            return PatternType.CONTAINS;
+        }
+
+        return null;
+    }
+
+    @Override
+    public void add(List<ConditionalAttribute> guardAttributes, int ruleOrdinal) {
+        for (ConditionalAttribute guardAttribute : guardAttributes) {
+            String value = guardAttribute.getValue();
+            boolean reversed = PatternType.ENDS_WITH.equals(patternType);
+            Node node = root;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(reversed ? value.length() - 1 - i : i);
+                Node child = node.getChild(c);
+                if (child == null) {
+                    child = node.addChild(c);
+                    nodeCount++;
+                }
+                node = child;
+            }
+            node.addRuleOrdinal(ruleOrdinal);
+        }
+    }
+
+    @Override
+    public void build() {
+        if (!PatternType.CONTAINS.equals(patternType)) {
+            return;
+        }
+
+        // Aho-Corasick: failure and output links, breadth first
+        Deque<Node> queue = new ArrayDeque<>();
+        for (int i = 0; i < root.childCount; i++) {
+            root.children[i].failure = root;
+            queue.add(root.children[i]);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            node.output = node.failure.ruleCount > 0 ? node.failure : node.failure.output;
+            for (int i = 0; i < node.childCount; i++) {
+                char c = node.labels[i];
+                Node child = node.children[i];
+                Node failure = node.failure;
+                while (failure != root && failure.getChild(c) == null) {
+                    failure = failure.failure;
+                }
+                Node failureChild = failure.getChild(c);
+                child.failure = failureChild == null ? root : failureChild;
+                queue.add(child);
+            }
+        }
+    }
+
+    @Override
+    public void collect(String actualValue, BitSet candidates) {
+        if (actualValue == null) {
+            return;
+        }
+
+        int length = actualValue.length();
+        if (PatternType.CONTAINS.equals(patternType)) {
+            Node node = root;
+            for (int i = 0; i < length; i++) {
+                char c = actualValue.charAt(i);
+                Node child = node.getChild(c);
+                while (child == null && node != root) {
+                    node = node.failure;
+                    child = node.getChild(c);
+                }
+                node = child == null ? root : child;
+                for (Node output = node.ruleCount > 0 ? node : node.output; output != null; output = output.output) {
+                    output.collect(candidates);
+                }
+            }
+            return;
+        }
+
+        // Every node on the path of the actual value is a prefix (or suffix)
+        boolean reversed = PatternType.ENDS_WITH.equals(patternType);
+        Node node = root;
+        for (int i = 0; i < length && node != null; i++) {
+            node = node.getChild(actualValue.charAt(reversed ? length - 1 - i : i));
+            if (node != null) {
+                node.collect(candidates);
+            }
+        }
+    }
+
+    public PatternType getPatternType() {
+        return patternType;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public static enum PatternType {
+        STARTS_WITH, ENDS_WITH, CONTAINS;
+    }
+
+    private static class Node {
+        // Sorted labels of the children, looked up by binary search
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount = 0;
+        private int[] ruleOrdinals = null;
+        private int ruleCount = 0;
+        private Node failure;
+        private Node output;
+
+        private Node getChild(char c) {
+            int index = Arrays.binarySearch(labels, 0, childCount, c);
+            return index < 0 ? null : children[index];
+        }
+
+        private Node addChild(char c) {
+            int index = -Arrays.binarySearch(labels, 0, childCount, c) - 1;
+            if (childCount == labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(2, childCount * 2));
+                children = Arrays.copyOf(children, labels.length);
+            }
+            System.arraycopy(labels, index, labels, index + 1, childCount - index);
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            Node child = new Node();
+            labels[index] = c;
+            children[index] = child;
+            childCount++;
+
+            return child;
+        }
+
+        private void addRuleOrdinal(int ruleOrdinal) {
+            if (ruleOrdinals == null) {
+                ruleOrdinals = new int[1];
+            } else if (ruleCount == ruleOrdinals.length) {
+                ruleOrdinals = Arrays.copyOf(ruleOrdinals, ruleCount * 2);
+            }
+            ruleOrdinals[ruleCount++] = ruleOrdinal;
+        }
+
+        private void collect(BitSet candidates) {
+            for (int i = 0; i < ruleCount; i++) {
+                candidates.set(ruleOrdinals[i]);
+            }
+        }
+    }
+}
@@ -17,15 +17,18 @@
 package org.jrtech.engines.rules.model;
 
 import java.io.Serializable;
-import java.util.Calendar;
+import java.lang.reflect.InvocationTargetException;
 import java.util.Map;
 
-import javax.xml.bind.DatatypeConverter;
-
 import org.apache.commons.beanutils.BeanUtils;
+import org.apache.commons.beanutils.ConvertUtils;
 import org.jrtech.common.utils.InvalidMethodPathExpression;
 import org.jrtech.common.utils.ObjectPropertyUtil;
+import org.jrtech.engines.rules.AttributeAccessor;
+import org.jrtech.engines.rules.AttributeAccessorRegistry;
+import org.jrtech.engines.rules.ContextualObjectAttributeReader;
 import org.jrtech.engines.rules.ObjectAttributeReader;
+import org.jrtech.engines.rules.SystemVariableProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,6 +52,8 @@ public abstract class AbstractAttribute implements Serializable {
 
 	private static Logger log = LoggerFactory.getLogger(AbstractAttribute.class);
 
+	private static final VariableTemplate NO_VARIABLE_TEMPLATE = VariableTemplate.compile("", Owner.SOURCE);
+
 	private String name;
 
 	private String value;
@@ -57,6 +62,10 @@ public abstract class AbstractAttribute implements Serializable {
 
 	private ObjectAttributeReader<Object, Object> reader = null;
 
+	private transient ContextualObjectAttributeReader<Object, Object> contextualReader = null;
+
+	private transient VariableTemplate variableTemplate = null;
+
 	private String readerClass;
 
 	private ObjectPropertyUtil objPropUtil = null;
@@ -107,6 +116,19 @@ public abstract class AbstractAttribute implements Serializable {
 		return null;
 	}
 
+	/**
+	 * @return the reader as a {@link ContextualObjectAttributeReader}, see
+	 *         {@link ContextualObjectAttributeReader#adapt(ObjectAttributeReader)},
+	 *         or <code>null</code> if there is no reader.
+	 */
+	public ContextualObjectAttributeReader<Object, Object> getContextualReader() {
+		if (contextualReader == null) {
+			contextualReader = ContextualObjectAttributeReader.adapt(getReader());
+		}
+
+		return contextualReader;
+	}
+
 	public String getReaderClass() {
 		return readerClass;
 	}
@@ -142,6 +164,18 @@ public abstract class AbstractAttribute implements Serializable {
 				return mapWorkingObject.get(attributeName);
 			}
 		} else {
+			AttributeAccessor accessor = workingObject == null ? null
+			        : AttributeAccessorRegistry.getInstance().getAccessor(workingObject.getClass(), attributeName);
+			if (accessor != null) {
+				try {
+					return accessor.read(workingObject);
+				} catch (Error e) {
+					throw e;
+				} catch (Throwable t) {
+					throw new RuntimeException("Fail to read attribute: '" + attributeName + "' of object type: '"
+					        + workingObject.getClass().getName() + "'.", t);
+				}
+			}
 			try {
 				return getObjectPropertyUtil().getPropertyValue(workingObject, attributeName,
 				        ObjectPropertyUtil.RETRIEVING_METHOD_DEFAULT);
@@ -162,52 +196,89 @@ public abstract class AbstractAttribute implements Serializable {
 		return objPropUtil;
 	}
 
+	/**
+	 * @return the compiled template of the value, or <code>null</code> if the
+	 *         value is not a variable value, see {@link #isVariableValue()}.
+	 */
+	public VariableTemplate getVariableTemplate() {
+		VariableTemplate template = variableTemplate;
+		if (template == null) {
+			template = isVariableValue() ? VariableTemplate.compile(value, getDefaultOwner()) : NO_VARIABLE_TEMPLATE;
+			variableTemplate = template;
+		}
+
+		return template == NO_VARIABLE_TEMPLATE ? null : template;
+	}
+
 	protected <S, T> String resolveVariableValue(S sourceObject, T targetObject, Map<String, Object> contextVariables,
 	        String value) {
-		String resolvedValue = value;
-
-		int startPos = resolvedValue.indexOf("${");
-		while (startPos >= 0) {
-			int endPos = resolvedValue.indexOf("}", startPos + 2);
-			String variableName = resolvedValue.substring(startPos + 2, endPos);
-			String scope = null;
-			if (variableName.indexOf('@') >= 0) {
-				scope = variableName.substring(variableName.indexOf('@') + 1);
-				variableName = variableName.substring(0, variableName.indexOf('@'));
-			}
+		VariableTemplate template = value.equals(this.value) ? getVariableTemplate() : null;
+		if (template == null) {
+			template = VariableTemplate.compile(value, getDefaultOwner());
+		}
 
-			String variableValue = null;
-			Owner variableOwner = Owner.fromString(scope, getDefaultOwner());
-			if (Owner.CONTEXT.equals(variableOwner)) {
-				if (contextVariables == null || contextVariables.isEmpty()) {
-					variableValue = "";
-				} else {
-					variableValue = "" + contextVariables.get(variableName);
-				}
-			} else if (Owner.SYSTEM.equals(variableOwner)) {
-				if (INTERNAL_VARIABLE_SYSTEM_NOW.equalsIgnoreCase(variableName)) {
-					variableValue = DatatypeConverter.printDateTime(Calendar.getInstance());
-				} else if (INTERNAL_VARIABLE_SYSTEM_TODAY.equalsIgnoreCase(variableName)) {
-					variableValue = DatatypeConverter.printDate(Calendar.getInstance());
-				} else {
-					variableValue = "";
-				}
-			} else if (variableOwner == null) {
-				// Default from target
-				try {
-					variableValue = BeanUtils.getProperty(targetObject, variableName);
-				} catch (Exception e) {
-					throw new RuntimeException("Fail to resolve variable: '" + variableName + "' on target object.", e);
-				}
-			} else {
-				variableValue = (String) retrieveObjectValue(sourceObject, targetObject, variableName, variableOwner);
+		return template.render(this, sourceObject, targetObject, contextVariables);
+	}
+
+	/**
+	 * Resolves the variable value of this attribute, see
+	 * {@link VariableTemplate#resolve(AbstractAttribute, Object, Object, Map)}.
+	 */
+	protected <S, T> Object resolveVariableObject(S sourceObject, T targetObject, Map<String, Object> contextVariables) {
+		VariableTemplate template = getVariableTemplate();
+		if (template == null) {
+			return value;
+		}
+
+		return template.resolve(this, sourceObject, targetObject, contextVariables);
+	}
+
+	/**
+	 * @param typed
+	 *            <code>false</code> to resolve the variable as string, as
+	 *            rendered into a template.
+	 */
+	<S, T> Object resolveVariable(Owner variableOwner, String variableName, S sourceObject, T targetObject,
+	        Map<String, Object> contextVariables, boolean typed) {
+		if (Owner.CONTEXT.equals(variableOwner)) {
+			if (contextVariables == null || contextVariables.isEmpty()) {
+				return "";
 			}
-			resolvedValue = resolvedValue.substring(0, startPos) + (variableValue == null ? "" : escapeResolvedValue(variableValue))
-			        + resolvedValue.substring(endPos + 1);
+			Object variableValue = contextVariables.get(variableName);
+			return typed ? variableValue : "" + variableValue;
+		} else if (Owner.SYSTEM.equals(variableOwner)) {
+			return SystemVariableProvider.getDefault().getValue(variableName);
+		} else if (variableOwner == null) {
+			// Default from target
+			try {
+				return readTargetProperty(targetObject, variableName);
+			} catch (Exception e) {
+				throw new RuntimeException("Fail to resolve variable: '" + variableName + "' on target object.", e);
+			}
+		}
 
-			startPos = resolvedValue.indexOf("${", endPos + 1);
+		Object variableValue = retrieveObjectValue(sourceObject, targetObject, variableName, variableOwner);
+		return typed ? variableValue : (String) variableValue;
+	}
+
+	private <T> String readTargetProperty(T targetObject, String propertyName) throws Exception {
+		AttributeAccessor accessor = targetObject == null ? null
+		        : AttributeAccessorRegistry.getInstance().getAccessor(targetObject.getClass(), propertyName);
+		if (accessor != null) {
+			Object propertyValue;
+			try {
+				propertyValue = accessor.read(targetObject);
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable t) {
+				// Same failure as of BeanUtils
+				throw new InvocationTargetException(t);
+			}
+			// Same conversion as BeanUtils
+			return ConvertUtils.convert(propertyValue);
 		}
-		return resolvedValue;
+
+		return BeanUtils.getProperty(targetObject, propertyName);
 	}
 
 	protected String escapeResolvedValue(String resolvedValue) {
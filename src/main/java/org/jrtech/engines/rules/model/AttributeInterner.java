@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jrtech.engines.rules.model.AbstractAttribute.Owner;
+
+/**
+ * The class <code>AttributeInterner</code> shares identical conditional and
+ * goal attributes of a rule set as flyweights. <br>
+ * Every distinct conditional attribute gets a dense condition id (see
+ * {@link ConditionalAttribute#getConditionId()}), and every distinct actual
+ * value source a dense value slot id, so the result of a shared condition can
+ * be kept per evaluated object instead of per rule (see
+ * {@link EvaluationContext}). Interned
+ * attributes are shared by many rules and must not be modified afterwards.
+ * <br>
+ * Only the attribute types of the engine are interned; other subclasses may
+ * carry state which is not part of the key.
+ */
+public class AttributeInterner {
+
+    // @formatter:off
+    private static final Set<Class<?>> INTERNABLE_CONDITIONAL_ATTRIBUTE_TYPES = new HashSet<Class<?>>(Arrays.asList(
+            ConditionalAttribute.class, StringConditionalAttribute.class, NumberConditionalAttribute.class,
+            BooleanConditionalAttribute.class, DateConditionalAttribute.class, DatetimeConditionalAttribute.class,
+            TimeConditionalAttribute.class));
+    // @formatter:on
+
+    private final Map<List<Object>, ConditionalAttribute> conditionalAttributeCatalog = new HashMap<>();
+
+    private final Map<List<Object>, Integer> valueSlotCatalog = new HashMap<>();
+
+    private final Map<List<Object>, GoalAttribute> goalAttributeCatalog = new HashMap<>();
+
+    public static AttributeInterner newInstance() {
+        return new AttributeInterner();
+    }
+
+    /**
+     * @return the shared instance of an identical conditional attribute, or
+     *         the given attribute if it is the first of its kind.
+     */
+    public ConditionalAttribute intern(ConditionalAttribute attribute) {
+        if (attribute == null || !INTERNABLE_CONDITIONAL_ATTRIBUTE_TYPES.contains(attribute.getClass())) {
+            return attribute;
+        }
+
+        // @formatter:off
+        List<Object> key = Arrays.<Object> asList(attribute.getClass(), attribute.getName(), attribute.getOwner(),
+                StringUtils.defaultString(attribute.getOperatorFunction()), attribute.getValue(), attribute.isNegated(),
+                StringUtils.defaultString(attribute.getReaderClass()));
+        // @formatter:on
+        ConditionalAttribute internedAttribute = conditionalAttributeCatalog.get(key);
+        if (internedAttribute == null) {
+            internedAttribute = attribute;
+            internedAttribute.setConditionId(conditionalAttributeCatalog.size());
+            conditionalAttributeCatalog.put(key, internedAttribute);
+
+            // Any owner but TARGET reads from the source object
+            List<Object> valueSlotKey = Arrays.<Object> asList(attribute.getName(),
+                    Owner.TARGET.equals(attribute.getOwner()), StringUtils.defaultString(attribute.getReaderClass()));
+            Integer valueSlotId = valueSlotCatalog.get(valueSlotKey);
+            if (valueSlotId == null) {
+                valueSlotId = valueSlotCatalog.size();
+                valueSlotCatalog.put(valueSlotKey, valueSlotId);
+            }
+            internedAttribute.setValueSlotId(valueSlotId);
+        }
+
+        return internedAttribute;
+    }
+
+    /**
+     * @return the shared instance of an identical goal attribute, or the given
+     *         attribute if it is the first of its kind.
+     */
+    public GoalAttribute intern(GoalAttribute attribute) {
+        if (attribute == null || !GoalAttribute.class.equals(attribute.getClass())) {
+            return attribute;
+        }
+
+        // @formatter:off
+        List<Object> key = Arrays.<Object> asList(attribute.getName(), attribute.getOwner(), attribute.getValue(),
+                attribute.getMethod(), StringUtils.defaultString(attribute.getReaderClass()),
+                StringUtils.defaultString(attribute.getWriterClass()),
+                attribute.getParameterList());
+        // @formatter:on
+        GoalAttribute internedAttribute = goalAttributeCatalog.get(key);
+        if (internedAttribute == null) {
+            internedAttribute = attribute;
+            goalAttributeCatalog.put(key, internedAttribute);
+        }
+
+        return internedAttribute;
+    }
+
+    /**
+     * @return the number of distinct conditional attributes, i.e. the upper
+     *         bound (exclusive) of the condition ids.
+     */
+    public int getConditionCount() {
+        return conditionalAttributeCatalog.size();
+    }
+
+    /**
+     * @return the number of distinct actual value sources, i.e. the upper
+     *         bound (exclusive) of the value slot ids.
+     */
+    public int getValueSlotCount() {
+        return valueSlotCatalog.size();
+    }
+
+    public int getGoalCount() {
+        return goalAttributeCatalog.size();
+    }
+}
@@ -18,11 +18,11 @@ package org.jrtech.engines.rules.model;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import org.jrtech.engines.rules.function.BooleanEqualsFunctionImpl;
 import org.jrtech.common.utils.model.LabelDefinition;
 import org.jrtech.engines.rules.function.InternalFunctionDefinition;
+import org.jrtech.engines.rules.function.ValueMatcher;
 
 public class BooleanConditionalAttribute extends ConditionalAttribute {
     
@@ -59,33 +59,8 @@ public class BooleanConditionalAttribute extends ConditionalAttribute {
     }
 
     @Override
-    public <S, T> boolean match(S sourceObject, T targetObject, Map<String, Object> contextVariables) {
-        ActualValueResolution avr = resolveActualValue(sourceObject, targetObject, contextVariables);
-        if (avr == null) {
-            return false;
-        }
-
-        String expectedValue = getValue();
-
-        Boolean result = new Boolean(false);
-        boolean hasValidOperator = false;
-        if (getOperatorFunctionObject() != null) {
-            try {
-                result = getOperatorFunctionObject().getImplementation().match(avr.getActualValue(), expectedValue);
-                hasValidOperator = true;
-            } catch (Exception e) {
-                // Fall back to old way
-                hasValidOperator = false;
-                result = null;
-            }
-        }
-
-        if (!hasValidOperator) {
-            // Primitive string equals
-            result = avr.getActualValue().equals(expectedValue);
-        }
-
-        return result == null ? false : (isNegated() ? !result : result);
+    protected boolean matchActualValue(String actualValue, ValueMatcher expectedValueMatcher) {
+        return matchActualValueOrEquals(actualValue, expectedValueMatcher);
     }
 
     @Override
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jrtech.engines.rules.function.ValueMatcher;
+import org.jrtech.engines.rules.model.AbstractAttribute.Owner;
+
+/**
+ * The class <code>ColumnarEvaluation</code> matches the conditions of rules on
+ * a batch of facts column by column instead of fact by fact. <br>
+ * The actual values of the source attributes (see
+ * {@link org.jrtech.engines.rules.ObjectRuleUtil#collectUsedAttributes(RuleCondition)})
+ * are projected once into dictionary encoded columns. Every conditional
+ * attribute is then matched once per distinct actual value, its result being
+ * spread over the facts as a bitmap, so the AND of the attributes of a
+ * condition and the OR of the conditions of a rule become bitmap
+ * intersections and unions. Attributes depending on more than a source value
+ * (target attributes, readers, keywords, custom matches) are matched fact by
+ * fact on the remaining candidates only. <br>
+ * The columns are not refreshed, so the source objects must not be modified
+ * (e.g. by goals) while the evaluation is in use. An instance is not thread
+ * safe.
+ */
+public class ColumnarEvaluation {
+
+    private final Object[] sourceObjects;
+
+    private final Object[] targetObjects;
+
+    private final Map<String, Object> contextVariables;
+
+    /** The facts having a source and a target object, the others never match. */
+    private final BitSet presentFacts = new BitSet();
+
+    private final Map<String, Column> columnCatalog = new HashMap<>();
+
+    private final Map<ConditionalAttribute, BitSet> attributeResultCatalog = new IdentityHashMap<>();
+
+    public ColumnarEvaluation(Object[] sourceObjects, Object[] targetObjects, Map<String, Object> contextVariables) {
+        if (sourceObjects == null || targetObjects == null || sourceObjects.length != targetObjects.length) {
+            throw new IllegalArgumentException("Invalid target object count: ["
+                    + (targetObjects == null ? "NULL" : targetObjects.length) + "].");
+        }
+        this.sourceObjects = sourceObjects;
+        this.targetObjects = targetObjects;
+        this.contextVariables = contextVariables;
+        for (int f = 0; f < sourceObjects.length; f++) {
+            if (sourceObjects[f] != null && targetObjects[f] != null) {
+                presentFacts.set(f);
+            }
+        }
+    }
+
+    /**
+     * Matches the conditions of the rule like
+     * {@link Rule#apply(Object, Object, Map)} does, without applying its
+     * goals.
+     *
+     * @param facts
+     *            the indexes of the facts to match.
+     * @return the indexes of the given facts matching one of the conditions of
+     *         the rule, empty if the rule has no condition.
+     */
+    public BitSet match(Rule<?> rule, BitSet facts) {
+        BitSet matchedFacts = new BitSet();
+        BitSet remainingFacts = (BitSet) facts.clone();
+        remainingFacts.and(presentFacts);
+        for (RuleCondition condition : rule.getConditions()) {
+            if (remainingFacts.isEmpty()) {
+                break;
+            }
+            BitSet conditionFacts = match(condition, remainingFacts);
+            matchedFacts.or(conditionFacts);
+            remainingFacts.andNot(conditionFacts);
+        }
+
+        return matchedFacts;
+    }
+
+    private BitSet match(RuleCondition condition, BitSet facts) {
+        BitSet conditionFacts = (BitSet) facts.clone();
+        List<ConditionalAttribute> factAttributes = null;
+        for (ConditionalAttribute attribute : condition.getAttributes()) {
+            if (isColumnar(attribute)) {
+                conditionFacts.and(getAttributeResult(attribute));
+                if (conditionFacts.isEmpty()) {
+                    return conditionFacts;
+                }
+            } else {
+                if (factAttributes == null) {
+                    factAttributes = new ArrayList<>();
+                }
+                factAttributes.add(attribute);
+            }
+        }
+
+        if (factAttributes != null) {
+            for (int f = conditionFacts.nextSetBit(0); f >= 0; f = conditionFacts.nextSetBit(f + 1)) {
+                for (ConditionalAttribute attribute : factAttributes) {
+                    if (!attribute.match(sourceObjects[f], targetObjects[f], contextVariables)) {
+                        conditionFacts.clear(f);
+                        break;
+                    }
+                }
+            }
+        }
+
+        return conditionFacts;
+    }
+
+    /**
+     * Applies the goals of the rule on the given fact, e.g. after the fact
+     * matched the rule, see {@link #match(Rule, BitSet)}.
+     */
+    public <T> void applyGoals(Rule<T> rule, int fact) throws GoalApplicationException {
+        @SuppressWarnings("unchecked")
+        T targetObject = (T) targetObjects[fact];
+        rule.applyGoals(sourceObjects[fact], targetObject, contextVariables);
+    }
+
+    public int size() {
+        return sourceObjects.length;
+    }
+
+    /**
+     * @return the number of projected columns.
+     */
+    public int getColumnCount() {
+        return columnCatalog.size();
+    }
+
+    /**
+     * @return <code>true</code> if the result of the attribute only depends on
+     *         a source value.
+     */
+    private static boolean isColumnar(ConditionalAttribute attribute) {
+        return !attribute.hasCustomMatch() && attribute.getReader() == null
+                && !Owner.TARGET.equals(attribute.getOwner())
+                && !AbstractAttribute.KEYWORD_SELF.equals(attribute.getName())
+                && !AbstractAttribute.KEYWORD_SOURCE_OBJECT.equals(attribute.getName())
+                && !AbstractAttribute.KEYWORD_TARGET_OBJECT.equals(attribute.getName());
+    }
+
+    private BitSet getAttributeResult(ConditionalAttribute attribute) {
+        BitSet attributeResult = attributeResultCatalog.get(attribute);
+        if (attributeResult == null) {
+            Column column = getColumn(attribute);
+            ValueMatcher matcher = attribute.getExpectedValueMatcher();
+            boolean[] valueResults = new boolean[column.dictionary.length];
+            for (int v = 0; v < valueResults.length; v++) {
+                valueResults[v] = attribute.matchActualValue(column.dictionary[v], matcher);
+            }
+
+            attributeResult = new BitSet(sourceObjects.length);
+            for (int f = presentFacts.nextSetBit(0); f >= 0; f = presentFacts.nextSetBit(f + 1)) {
+                if (valueResults[column.codes[f]]) {
+                    attributeResult.set(f);
+                }
+            }
+            attributeResultCatalog.put(attribute, attributeResult);
+        }
+
+        return attributeResult;
+    }
+
+    private Column getColumn(ConditionalAttribute attribute) {
+        Column column = columnCatalog.get(attribute.getName());
+        if (column == null) {
+            Map<String, Integer> codeCatalog = new HashMap<>();
+            List<String> dictionary = new ArrayList<>();
+            int[] codes = new int[sourceObjects.length];
+            for (int f = presentFacts.nextSetBit(0); f >= 0; f = presentFacts.nextSetBit(f + 1)) {
+                String actualValue = attribute.readActualValue(sourceObjects[f], targetObjects[f], contextVariables);
+                Integer code = codeCatalog.get(actualValue);
+                if (code == null) {
+                    code = dictionary.size();
+                    codeCatalog.put(actualValue, code);
+                    dictionary.add(actualValue);
+                }
+                codes[f] = code;
+            }
+            column = new Column(dictionary.toArray(new String[dictionary.size()]), codes);
+            columnCatalog.put(attribute.getName(), column);
+        }
+
+        return column;
+    }
+
+    /** The distinct actual values of a source attribute and the value code of each fact. */
+    private static final class Column {
+        private final String[] dictionary;
+
+        private final int[] codes;
+
+        private Column(String[] dictionary, int[] codes) {
+            this.dictionary = dictionary;
+            this.codes = codes;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.model;
+
+import java.util.Map;
+
+/**
+ * The interface <code>ConditionPredicate</code> is the compiled form of a
+ * {@link ConditionalAttribute}, a {@link RuleCondition} or a whole
+ * {@link Rule}, see {@link ConditionalAttribute#compile()},
+ * {@link RuleCondition#compile()} and {@link Rule#compile()}.
+ */
+public interface ConditionPredicate {
+
+    /**
+     * @param evaluationContext
+     *            the context memoizing the results of the current evaluation,
+     *            or <code>null</code>.
+     */
+    public boolean test(Object sourceObject, Object targetObject, Map<String, Object> contextVariables,
+            EvaluationContext evaluationContext);
+
+    public default boolean test(Object sourceObject, Object targetObject, Map<String, Object> contextVariables) {
+        return test(sourceObject, targetObject, contextVariables, null);
+    }
+}
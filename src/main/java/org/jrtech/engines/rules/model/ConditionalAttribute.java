@@ -21,11 +21,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.jrtech.engines.rules.function.InternalFunctionDefinition;
-import org.jrtech.engines.rules.ContextAwareObjectAttributeReader;
-import org.jrtech.engines.rules.ObjectAttributeReader;
+import org.jrtech.engines.rules.function.ValueMatcher;
+import org.jrtech.engines.rules.ContextualObjectAttributeReader;
 
 public class ConditionalAttribute extends AbstractAttribute {
 
@@ -38,12 +39,20 @@ public class ConditionalAttribute extends AbstractAttribute {
 
     protected static final ConcurrentSkipListMap<String, InternalFunctionDefinition> INTERNAL_FUNCTIONS_BY_NAME = new ConcurrentSkipListMap<>();
 
+    private static final Map<Class<?>, Boolean> CUSTOM_MATCH_CATALOG = new ConcurrentHashMap<>();
+
     private boolean negate = false;
 
     private String operatorFunction = "";
 
     private transient InternalFunctionDefinition operatorFunctionObject = null;
 
+    private transient ValueMatcher expectedValueMatcher = null;
+
+    private int conditionId = -1;
+
+    private int valueSlotId = -1;
+
     public ConditionalAttribute(String name, String value) {
         this(name, value, false);
     }
@@ -63,6 +72,32 @@ public class ConditionalAttribute extends AbstractAttribute {
         this.operatorFunction = operatorFunction;
     }
 
+    /**
+     * @return the dense id of this attribute within its rule set, or
+     *         <code>-1</code> if it has not been interned, see
+     *         {@link AttributeInterner}.
+     */
+    public int getConditionId() {
+        return conditionId;
+    }
+
+    void setConditionId(int conditionId) {
+        this.conditionId = conditionId;
+    }
+
+    /**
+     * @return the dense id of the actual value source (name, owner, reader) of
+     *         this attribute within its rule set, or <code>-1</code> if it has
+     *         not been interned, see {@link AttributeInterner}.
+     */
+    public int getValueSlotId() {
+        return valueSlotId;
+    }
+
+    void setValueSlotId(int valueSlotId) {
+        this.valueSlotId = valueSlotId;
+    }
+
     public boolean isNegated() {
         return negate;
     }
@@ -73,36 +108,215 @@ public class ConditionalAttribute extends AbstractAttribute {
     }
 
     public <S, T> boolean match(S sourceObject, T targetObject, Map<String, Object> contextVariables) {
-        ActualValueResolution avr = resolveActualValue(sourceObject, targetObject, contextVariables);
-        if (avr == null) {
+        if (sourceObject == null || targetObject == null) {
             return false;
         }
-        
-        if (avr.getActualValue() == null) {
+
+        return matchActualValue(readActualValue(sourceObject, targetObject, contextVariables, null),
+                getExpectedValueMatcher());
+    }
+
+    /**
+     * Matches like {@link #match(Object, Object, Map)}, using and filling the
+     * memoized results of the evaluation context.
+     *
+     * @param evaluationContext
+     *            the context of the current evaluation, or <code>null</code>.
+     */
+    public <S, T> boolean match(S sourceObject, T targetObject, Map<String, Object> contextVariables,
+            EvaluationContext evaluationContext) {
+        if (evaluationContext == null) {
+            return match(sourceObject, targetObject, contextVariables);
+        }
+        if (evaluationContext.hasConditionResult(conditionId)) {
+            return evaluationContext.getConditionResult(conditionId);
+        }
+
+        boolean result;
+        if (hasCustomMatch()) {
+            result = match(sourceObject, targetObject, contextVariables);
+        } else if (sourceObject == null || targetObject == null) {
+            result = false;
+        } else {
+            result = matchActualValue(readActualValue(sourceObject, targetObject, contextVariables, evaluationContext),
+                    getExpectedValueMatcher());
+        }
+        evaluationContext.setConditionResult(conditionId, result);
+
+        return result;
+    }
+
+    /**
+     * Compiles this attribute into a predicate with the operator function
+     * already bound to the expected value. Attributes which can only be
+     * resolved through {@link #match(Object, Object, Map)} (keywords, readers)
+     * are wrapped as they are.
+     */
+    public ConditionPredicate compile() {
+        final ValueMatcher matcher = getExpectedValueMatcher();
+        if (hasCustomMatch() || KEYWORD_SELF.equals(getName()) || KEYWORD_SOURCE_OBJECT.equals(getName())
+                || KEYWORD_TARGET_OBJECT.equals(getName()) || getReader() != null) {
+            return (Object sourceObject, Object targetObject, Map<String, Object> contextVariables,
+                    EvaluationContext evaluationContext) -> match(sourceObject, targetObject, contextVariables,
+                            evaluationContext);
+        }
+
+        final String attributeName = getName();
+        final Owner attributeOwner = getOwner();
+        final boolean targetOwned = Owner.TARGET.equals(attributeOwner);
+        final int attributeConditionId = conditionId;
+        final int attributeValueSlotId = valueSlotId;
+        return (Object sourceObject, Object targetObject, Map<String, Object> contextVariables,
+                EvaluationContext evaluationContext) -> {
+            if (evaluationContext != null && evaluationContext.hasConditionResult(attributeConditionId)) {
+                return evaluationContext.getConditionResult(attributeConditionId);
+            }
+            if (sourceObject == null || targetObject == null) {
+                return false;
+            }
+
+            String actualValue;
+            if (evaluationContext != null && evaluationContext.hasActualValue(attributeValueSlotId)) {
+                actualValue = evaluationContext.getActualValue(attributeValueSlotId);
+            } else {
+                Object workingObject = targetOwned ? targetObject : sourceObject;
+                Object objectValue = workingObject instanceof Map ? ((Map<?, ?>) workingObject).get(attributeName)
+                        : retrieveObjectValue(sourceObject, targetObject, attributeName, attributeOwner);
+                actualValue = toActualValue(objectValue);
+                if (evaluationContext != null) {
+                    evaluationContext.setActualValue(attributeValueSlotId, actualValue);
+                }
+            }
+
+            boolean result = matchActualValue(actualValue, matcher);
+            if (evaluationContext != null) {
+                evaluationContext.setConditionResult(attributeConditionId, result);
+            }
+
+            return result;
+        };
+    }
+
+    /**
+     * Reads the actual value of this attribute the same way
+     * {@link #match(Object, Object, Map)} does.
+     *
+     * @return the actual value, or <code>null</code> if it is not available.
+     */
+    public <S, T> String readActualValue(S sourceObject, T targetObject, Map<String, Object> contextVariables) {
+        return readActualValue(sourceObject, targetObject, contextVariables, null);
+    }
+
+    /**
+     * Reads the actual value like {@link #readActualValue(Object, Object, Map)},
+     * using and filling the memoized values of the evaluation context.
+     */
+    public <S, T> String readActualValue(S sourceObject, T targetObject, Map<String, Object> contextVariables,
+            EvaluationContext evaluationContext) {
+        if (sourceObject == null || targetObject == null) {
+            return null;
+        }
+        if (evaluationContext == null) {
+            return readObjectActualValue(sourceObject, targetObject, contextVariables);
+        }
+        if (evaluationContext.hasActualValue(valueSlotId)) {
+            return evaluationContext.getActualValue(valueSlotId);
+        }
+
+        String actualValue = readObjectActualValue(sourceObject, targetObject, contextVariables);
+        evaluationContext.setActualValue(valueSlotId, actualValue);
+
+        return actualValue;
+    }
+
+    private <S, T> String readObjectActualValue(S sourceObject, T targetObject, Map<String, Object> contextVariables) {
+
+        Object objectValue = null;
+        if (KEYWORD_SELF.equals(getName())) {
+            objectValue = sourceObject;
+        } else if (KEYWORD_SOURCE_OBJECT.equals(getName())) {
+            objectValue = sourceObject;
+        } else if (KEYWORD_TARGET_OBJECT.equals(getName())) {
+            objectValue = targetObject;
+        } else {
+            objectValue = retrieveObjectValue(sourceObject, targetObject, getName(), getOwner());
+        }
+
+        ContextualObjectAttributeReader<Object, Object> reader = getContextualReader();
+        if (reader != null) {
+            Object readValue = reader.read(objectValue,
+                    contextVariables == null ? Collections.<String, Object> emptyMap() : contextVariables);
+            return readValue instanceof String ? (String) readValue : "" + readValue;
+        }
+
+        return toActualValue(objectValue);
+    }
+
+    /**
+     * @return <code>true</code> if the class of this attribute overrides
+     *         {@link #match(Object, Object, Map)}, which is then used as it is.
+     */
+    boolean hasCustomMatch() {
+        Boolean customMatch = CUSTOM_MATCH_CATALOG.get(getClass());
+        if (customMatch == null) {
+            try {
+                customMatch = !ConditionalAttribute.class.equals(
+                        getClass().getMethod("match", Object.class, Object.class, Map.class).getDeclaringClass());
+            } catch (NoSuchMethodException e) {
+                customMatch = false;
+            }
+            CUSTOM_MATCH_CATALOG.put(getClass(), customMatch);
+        }
+
+        return customMatch;
+    }
+
+    /**
+     * @return the value as string, without creating a new string if it is
+     *         already one.
+     */
+    protected static String toActualValue(Object objectValue) {
+        if (objectValue == null) {
+            return null;
+        }
+
+        return objectValue instanceof String ? (String) objectValue : "" + objectValue;
+    }
+
+    /**
+     * Matches the resolved actual value against the expected value.
+     *
+     * @param expectedValueMatcher
+     *            the operator function bound to the expected value, or
+     *            <code>null</code> if there is no valid operator function.
+     */
+    protected boolean matchActualValue(String actualValue, ValueMatcher expectedValueMatcher) {
+        if (actualValue == null) {
             return "".equals(getValue()) || "[NULL]".equalsIgnoreCase(getValue()) || getValue() == null;
         }
 
-        String expectedValue = getValue();
+        return matchActualValueOrEquals(actualValue, expectedValueMatcher);
+    }
 
-        Boolean result = new Boolean(false);
+    protected boolean matchActualValueOrEquals(String actualValue, ValueMatcher expectedValueMatcher) {
+        boolean result = false;
         boolean hasValidOperator = false;
-        if (getOperatorFunctionObject() != null) {
+        if (expectedValueMatcher != null) {
             try {
-                result = getOperatorFunctionObject().getImplementation().match(avr.getActualValue(), expectedValue);
+                result = expectedValueMatcher.match(actualValue);
                 hasValidOperator = true;
             } catch (Exception e) {
                 // Fall back to old way
                 hasValidOperator = false;
-                result = null;
             }
         }
 
         if (!hasValidOperator) {
             // Primitive string equals
-            result = avr.getActualValue().equals(expectedValue);
+            result = actualValue.equals(getValue());
         }
 
-        return result == null ? false : (isNegated() ? !result : result);
+        return isNegated() ? !result : result;
     }
 
     @Override
@@ -117,6 +331,7 @@ public class ConditionalAttribute extends AbstractAttribute {
     public void setOperatorFunction(String operatorFunction) {
         this.operatorFunction = operatorFunction;
         this.operatorFunctionObject = null;
+        this.expectedValueMatcher = null;
     }
 
     public InternalFunctionDefinition getOperatorFunctionObject() {
@@ -130,6 +345,22 @@ public class ConditionalAttribute extends AbstractAttribute {
         
         return operatorFunctionObject;
     }
+
+    /**
+     * @return the operator function bound to the expected value of this
+     *         attribute, or <code>null</code> if there is no valid operator
+     *         function.
+     */
+    public ValueMatcher getExpectedValueMatcher() {
+        if (expectedValueMatcher == null) {
+            InternalFunctionDefinition functionObject = getOperatorFunctionObject();
+            if (functionObject != null && functionObject.getImplementation() != null) {
+                expectedValueMatcher = functionObject.getImplementation().compile(getValue());
+            }
+        }
+
+        return expectedValueMatcher;
+    }
     
     public String getDefaultOperatorFunctionName() {
         return "";
@@ -143,43 +374,16 @@ public class ConditionalAttribute extends AbstractAttribute {
         return dataType + "-" + functionName;
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
+    /**
+     * Kept for subclasses, the match path itself reads the actual value with
+     * {@link #readActualValue(Object, Object, Map)}.
+     */
     protected <S, T> ActualValueResolution resolveActualValue(S sourceObject, T targetObject, Map<String, Object> contextVariables) {
         if (sourceObject == null || targetObject == null)
             return null;
 
-        Object objectValue = null;
-        if (KEYWORD_SELF.equals(getName())) {
-            objectValue = sourceObject;
-        } else if (KEYWORD_SOURCE_OBJECT.equals(getName())) {
-            objectValue = sourceObject;
-        } else if (KEYWORD_TARGET_OBJECT.equals(getName())) {
-            objectValue = targetObject;
-        } else {
-            objectValue = retrieveObjectValue(sourceObject, targetObject, getName(), getOwner());
-        }
-
-        String value = null;
-        ObjectAttributeReader<Object, Object> reader = getReader();
-        if (reader != null) {
-            if (reader instanceof ContextAwareObjectAttributeReader) {
-                ((ContextAwareObjectAttributeReader) reader).setContextData(contextVariables);
-            }
-            value = "" + reader.read(objectValue);
-        } else {
-            if (objectValue != null) {
-                value = "" + objectValue;
-            }
-        }
-
-        String conditionValue = getValue();
-        boolean variableValue = false;
-        if (isVariableValue()) {
-            conditionValue = resolveVariableValue(sourceObject, targetObject, contextVariables, conditionValue);
-            variableValue = true;
-        }
-
-        return new ActualValueResolution(true, value, variableValue);
+        return new ActualValueResolution(true, readActualValue(sourceObject, targetObject, contextVariables),
+                isVariableValue());
     }
 
     public static InternalFunctionDefinition getOperatorFunctionByName(String dataType, String operatorFunctionName) {
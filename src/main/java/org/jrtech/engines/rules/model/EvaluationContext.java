@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.model;
+
+import java.util.Arrays;
+
+/**
+ * The class <code>EvaluationContext</code> memoizes the results of the
+ * conditional attributes and their actual values during one application of a
+ * rule set on one object. <br>
+ * Results are kept in dense slot arrays indexed by
+ * {@link ConditionalAttribute#getConditionId()} and
+ * {@link ConditionalAttribute#getValueSlotId()}. A slot is valid if its stamp
+ * equals the stamp of the current evaluation, so starting a new evaluation
+ * does not clear the arrays. <br>
+ * An instance is not thread safe, it belongs to one evaluation at a time.
+ */
+public class EvaluationContext {
+
+    private final boolean[] conditionResults;
+
+    private final int[] conditionStamps;
+
+    private final String[] actualValues;
+
+    private final int[] actualValueStamps;
+
+    private int stamp = 1;
+
+    private boolean active = false;
+
+    public EvaluationContext(int conditionCount, int valueSlotCount) {
+        conditionResults = new boolean[conditionCount];
+        conditionStamps = new int[conditionCount];
+        actualValues = new String[valueSlotCount];
+        actualValueStamps = new int[valueSlotCount];
+    }
+
+    /**
+     * Starts a new evaluation, forgetting everything of the previous one.
+     */
+    public void begin() {
+        invalidate();
+        active = true;
+    }
+
+    /**
+     * Forgets the memoized results of the current evaluation, e.g. after the
+     * goals of a rule changed the evaluated objects.
+     */
+    public void invalidate() {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(conditionStamps, 0);
+            Arrays.fill(actualValueStamps, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * Ends the evaluation and releases the memoized actual values.
+     */
+    public void end() {
+        Arrays.fill(actualValues, null);
+        active = false;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public boolean hasConditionResult(int conditionId) {
+        return conditionId >= 0 && conditionId < conditionStamps.length && conditionStamps[conditionId] == stamp;
+    }
+
+    public boolean getConditionResult(int conditionId) {
+        return conditionResults[conditionId];
+    }
+
+    public void setConditionResult(int conditionId, boolean result) {
+        if (conditionId >= 0 && conditionId < conditionStamps.length) {
+            conditionResults[conditionId] = result;
+            conditionStamps[conditionId] = stamp;
+        }
+    }
+
+    public boolean hasActualValue(int valueSlotId) {
+        return valueSlotId >= 0 && valueSlotId < actualValueStamps.length && actualValueStamps[valueSlotId] == stamp;
+    }
+
+    public String getActualValue(int valueSlotId) {
+        return actualValues[valueSlotId];
+    }
+
+    public void setActualValue(int valueSlotId, String actualValue) {
+        if (valueSlotId >= 0 && valueSlotId < actualValueStamps.length) {
+            actualValues[valueSlotId] = actualValue;
+            actualValueStamps[valueSlotId] = stamp;
+        }
+    }
+
+    public int getConditionCount() {
+        return conditionStamps.length;
+    }
+
+    public int getValueSlotCount() {
+        return actualValueStamps.length;
+    }
+}
@@ -16,6 +16,8 @@
  */
 package org.jrtech.engines.rules.model;
 
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -24,6 +26,9 @@ import java.util.Map;
 
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.lang3.reflect.MethodUtils;
+import org.apache.commons.lang3.reflect.TypeUtils;
+import org.jrtech.engines.rules.AttributeAccessorRegistry;
+import org.jrtech.engines.rules.AttributeMutator;
 import org.jrtech.engines.rules.ObjectAttributeWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +55,10 @@ public class GoalAttribute extends AbstractAttribute {
     
     private transient Map<String, CallParameter> parameterCatalog = new HashMap<>();
 
+    private transient CompiledMutator compiledMutator = null;
+
+    private transient Class<?> writerValueType = null;
+
     public GoalAttribute(String name, String value) {
         this(name, value, null);
     }
@@ -107,26 +116,105 @@ public class GoalAttribute extends AbstractAttribute {
         return getName() + "(" + (method == null ? "" : method) + ")" + "->" + getValue();
     }
 
+    /**
+     * Applies the goal on the target object. A value made of one variable is
+     * passed as is to a writer or setter accepting its type (e.g. a number
+     * read from the source object), any other value as string. Writers and
+     * setters declared for <code>Object</code> values (e.g. of maps) get
+     * strings, like BeanUtils stores them.
+     */
     public <S, T> T apply(S sourceObject, T targetObject, Map<String, Object> contextVariables)
             throws GoalApplicationException {
         if (targetObject != null && sourceObject != null) {
-            Object objectValue = null;
-            if (!isVariableValue()) {
-                objectValue = getValue();
-            } else {
-                // Resolve variable
-                objectValue = resolveVariableValue(sourceObject, targetObject, contextVariables, getValue());
+            ObjectAttributeWriter<Object, Object> writer = getWriter();
+            if (writer != null) {
+                writer.write(targetObject, getName(),
+                        resolveGoalValue(sourceObject, targetObject, contextVariables, getWriterValueType()));
+                return targetObject;
             }
-            if (getWriter() != null) {
-                getWriter().write(targetObject, getName(), objectValue);
-            } else {
-                setValue(targetObject, "" + objectValue);
+
+            AttributeMutator mutator = getMutator(targetObject.getClass());
+            if (mutator == null) {
+                setValue(targetObject, "" + resolveGoalValue(sourceObject, targetObject, contextVariables, null));
+                return targetObject;
+            }
+
+            Class<?> valueType = Object.class.equals(mutator.getValueType()) ? null : mutator.getValueType();
+            Object objectValue = resolveGoalValue(sourceObject, targetObject, contextVariables, valueType);
+            try {
+                mutator.write(targetObject, objectValue);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new GoalApplicationException(this, t);
             }
         }
 
         return targetObject;
     }
 
+    /**
+     * @param valueType
+     *            the type of the values accepted as is, or <code>null</code>
+     *            if only strings are accepted.
+     */
+    private <S, T> Object resolveGoalValue(S sourceObject, T targetObject, Map<String, Object> contextVariables,
+            Class<?> valueType) {
+        VariableTemplate template = getVariableTemplate();
+        if (template == null) {
+            return getValue();
+        }
+
+        if (valueType != null && template.isSingleVariable()) {
+            Object objectValue = template.resolve(this, sourceObject, targetObject, contextVariables);
+            if (objectValue instanceof String || valueType.isInstance(objectValue)) {
+                return objectValue;
+            }
+        }
+
+        return template.render(this, sourceObject, targetObject, contextVariables);
+    }
+
+    /**
+     * @return the cached setter (or method call) of the goal on the given
+     *         target type, or <code>null</code> if the goal is left to
+     *         BeanUtils and MethodUtils.
+     */
+    private AttributeMutator getMutator(Class<?> targetType) {
+        CompiledMutator compiledMutator = this.compiledMutator;
+        if (compiledMutator == null || compiledMutator.targetType != targetType) {
+            AttributeAccessorRegistry registry = AttributeAccessorRegistry.getInstance();
+            compiledMutator = new CompiledMutator(targetType, getMethod() == null ? registry.getMutator(targetType,
+                    getName()) : registry.getMutator(targetType, getMethod(), getName()));
+            this.compiledMutator = compiledMutator;
+        }
+
+        return compiledMutator.mutator;
+    }
+
+    /**
+     * @return the value type of the writer, or <code>null</code> if the writer
+     *         gets strings only.
+     */
+    private Class<?> getWriterValueType() {
+        Class<?> valueType = writerValueType;
+        if (valueType == null) {
+            // The type argument of the writer, as its write methods may be overloaded
+            Map<TypeVariable<?>, Type> typeArguments = TypeUtils.getTypeArguments(getWriter().getClass(),
+                    ObjectAttributeWriter.class);
+            Type valueTypeArgument = typeArguments == null ? null
+                    : typeArguments.get(ObjectAttributeWriter.class.getTypeParameters()[1]);
+            valueType = valueTypeArgument == null ? null : TypeUtils.getRawType(valueTypeArgument, null);
+            if (valueType == null) {
+                // Raw or unresolved type argument
+                valueType = Object.class;
+            }
+            writerValueType = valueType;
+        }
+
+        return String.class.equals(valueType) || Object.class.equals(valueType) ? null : valueType;
+    }
+
     private <T> void setValue(T targetObject, String value) throws GoalApplicationException {
         if (getMethod() == null) {
             try {
@@ -171,4 +259,15 @@ public class GoalAttribute extends AbstractAttribute {
         return param;
     }
     
+    /** The mutator of the last target type, most rule sets apply a goal on one type only. */
+    private static final class CompiledMutator {
+        private final Class<?> targetType;
+
+        private final AttributeMutator mutator;
+
+        private CompiledMutator(Class<?> targetType, AttributeMutator mutator) {
+            this.targetType = targetType;
+            this.mutator = mutator;
+        }
+    }
 }
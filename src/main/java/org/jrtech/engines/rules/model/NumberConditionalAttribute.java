@@ -18,12 +18,12 @@ package org.jrtech.engines.rules.model;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import org.jrtech.engines.rules.function.NumberEqualsFunctionImpl;
 import org.jrtech.engines.rules.function.NumberLessThanFunctionImpl;
 import org.jrtech.common.utils.model.LabelDefinition;
 import org.jrtech.engines.rules.function.InternalFunctionDefinition;
+import org.jrtech.engines.rules.function.ValueMatcher;
 import org.jrtech.engines.rules.function.NumberGreaterOrEqualsFunctionImpl;
 import org.jrtech.engines.rules.function.NumberGreaterThanFunctionImpl;
 import org.jrtech.engines.rules.function.NumberLessOrEqualsFunctionImpl;
@@ -91,33 +91,8 @@ public class NumberConditionalAttribute extends ConditionalAttribute {
     }
 
     @Override
-    public <S, T> boolean match(S sourceObject, T targetObject, Map<String, Object> contextVariables) {
-        ActualValueResolution avr = resolveActualValue(sourceObject, targetObject, contextVariables);
-        if (avr == null) {
-            return false;
-        }
-
-        String expectedValue = getValue();
-
-        Boolean result = new Boolean(false);
-        boolean hasValidOperator = false;
-        if (getOperatorFunctionObject() != null) {
-            try {
-                result = getOperatorFunctionObject().getImplementation().match(avr.getActualValue(), expectedValue);
-                hasValidOperator = true;
-            } catch (Exception e) {
-                // Fall back to old way
-                hasValidOperator = false;
-                result = null;
-            }
-        }
-
-        if (!hasValidOperator) {
-            // Primitive string equals
-            result = avr.getActualValue().equals(expectedValue);
-        }
-
-        return result == null ? false : (isNegated() ? !result : result);
+    protected boolean matchActualValue(String actualValue, ValueMatcher expectedValueMatcher) {
+        return matchActualValueOrEquals(actualValue, expectedValueMatcher);
     }
 
     @Override
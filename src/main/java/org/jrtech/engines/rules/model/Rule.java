@@ -20,6 +20,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +37,8 @@ public class Rule<T> implements Serializable {
     
     private static Logger log = LoggerFactory.getLogger(Rule.class);
 
+    private static final Map<Class<?>, Boolean> DEFAULT_APPLY_CATALOG = new ConcurrentHashMap<>();
+
     private String id;
     
     private String scopeIndex;
@@ -46,6 +49,8 @@ public class Rule<T> implements Serializable {
     
     private boolean terminating = true;
 
+    private transient ConditionPredicate compiledConditions = null;
+
     public Rule() {
         this(null);
     }
@@ -79,12 +84,34 @@ public class Rule<T> implements Serializable {
 
     public <S> Result apply(S sourceObject, T targetObject, Map<String, Object> contextVariables)
             throws GoalApplicationException {
+        return apply(sourceObject, targetObject, contextVariables, null);
+    }
+
+    /**
+     * Applies the rule like {@link #apply(Object, Object, Map)}, sharing the
+     * memoized condition results of the evaluation context with the other
+     * rules of the rule set.
+     *
+     * @param evaluationContext
+     *            the context of the current evaluation, or <code>null</code>.
+     */
+    public <S> Result apply(S sourceObject, T targetObject, Map<String, Object> contextVariables,
+            EvaluationContext evaluationContext) throws GoalApplicationException {
         if (conditions == null || conditions.isEmpty()) {
             return Result.SUCCESS; // No conditions provided -> always TRUE
         }
+
+        ConditionPredicate predicate = compiledConditions;
+        if (predicate != null) {
+            if (predicate.test(sourceObject, targetObject, contextVariables, evaluationContext)) {
+                applyGoals(sourceObject, targetObject, contextVariables);
+                return Result.SUCCESS;
+            }
+            return Result.NOT_APPLICABLE;
+        }
         
-        for (RuleCondition cond : conditions) {
-            if (cond.match(sourceObject, targetObject, contextVariables)) {
+        for (int i = 0; i < conditions.size(); i++) {
+            if (conditions.get(i).match(sourceObject, targetObject, contextVariables, evaluationContext)) {
                 applyGoals(sourceObject, targetObject, contextVariables);
                 return Result.SUCCESS;
             }
@@ -93,6 +120,61 @@ public class Rule<T> implements Serializable {
         return Result.NOT_APPLICABLE;
     }
 
+    /**
+     * Compiles the conditions into a single OR predicate which is used by
+     * {@link #apply(Object, Object, Map)} from now on. The conditions must not
+     * be modified afterwards.
+     */
+    public ConditionPredicate compile() {
+        if (compiledConditions != null) {
+            return compiledConditions;
+        }
+
+        final ConditionPredicate[] predicates = new ConditionPredicate[conditions.size()];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = conditions.get(i).compile();
+        }
+
+        // Straight-line disjunctions for the common sizes, a loop for the rest
+        ConditionPredicate predicate;
+        switch (predicates.length) {
+        case 0:
+            predicate = (Object s, Object t, Map<String, Object> c, EvaluationContext e) -> true;
+            break;
+        case 1:
+            predicate = predicates[0];
+            break;
+        case 2: {
+            final ConditionPredicate p0 = predicates[0], p1 = predicates[1];
+            predicate = (Object s, Object t, Map<String, Object> c, EvaluationContext e) -> p0.test(s, t, c, e)
+                    || p1.test(s, t, c, e);
+            break;
+        }
+        case 3: {
+            final ConditionPredicate p0 = predicates[0], p1 = predicates[1], p2 = predicates[2];
+            predicate = (Object s, Object t, Map<String, Object> c, EvaluationContext e) -> p0.test(s, t, c, e)
+                    || p1.test(s, t, c, e) || p2.test(s, t, c, e);
+            break;
+        }
+        default:
+            predicate = (Object s, Object t, Map<String, Object> c, EvaluationContext e) -> {
+                for (ConditionPredicate p : predicates) {
+                    if (p.test(s, t, c, e)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+
+        compiledConditions = predicate;
+        return predicate;
+    }
+
+    public boolean isCompiled() {
+        return compiledConditions != null;
+    }
+
     protected <S> void applyGoals(S sourceObject, T targetObject, Map<String, Object> contextVariables)
             throws GoalApplicationException {
         log.debug("Applying rule: '" + id + "'");
@@ -101,6 +183,26 @@ public class Rule<T> implements Serializable {
         }
     }
 
+    /**
+     * @return <code>true</code> if the class of this rule does not override
+     *         {@link #apply(Object, Object, Map)}, i.e. the rule only matches
+     *         through its conditions.
+     */
+    public boolean hasDefaultApply() {
+        Boolean defaultApply = DEFAULT_APPLY_CATALOG.get(getClass());
+        if (defaultApply == null) {
+            try {
+                defaultApply = Rule.class.equals(
+                        getClass().getMethod("apply", Object.class, Object.class, Map.class).getDeclaringClass());
+            } catch (NoSuchMethodException e) {
+                defaultApply = false;
+            }
+            DEFAULT_APPLY_CATALOG.put(getClass(), defaultApply);
+        }
+
+        return defaultApply;
+    }
+
     public boolean isTerminating() {
         return terminating;
     }
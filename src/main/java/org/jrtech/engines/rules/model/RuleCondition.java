@@ -30,6 +30,8 @@ public class RuleCondition implements Serializable {
 	
     private List<ConditionalAttribute> attributes;
 	
+	private transient ConditionPredicate compiledPredicate = null;
+	
 	public RuleCondition(List<ConditionalAttribute> attributes) {
 		super();
 		this.attributes = attributes;
@@ -39,13 +41,78 @@ public class RuleCondition implements Serializable {
 	}
 	
 	public <S, T> boolean match(S sourceObject, T targetObject, Map<String, Object> contextVariables) {
-		for (ConditionalAttribute attr : attributes) {
-			if (!attr.match(sourceObject, targetObject, contextVariables)) return false;
+		return match(sourceObject, targetObject, contextVariables, null);
+	}
+	
+	public <S, T> boolean match(S sourceObject, T targetObject, Map<String, Object> contextVariables,
+	        EvaluationContext evaluationContext) {
+		ConditionPredicate predicate = compiledPredicate;
+		if (predicate != null) {
+			return predicate.test(sourceObject, targetObject, contextVariables, evaluationContext);
+		}
+		
+		for (int i = 0; i < attributes.size(); i++) {
+			if (!attributes.get(i).match(sourceObject, targetObject, contextVariables, evaluationContext)) return false;
 		}
 		
 		return true;
 	}
 	
+	/**
+	 * Compiles the attributes into a single AND predicate which is used by
+	 * {@link #match(Object, Object, Map)} from now on. The attributes must not
+	 * be modified afterwards.
+	 */
+	public ConditionPredicate compile() {
+		if (compiledPredicate != null) {
+			return compiledPredicate;
+		}
+		
+		final ConditionPredicate[] predicates = new ConditionPredicate[attributes.size()];
+		for (int i = 0; i < predicates.length; i++) {
+			predicates[i] = attributes.get(i).compile();
+		}
+		
+		// Straight-line conjunctions for the common sizes, a loop for the rest
+		ConditionPredicate predicate;
+		switch (predicates.length) {
+		case 0:
+			predicate = (Object s, Object t, Map<String, Object> c, EvaluationContext e) -> true;
+			break;
+		case 1:
+			predicate = predicates[0];
+			break;
+		case 2: {
+			final ConditionPredicate p0 = predicates[0], p1 = predicates[1];
+			predicate = (Object s, Object t, Map<String, Object> c, EvaluationContext e) -> p0.test(s, t, c, e)
+			        && p1.test(s, t, c, e);
+			break;
+		}
+		case 3: {
+			final ConditionPredicate p0 = predicates[0], p1 = predicates[1], p2 = predicates[2];
+			predicate = (Object s, Object t, Map<String, Object> c, EvaluationContext e) -> p0.test(s, t, c, e)
+			        && p1.test(s, t, c, e) && p2.test(s, t, c, e);
+			break;
+		}
+		default:
+			predicate = (Object s, Object t, Map<String, Object> c, EvaluationContext e) -> {
+				for (ConditionPredicate p : predicates) {
+					if (!p.test(s, t, c, e)) {
+						return false;
+					}
+				}
+				return true;
+			};
+		}
+		
+		compiledPredicate = predicate;
+		return predicate;
+	}
+	
+	public boolean isCompiled() {
+		return compiledPredicate != null;
+	}
+	
 	public List<ConditionalAttribute> getAttributes() {
 	    return Collections.unmodifiableList(attributes);
 	}
@@ -18,7 +18,6 @@ package org.jrtech.engines.rules.model;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jrtech.engines.rules.function.StringEndsWithFunctionImpl;
@@ -30,6 +29,7 @@ import org.jrtech.engines.rules.function.StringContainsFunctionImpl;
 import org.jrtech.engines.rules.function.StringIgnoreCaseFunctionImpl;
 import org.jrtech.engines.rules.function.StringInFunctionImpl;
 import org.jrtech.engines.rules.function.StringStartsWithFunctionImpl;
+import org.jrtech.engines.rules.function.ValueMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -119,23 +119,17 @@ public class StringConditionalAttribute extends ConditionalAttribute {
         return !INTERNAL_FUNCTION_IGNORE_CASE.equals(getOperatorFunction());
     }
 
-    public <S, T> boolean match(S sourceObject, T targetObject, Map<String, Object> contextVariables) {
-        ActualValueResolution avr = resolveActualValue(sourceObject, targetObject, contextVariables);
-        if (avr == null) {
-            return false;
-        }
-
-        String expectedValue = getValue();
-
+    @Override
+    protected boolean matchActualValue(String actualValue, ValueMatcher expectedValueMatcher) {
         boolean result = false;
-        if (getOperatorFunctionObject() != null) {
+        if (expectedValueMatcher != null) {
             try {
-                result = getOperatorFunctionObject().getImplementation().match(avr.getActualValue(), expectedValue);
+                result = expectedValueMatcher.match(actualValue);
             } catch (Exception e) {
                 log.debug(
                         "Failure in match processing Operator Function Object: '"
                                 + getOperatorFunctionObject().getName() + "' with value [actual vs expected]: ["
-                                + avr.getActualValue() + "/" + expectedValue + "]", e);
+                                + actualValue + "/" + getValue() + "]", e);
                 return false;
             }
         }
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.jrtech.engines.rules.model.AbstractAttribute.Owner;
+
+/**
+ * The class <code>VariableTemplate</code> is the compiled form of an attribute
+ * value containing variables (e.g. <code>Approved by ${USER@CONTEXT}</code>).
+ * The value is split once into its literal segments and its variable slots,
+ * the owner of every slot being resolved when the template is compiled. <br>
+ * A template is immutable and can be rendered concurrently, the rendering
+ * buffer is reused per thread.
+ */
+public final class VariableTemplate {
+
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 1024;
+
+    private static final ThreadLocal<StringBuilder[]> RENDER_BUFFER = ThreadLocal
+            .withInitial(() -> new StringBuilder[] { new StringBuilder() });
+
+    private final String value;
+
+    /** The literal segments around the variables, one more than variables. */
+    private final String[] literals;
+
+    private final String[] variableNames;
+
+    private final Owner[] variableOwners;
+
+    private VariableTemplate(String value, String[] literals, String[] variableNames, Owner[] variableOwners) {
+        this.value = value;
+        this.literals = literals;
+        this.variableNames = variableNames;
+        this.variableOwners = variableOwners;
+    }
+
+    /**
+     * Compiles the given value. A variable is written as
+     * <code>${name}</code> or <code>${name@owner}</code>, an unknown or
+     * missing owner falls back to the given default owner. An unterminated
+     * <code>${</code> is kept as literal.
+     */
+    public static VariableTemplate compile(String value, Owner defaultOwner) {
+        if (value == null) {
+            throw new IllegalArgumentException("Invalid variable value: [NULL].");
+        }
+
+        List<String> literalList = new ArrayList<>();
+        List<String> variableNameList = new ArrayList<>();
+        List<Owner> variableOwnerList = new ArrayList<>();
+        int fromIndex = 0;
+        int startPos = value.indexOf("${");
+        while (startPos >= 0) {
+            int endPos = value.indexOf('}', startPos + 2);
+            if (endPos < 0) {
+                break;
+            }
+            String variableName = value.substring(startPos + 2, endPos);
+            String scope = null;
+            int scopePos = variableName.indexOf('@');
+            if (scopePos >= 0) {
+                scope = variableName.substring(scopePos + 1);
+                variableName = variableName.substring(0, scopePos);
+            }
+
+            literalList.add(value.substring(fromIndex, startPos));
+            variableNameList.add(variableName);
+            variableOwnerList.add(Owner.fromString(scope, defaultOwner));
+
+            fromIndex = endPos + 1;
+            startPos = value.indexOf("${", fromIndex);
+        }
+        literalList.add(value.substring(fromIndex));
+
+        return new VariableTemplate(value, literalList.toArray(new String[literalList.size()]),
+                variableNameList.toArray(new String[variableNameList.size()]),
+                variableOwnerList.toArray(new Owner[variableOwnerList.size()]));
+    }
+
+    /**
+     * Renders the template, each variable being resolved and escaped by the
+     * given attribute. An unresolved variable renders as an empty string.
+     */
+    public <S, T> String render(AbstractAttribute attribute, S sourceObject, T targetObject,
+            Map<String, Object> contextVariables) {
+        if (isSingleVariable()) {
+            return renderVariable(attribute, 0, sourceObject, targetObject, contextVariables);
+        }
+
+        // Taken out of the holder while rendering, a re-entrant rendering (e.g. from a reader) gets its own buffer
+        StringBuilder[] holder = RENDER_BUFFER.get();
+        StringBuilder sb = holder[0] == null ? new StringBuilder() : holder[0];
+        holder[0] = null;
+        try {
+            sb.setLength(0);
+            for (int i = 0; i < variableNames.length; i++) {
+                sb.append(literals[i]).append(
+                        renderVariable(attribute, i, sourceObject, targetObject, contextVariables));
+            }
+            sb.append(literals[variableNames.length]);
+
+            return sb.toString();
+        } finally {
+            holder[0] = sb.capacity() > MAX_RETAINED_BUFFER_CAPACITY ? new StringBuilder() : sb;
+        }
+    }
+
+    /**
+     * Resolves the template like {@link #render(AbstractAttribute, Object,
+     * Object, Map)}, but returns the value of the variable as is (e.g. a
+     * number read from the source object) if the whole template is one
+     * variable.
+     */
+    public <S, T> Object resolve(AbstractAttribute attribute, S sourceObject, T targetObject,
+            Map<String, Object> contextVariables) {
+        if (!isSingleVariable()) {
+            return render(attribute, sourceObject, targetObject, contextVariables);
+        }
+
+        Object variableValue = attribute.resolveVariable(variableOwners[0], variableNames[0], sourceObject,
+                targetObject, contextVariables, true);
+
+        return variableValue instanceof String ? attribute.escapeResolvedValue((String) variableValue)
+                : variableValue;
+    }
+
+    private <S, T> String renderVariable(AbstractAttribute attribute, int index, S sourceObject, T targetObject,
+            Map<String, Object> contextVariables) {
+        String variableValue = (String) attribute.resolveVariable(variableOwners[index], variableNames[index],
+                sourceObject, targetObject, contextVariables, false);
+
+        return variableValue == null ? "" : attribute.escapeResolvedValue(variableValue);
+    }
+
+    /**
+     * @return <code>true</code> if the template consists of exactly one
+     *         variable without any literal around it.
+     */
+    public boolean isSingleVariable() {
+        return variableNames.length == 1 && literals[0].isEmpty() && literals[1].isEmpty();
+    }
+
+    public int getVariableCount() {
+        return variableNames.length;
+    }
+
+    public String getVariableName(int index) {
+        return variableNames[index];
+    }
+
+    public Owner getVariableOwner(int index) {
+        return variableOwners[index];
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
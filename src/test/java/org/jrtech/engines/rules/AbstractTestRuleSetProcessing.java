@@ -20,7 +20,6 @@ import java.util.List;
 import java.util.Map;
 
 import org.jrtech.engines.rules.model.GoalApplicationException;
-import org.jrtech.engines.rules.model.Result;
 import org.jrtech.engines.rules.model.Rule;
 
 public abstract class AbstractTestRuleSetProcessing {
@@ -29,16 +28,15 @@ public abstract class AbstractTestRuleSetProcessing {
 
 	protected List<Rule<Object>> ruleSet;
 
+	private RuleSetExecutor<Object> executor;
+
 	protected String ruleProcessing(Map<String, Object> sourceObject, Map<String, Object> targetObject,
 			Map<String, Object> contextVariables) throws GoalApplicationException {
-		for (Rule<Object> rule : ruleSet) {
-			Result result = rule.apply(sourceObject, targetObject, contextVariables);
-			if (Result.SUCCESS.equals(result)) {
-				// match
-				return rule.getId();
-			}
+		if (executor == null) {
+			executor = RuleSetExecutor.newInstance(ruleSet);
 		}
+		Rule<Object> appliedRule = executor.applyFirst(sourceObject, targetObject, contextVariables);
 
-		return null;
+		return appliedRule == null ? null : appliedRule.getId();
 	}
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jrtech.engines.rules.model.ConditionPredicate;
+import org.jrtech.engines.rules.model.ConditionalAttribute;
+import org.jrtech.engines.rules.model.Rule;
+import org.jrtech.engines.rules.model.RuleCondition;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestAllocationBudget {
+
+    private static final String RULE_SET = ""
+            // @formatter:off
+            + "<ruleSet name=\"allocation\">"
+            + "  <rule id=\"R1\">"
+            + "    <goals><attribute name=\"r1\" value=\"x\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" /></goals>"
+            + "    <conditions>"
+            + "      <condition>"
+            + "        <attribute name=\"Direction\" value=\"O\" />"
+            + "        <attribute name=\"Currency\" value=\"usd\" operatorFunction=\"ignoreCase\" />"
+            + "        <attribute name=\"MessageType\" value=\"1\" operatorFunction=\"startsWith\" />"
+            + "        <attribute name=\"Country\" value=\"DE\" negate=\"true\" />"
+            + "        <attribute type=\"NumberConditionalAttribute\" name=\"Amount\" value=\"1000\" operatorFunction=\"greaterThan\" />"
+            + "        <attribute type=\"NumberConditionalAttribute\" name=\"Amount\" value=\"-5\" operatorFunction=\"greaterOrEquals\" />"
+            + "        <attribute type=\"DateConditionalAttribute\" name=\"ValueDate\" value=\"2018-03-01\" operatorFunction=\"since\" />"
+            + "        <attribute type=\"DateConditionalAttribute\" name=\"ValueDate\" value=\"2018-06-01\" operatorFunction=\"before\" />"
+            + "        <attribute type=\"BooleanConditionalAttribute\" name=\"Urgent\" value=\"true\" />"
+            + "      </condition>"
+            + "      <condition>"
+            + "        <attribute name=\"Direction\" value=\"I\" />"
+            + "      </condition>"
+            + "    </conditions>"
+            + "  </rule>"
+            + "</ruleSet>";
+            // @formatter:on
+
+    /** Allowed bytes for all measured evaluations, i.e. nothing per evaluation. */
+    private static final long ALLOCATION_BUDGET = 16 * 1024;
+
+    private static final int ITERATIONS = 200000;
+
+    private List<Rule<Object>> ruleSet;
+
+    private Map<String, Object> sourceObject;
+
+    @Before
+    public void init() throws Exception {
+        ruleSet = RuleSetLoader.newInstance().load(RULE_SET);
+
+        sourceObject = new HashMap<>();
+        sourceObject.put("Direction", "O");
+        sourceObject.put("Currency", "USD");
+        sourceObject.put("MessageType", "103");
+        sourceObject.put("Country", "CH");
+        sourceObject.put("Amount", "2500");
+        sourceObject.put("ValueDate", "2018-04-15");
+        sourceObject.put("Urgent", "TRUE");
+    }
+
+    @Test
+    public void interpretedMatchIsAllocationFree() {
+        final RuleCondition condition = ruleSet.get(0).getConditions().get(0);
+        final ConditionalAttribute[] attributes = condition.getAttributes().toArray(new ConditionalAttribute[0]);
+        final Map<String, Object> targetObject = new HashMap<>();
+        final Map<String, Object> contextVariables = new HashMap<>();
+        Assert.assertTrue(condition.match(sourceObject, targetObject, contextVariables));
+
+        long allocatedBytes = measure(() -> {
+            for (ConditionalAttribute attribute : attributes) {
+                if (!attribute.match(sourceObject, targetObject, contextVariables)) {
+                    throw new AssertionError("No match: " + attribute);
+                }
+            }
+        });
+        Assert.assertTrue("Allocated " + allocatedBytes + " bytes", allocatedBytes < ALLOCATION_BUDGET);
+    }
+
+    @Test
+    public void compiledMatchIsAllocationFree() {
+        final ConditionPredicate predicate = ruleSet.get(0).compile();
+        final Map<String, Object> targetObject = new HashMap<>();
+        final Map<String, Object> contextVariables = new HashMap<>();
+        final Map<String, Object> otherSourceObject = new HashMap<>(sourceObject);
+        otherSourceObject.put("Direction", "X");
+        Assert.assertTrue(predicate.test(sourceObject, targetObject, contextVariables));
+        Assert.assertFalse(predicate.test(otherSourceObject, targetObject, contextVariables));
+
+        long allocatedBytes = measure(() -> {
+            if (!predicate.test(sourceObject, targetObject, contextVariables)
+                    || predicate.test(otherSourceObject, targetObject, contextVariables)) {
+                throw new AssertionError("Unexpected result");
+            }
+        });
+        Assert.assertTrue("Allocated " + allocatedBytes + " bytes", allocatedBytes < ALLOCATION_BUDGET);
+    }
+
+    /**
+     * @return the bytes allocated by the current thread for the measured
+     *         iterations (after warming up), or <code>0</code> if the JVM
+     *         cannot measure it.
+     */
+    private static long measure(Runnable evaluation) {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+        com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!allocationMXBean.isThreadAllocatedMemorySupported() || !allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+            return 0;
+        }
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            evaluation.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long startBytes = allocationMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            evaluation.run();
+        }
+
+        return allocationMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+    }
+}
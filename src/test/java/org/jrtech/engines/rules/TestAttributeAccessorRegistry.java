@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.util.HashMap;
+
+import org.jrtech.engines.rules.model.AbstractAttribute.Owner;
+import org.jrtech.engines.rules.model.GoalAttribute;
+import org.jrtech.engines.rules.model.StringConditionalAttribute;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestAttributeAccessorRegistry {
+
+    @Test
+    public void resolveAccessors() throws Throwable {
+        AttributeAccessorRegistry registry = AttributeAccessorRegistry.getInstance();
+        Payment payment = new Payment("USD", new Party("CH"), true);
+
+        Assert.assertEquals("USD", registry.getAccessor(Payment.class, "currency").read(payment));
+        Assert.assertEquals("USD", registry.getAccessor(Payment.class, "Currency").read(payment));
+        Assert.assertEquals(Boolean.TRUE, registry.getAccessor(Payment.class, "urgent").read(payment));
+        Assert.assertEquals("CH", registry.getAccessor(Payment.class, "debtor.country").read(payment));
+        Assert.assertNull(registry.getAccessor(Payment.class, "debtor.country").read(new Payment("USD", null, false)));
+        Assert.assertSame(registry.getAccessor(Payment.class, "debtor.country"),
+                registry.getAccessor(Payment.class, "debtor.country"));
+
+        Assert.assertNull(registry.getAccessor(Payment.class, "unknown"));
+        Assert.assertNull(registry.getAccessor(Payment.class, "getCurrency()"));
+        Assert.assertNull(registry.getAccessor(HashMap.class, "currency"));
+    }
+
+    @Test
+    public void resolveMutators() throws Throwable {
+        AttributeAccessorRegistry registry = AttributeAccessorRegistry.getInstance();
+        Account account = new Account();
+
+        AttributeMutator balance = registry.getMutator(Account.class, "balance");
+        Assert.assertEquals(Integer.class, balance.getValueType());
+        balance.write(account, "42");
+        Assert.assertEquals(42, account.getBalance());
+        balance.write(account, 7);
+        Assert.assertEquals(7, account.getBalance());
+        registry.getMutator(Account.class, "currency").write(account, "USD");
+        Assert.assertEquals("USD", account.getCurrency());
+        registry.getMutator(Account.class, "put", "note").write(account, "checked");
+        Assert.assertEquals("note=checked", account.getNote());
+        Assert.assertSame(balance, registry.getMutator(Account.class, "balance"));
+
+        HashMap<String, Object> map = new HashMap<>();
+        registry.getMutator(HashMap.class, "currency").write(map, "USD");
+        Assert.assertEquals("USD", map.get("currency"));
+
+        Assert.assertNull(registry.getMutator(Account.class, "Balance"));
+        Assert.assertNull(registry.getMutator(Account.class, "label"));
+        Assert.assertNull(registry.getMutator(Account.class, "unknown"));
+        Assert.assertNull(registry.getMutator(Account.class, "debtor.country"));
+        Assert.assertNull(registry.getMutator(HashMap.class, "debtor.country"));
+        Assert.assertNull(registry.getMutator(Account.class, "unknown", "note"));
+    }
+
+    @Test
+    public void getterFailuresAreNotRetried() throws Exception {
+        Ledger ledger = new Ledger();
+        try {
+            new StringConditionalAttribute("balance", "42").match(ledger, new HashMap<String, Object>(), null);
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertEquals(1, ledger.getReadCount());
+
+        // Variable values default to the target object
+        ledger = new Ledger();
+        try {
+            new GoalAttribute("balance", "${balance}", "", Owner.TARGET,
+                    "org.jrtech.engines.rules.writer.MapStringValueWriter").apply(new HashMap<String, Object>(), ledger,
+                            null);
+            Assert.fail();
+        } catch (RuntimeException e) {
+            // expected
+        }
+        Assert.assertEquals(1, ledger.getReadCount());
+    }
+
+    public static class Account {
+
+        private int balance;
+
+        private String currency;
+
+        private String note;
+
+        public int getBalance() {
+            return balance;
+        }
+
+        public void setBalance(int balance) {
+            this.balance = balance;
+        }
+
+        public String getCurrency() {
+            return currency;
+        }
+
+        public void setCurrency(String currency) {
+            this.currency = currency;
+        }
+
+        public void setLabel(String label) {
+            this.note = label;
+        }
+
+        public void setLabel(Integer label) {
+            this.note = "" + label;
+        }
+
+        public String getNote() {
+            return note;
+        }
+
+        public void put(String name, Object value) {
+            this.note = name + "=" + value;
+        }
+    }
+
+    public static class Payment {
+
+        private final String currency;
+
+        private final Party debtor;
+
+        private final boolean urgent;
+
+        public Payment(String currency, Party debtor, boolean urgent) {
+            this.currency = currency;
+            this.debtor = debtor;
+            this.urgent = urgent;
+        }
+
+        public String getCurrency() {
+            return currency;
+        }
+
+        public Party getDebtor() {
+            return debtor;
+        }
+
+        public boolean isUrgent() {
+            return urgent;
+        }
+    }
+
+    public static class Ledger {
+
+        private int readCount;
+
+        public int getBalance() {
+            readCount++;
+            throw new IllegalStateException("Closed ledger");
+        }
+
+        public int getReadCount() {
+            return readCount;
+        }
+    }
+
+    public static class Party {
+
+        private final String country;
+
+        public Party(String country) {
+            this.country = country;
+        }
+
+        public String getCountry() {
+            return country;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBoundedConcurrentCache {
+
+    @Test
+    public void boundedWithStatistics() {
+        BoundedConcurrentCache<String, String> cache = new BoundedConcurrentCache<>(100);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals("v" + i, cache.computeIfAbsent("k" + i, (String key) -> "v" + key.substring(1)));
+            Assert.assertEquals("v" + i, cache.get("k" + i));
+            Assert.assertTrue(cache.size() <= 100);
+        }
+        Assert.assertEquals(100, cache.size());
+        Assert.assertEquals(1000, cache.getMissCount());
+        Assert.assertEquals(1000, cache.getHitCount());
+        Assert.assertEquals(900, cache.getEvictionCount());
+
+        cache.put("k999", "x");
+        Assert.assertEquals("x", cache.get("k999"));
+        Assert.assertEquals("x", cache.remove("k999"));
+        Assert.assertNull(cache.get("k999"));
+        Assert.assertEquals(99, cache.size());
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void concurrentAccess() throws Exception {
+        final BoundedConcurrentCache<Integer, Integer> cache = new BoundedConcurrentCache<>(64);
+        final AtomicInteger mismatchCount = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final int seed = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    Integer key = (i * 31 + seed) % 200;
+                    if (cache.computeIfAbsent(key, (Integer k) -> k * 2) != key * 2) {
+                        mismatchCount.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(0, mismatchCount.get());
+        Assert.assertTrue(cache.size() <= 64);
+        Assert.assertEquals(800000, cache.getHitCount() + cache.getMissCount());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.jrtech.engines.rules.model.Rule;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestIncrementalRuleSetLoader {
+
+    private File directory;
+
+    private String mainRuleSet;
+
+    @Before
+    public void init() throws Exception {
+        directory = Files.createTempDirectory("incremental").toFile();
+        write("nested.xml", "<ruleSet><rule id=\"N1\" /></ruleSet>");
+        write("a.xml", "<ruleSet>" + createRule("A1", "O") + createRule("A2", "I") + "</ruleSet>");
+        write("b.xml", "<ruleSet>" + createRule("B1", "O") + "<include uri=\"" + uri("nested.xml")
+                + "\" /></ruleSet>");
+        mainRuleSet = "<ruleSet name=\"main\">" + createRule("M1", "O") + "<include uri=\"" + uri("a.xml")
+                + "\" /><include uri=\"" + uri("b.xml") + "\" /></ruleSet>";
+    }
+
+    @After
+    public void cleanup() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void reloadChangedDocumentsOnly() throws Exception {
+        IncrementalRuleSetLoader loader = IncrementalRuleSetLoader.newInstance();
+        List<Rule<Object>> first = loader.load(mainRuleSet);
+        Assert.assertEquals("[M1, A1, A2, B1, N1]", first.toString());
+        Assert.assertEquals(3, loader.getParsedIncludeCount());
+        Assert.assertEquals(5, loader.getConvertedRuleCount());
+
+        // Nothing changed
+        List<Rule<Object>> second = loader.load(mainRuleSet);
+        Assert.assertEquals(first.toString(), second.toString());
+        Assert.assertEquals(0, loader.getParsedIncludeCount());
+        Assert.assertEquals(2, loader.getReusedIncludeCount());
+        Assert.assertEquals(0, loader.getConvertedRuleCount());
+        for (int i = 0; i < first.size(); i++) {
+            Assert.assertSame(first.get(i), second.get(i));
+        }
+
+        // One rule of one include changed
+        write("a.xml", "<ruleSet>" + createRule("A1", "O") + createRule("A2", "X") + "</ruleSet>");
+        List<Rule<Object>> third = loader.load(mainRuleSet);
+        Assert.assertEquals(first.toString(), third.toString());
+        Assert.assertEquals(1, loader.getParsedIncludeCount());
+        Assert.assertEquals(1, loader.getReusedIncludeCount());
+        Assert.assertEquals(1, loader.getConvertedRuleCount());
+        Assert.assertSame(first.get(1), third.get(1));
+        Assert.assertNotSame(first.get(2), third.get(2));
+        Assert.assertEquals("X", third.get(2).getConditions().get(0).getAttributes().get(0).getValue());
+        Assert.assertSame(first.get(4), third.get(4));
+
+        // A nested include changed
+        write("nested.xml", "<ruleSet><rule id=\"N1\" /><rule id=\"N2\" /></ruleSet>");
+        Assert.assertEquals("[M1, A1, A2, B1, N1, N2]", loader.load(mainRuleSet).toString());
+        Assert.assertEquals(2, loader.getParsedIncludeCount());
+        Assert.assertEquals(1, loader.getReusedIncludeCount());
+        Assert.assertEquals(1, loader.getConvertedRuleCount());
+    }
+
+    @Test
+    public void compactInternedAttributes() throws Exception {
+        IncrementalRuleSetLoader loader = IncrementalRuleSetLoader.newInstance();
+        List<Rule<Object>> first = loader.load(mainRuleSet);
+        int conditionCount = loader.getAttributeInterner().getConditionCount();
+        for (int i = 0; i < 10; i++) {
+            write("a.xml", "<ruleSet>" + createRule("A1", "O") + createRule("A2", "X" + i) + "</ruleSet>");
+            loader.load(mainRuleSet);
+            Assert.assertTrue(loader.getAttributeInterner().getConditionCount()
+                    <= IncrementalRuleSetLoader.COMPACTION_RATIO * (conditionCount + 1));
+        }
+
+        // An explicit reset numbers the attributes from scratch
+        write("a.xml", "<ruleSet>" + createRule("A1", "O") + createRule("A2", "I") + "</ruleSet>");
+        loader.reset();
+        List<Rule<Object>> reset = loader.load(mainRuleSet);
+        Assert.assertEquals(conditionCount, loader.getAttributeInterner().getConditionCount());
+        Assert.assertEquals(5, loader.getConvertedRuleCount());
+        Assert.assertNotSame(first.get(0), reset.get(0));
+    }
+
+    private void write(String fileName, String content) throws Exception {
+        Files.write(new File(directory, fileName).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String uri(String fileName) {
+        return new File(directory, fileName).toURI().toString();
+    }
+
+    private static String createRule(String id, String direction) {
+        // @formatter:off
+        return "<rule id=\"" + id + "\">"
+                + "<goals><attribute name=\"route\" value=\"" + id + "\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" /></goals>"
+                + "<conditions><condition><attribute name=\"Direction\" value=\"" + direction + "\" /></condition></conditions>"
+                + "</rule>";
+        // @formatter:on
+    }
+}
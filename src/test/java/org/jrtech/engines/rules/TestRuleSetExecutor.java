@@ -0,0 +1,641 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jrtech.engines.rules.RuleSetExecutor.ExecutionMode;
+import org.jrtech.engines.rules.model.AbstractAttribute.Owner;
+import org.jrtech.engines.rules.model.ConditionalAttribute;
+import org.jrtech.engines.rules.model.GoalAttribute;
+import org.jrtech.engines.rules.model.Result;
+import org.jrtech.engines.rules.model.Rule;
+import org.jrtech.engines.rules.model.RuleCondition;
+import org.jrtech.engines.rules.model.StringConditionalAttribute;
+import org.jrtech.engines.rules.model.VariableTemplate;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestRuleSetExecutor {
+
+    private static final String RULE_SET = ""
+            // @formatter:off
+            + "<ruleSet name=\"executor\">"
+            + "  <rule id=\"R1\">"
+            + "    <goals><attribute name=\"r1\" value=\"x\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" /></goals>"
+            + "    <conditions><condition><attribute name=\"Direction\" value=\"O\" /></condition></conditions>"
+            + "  </rule>"
+            + "  <rule id=\"R2\" scopeIndex=\"A\" terminating=\"true\">"
+            + "    <goals><attribute name=\"r2\" value=\"x\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" /></goals>"
+            + "    <conditions><condition><attribute name=\"Currency\" value=\"USD\" /></condition></conditions>"
+            + "  </rule>"
+            + "  <rule id=\"R3\" scopeIndex=\"A\">"
+            + "    <goals><attribute name=\"r3\" value=\"x\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" /></goals>"
+            + "    <conditions><condition><attribute name=\"Direction\" value=\"O\" /></condition></conditions>"
+            + "  </rule>"
+            + "</ruleSet>";
+            // @formatter:on
+
+    private List<Rule<Object>> ruleSet;
+
+    @Before
+    public void init() throws Exception {
+        ruleSet = RuleSetLoader.newInstance().load(RULE_SET);
+    }
+
+    @Test
+    public void executionModes() throws Exception {
+        Assert.assertEquals("[R1]", execute(RuleSetExecutor.newInstance(ruleSet, ExecutionMode.FIRST_MATCH)));
+        Assert.assertEquals("[R1, R2, R3]", execute(RuleSetExecutor.newInstance(ruleSet, ExecutionMode.ALL_MATCH)));
+        Assert.assertEquals("[R1, R2]", execute(RuleSetExecutor.newInstance(ruleSet, ExecutionMode.TERMINATING)));
+    }
+
+    @Test
+    public void scopedExecution() throws Exception {
+        RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(ruleSet, ExecutionMode.ALL_MATCH);
+        Assert.assertEquals(2, executor.getScopedExecutor("A").size());
+        Assert.assertNull(executor.getScopedExecutor("B"));
+        Assert.assertEquals("[R2, R3]", execute(executor.getScopedExecutor("A")));
+    }
+
+    @Test
+    public void snapshotIsImmutable() {
+        RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(ruleSet);
+        ruleSet.clear();
+        Assert.assertEquals(3, executor.size());
+        try {
+            executor.getRules().clear();
+            Assert.fail("Rule snapshot must not be modifiable.");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void compiledConditions() throws Exception {
+        Rule<Object> interpreted = RuleSetLoader.newInstance().<Object> load(RULE_SET).get(1);
+        Rule<Object> compiled = ruleSet.get(1);
+        compiled.compile();
+        Assert.assertTrue(compiled.isCompiled());
+        Assert.assertFalse(interpreted.isCompiled());
+
+        for (String currency : new String[] { "USD", "usd", "EUR", null }) {
+            Map<String, Object> sourceObject = new HashMap<>();
+            sourceObject.put("Currency", currency);
+            Assert.assertEquals(currency,
+                    interpreted.apply(sourceObject, new HashMap<>(), new HashMap<String, Object>()),
+                    compiled.apply(sourceObject, new HashMap<>(), new HashMap<String, Object>()));
+        }
+    }
+
+    @Test
+    public void compiledConditionSizes() throws Exception {
+        Random random = new Random(4711);
+        for (int conditionCount = 1; conditionCount <= 5; conditionCount++) {
+            for (int attributeCount = 0; attributeCount <= 5; attributeCount++) {
+                Rule<Object> interpreted = createRule(conditionCount, attributeCount);
+                Rule<Object> compiled = createRule(conditionCount, attributeCount);
+                compiled.compile();
+
+                for (int i = 0; i < 50; i++) {
+                    Map<String, Object> sourceObject = new HashMap<>();
+                    for (int c = 0; c < conditionCount; c++) {
+                        for (int a = 0; a < attributeCount; a++) {
+                            // Mostly matching, so the longer conjunctions match too
+                            sourceObject.put("C" + c + "A" + a, random.nextInt(4) == 0 ? "y" : "x");
+                        }
+                    }
+                    Assert.assertEquals(sourceObject.toString(),
+                            interpreted.apply(sourceObject, new HashMap<>(), new HashMap<String, Object>()),
+                            compiled.apply(sourceObject, new HashMap<>(), new HashMap<String, Object>()));
+                }
+            }
+        }
+    }
+
+    private static Rule<Object> createRule(int conditionCount, int attributeCount) {
+        Rule<Object> rule = new Rule<>("R");
+        for (int c = 0; c < conditionCount; c++) {
+            List<ConditionalAttribute> attributes = new ArrayList<>();
+            for (int a = 0; a < attributeCount; a++) {
+                attributes.add(new StringConditionalAttribute("C" + c + "A" + a, "x"));
+            }
+            rule.getConditions().add(new RuleCondition(attributes));
+        }
+
+        return rule;
+    }
+
+    @Test
+    public void sharedConditions() throws Exception {
+        ConditionalAttribute r1 = ruleSet.get(0).getConditions().get(0).getAttributes().get(0);
+        ConditionalAttribute r3 = ruleSet.get(2).getConditions().get(0).getAttributes().get(0);
+        Assert.assertSame(r1, r3);
+
+        RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(ruleSet, ExecutionMode.ALL_MATCH);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("[R1, R2, R3]", execute(executor));
+        }
+        Map<String, Object> sourceObject = new HashMap<>();
+        sourceObject.put("Direction", "I");
+        Assert.assertTrue(executor.apply(sourceObject, new HashMap<>(), new HashMap<String, Object>()).isEmpty());
+    }
+
+    @Test
+    public void batchMatchesSingleApplication() throws Exception {
+        String[] directions = { "O", "I", null };
+        String[] currencies = { "USD", "EUR" };
+        for (ExecutionMode executionMode : ExecutionMode.values()) {
+            RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(ruleSet, executionMode);
+            List<Object> sourceObjects = new ArrayList<>();
+            List<Object> batchTargetObjects = new ArrayList<>();
+            for (int f = 0; f < RuleSetExecutor.BATCH_CHUNK_SIZE * 2 + 7; f++) {
+                Map<String, Object> sourceObject = new HashMap<>();
+                sourceObject.put("Direction", directions[f % directions.length]);
+                sourceObject.put("Currency", currencies[f % currencies.length]);
+                sourceObjects.add(sourceObject);
+                batchTargetObjects.add(new HashMap<String, Object>());
+            }
+
+            List<List<Rule<Object>>> appliedRuleLists = executor.applyBatch(sourceObjects, batchTargetObjects,
+                    new HashMap<String, Object>());
+            Assert.assertEquals(sourceObjects.size(), appliedRuleLists.size());
+            for (int f = 0; f < sourceObjects.size(); f++) {
+                Map<String, Object> targetObject = new HashMap<>();
+                Assert.assertEquals(executionMode + ":" + f,
+                        executor.apply(sourceObjects.get(f), targetObject, new HashMap<String, Object>()),
+                        appliedRuleLists.get(f));
+                Assert.assertEquals(targetObject, batchTargetObjects.get(f));
+            }
+        }
+
+        RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(ruleSet);
+        Assert.assertTrue(executor.applyBatch(new ArrayList<>(), new ArrayList<>(), null).isEmpty());
+        try {
+            executor.applyBatch(new ArrayList<>(), null, null);
+            Assert.fail("Sources and targets must be paired.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void columnarMatchesSingleApplication() throws Exception {
+        String writer = " writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\"";
+        String ruleSetDefinition = ""
+                // @formatter:off
+                + "<ruleSet name=\"columnar\">"
+                + "  <rule id=\"BIG\">"
+                + "    <goals><attribute name=\"big\" value=\"x\"" + writer + " /></goals>"
+                + "    <conditions><condition>"
+                + "      <attribute name=\"Direction\" value=\"O\" />"
+                + "      <attribute type=\"NumberConditionalAttribute\" name=\"Amount\" value=\"1000\" operatorFunction=\"greaterThan\" />"
+                + "    </condition></conditions>"
+                + "  </rule>"
+                + "  <rule id=\"FX\" terminating=\"true\">"
+                + "    <goals><attribute name=\"fx\" value=\"${Pair@SOURCE}\"" + writer + " /></goals>"
+                + "    <conditions>"
+                + "      <condition><attribute name=\"Currency\" value=\"USD\" negate=\"true\" /><attribute name=\"Direction\" value=\"\" /></condition>"
+                + "      <condition><attribute name=\"Pair\" value=\"'EURUSD', GBPJPY\" operatorFunction=\"in\" /></condition>"
+                + "    </conditions>"
+                + "  </rule>"
+                + "  <rule id=\"ALL\" />"
+                + "  <rule id=\"BIG_EUR\" terminating=\"true\">"
+                + "    <goals><attribute name=\"bigEur\" value=\"x\"" + writer + " /></goals>"
+                + "    <conditions><condition>"
+                + "      <attribute name=\"Pair\" value=\"^EUR.*\" operatorFunction=\"regex\" />"
+                + "      <attribute name=\"big\" value=\"x\" owner=\"TARGET\" />"
+                + "    </condition></conditions>"
+                + "  </rule>"
+                + "  <rule id=\"ALICE\">"
+                + "    <goals><attribute name=\"alice\" value=\"x\"" + writer + " /></goals>"
+                + "    <conditions><condition>"
+                + "      <attribute name=\"${SELF}\" value=\"alice\" readerClass=\"" + UserReader.class.getName() + "\" />"
+                + "      <attribute name=\"Currency\" value=\"usd\" operatorFunction=\"ignoreCase\" />"
+                + "    </condition></conditions>"
+                + "  </rule>"
+                + "</ruleSet>";
+                // @formatter:on
+        List<Rule<Object>> rules = RuleSetLoader.newInstance().<Object> load(ruleSetDefinition);
+        String[] directions = { "O", "I", null };
+        String[] amounts = { "500", "1500", "abc", null, "1000" };
+        String[] currencies = { "USD", "EUR", null };
+        String[] pairs = { "EURUSD", "GBPJPY", "EURCHF", null, "USDCHF", "eurusd" };
+        Map<String, Object> contextVariables = new HashMap<>();
+        contextVariables.put("USER", "alice");
+
+        for (ExecutionMode executionMode : ExecutionMode.values()) {
+            RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(rules, executionMode);
+            List<Object> sourceObjects = new ArrayList<>();
+            List<Object> columnarTargetObjects = new ArrayList<>();
+            for (int f = 0; f < RuleSetExecutor.COLUMNAR_CHUNK_SIZE + 500; f++) {
+                Map<String, Object> sourceObject = new HashMap<>();
+                sourceObject.put("Direction", directions[f % directions.length]);
+                sourceObject.put("Amount", amounts[f % amounts.length]);
+                sourceObject.put("Currency", currencies[(f / 7) % currencies.length]);
+                sourceObject.put("Pair", pairs[(f / 3) % pairs.length]);
+                sourceObjects.add(f % 101 == 0 ? null : sourceObject);
+                columnarTargetObjects.add(new HashMap<String, Object>());
+            }
+
+            List<List<Rule<Object>>> appliedRuleLists = executor.applyColumnar(sourceObjects, columnarTargetObjects,
+                    contextVariables);
+            Assert.assertEquals(sourceObjects.size(), appliedRuleLists.size());
+            for (int f = 0; f < sourceObjects.size(); f++) {
+                Map<String, Object> targetObject = new HashMap<>();
+                Assert.assertEquals(executionMode + ":" + sourceObjects.get(f),
+                        executor.apply(sourceObjects.get(f), targetObject, contextVariables), appliedRuleLists.get(f));
+                Assert.assertEquals(targetObject, columnarTargetObjects.get(f));
+            }
+        }
+    }
+
+    @Test
+    public void goalsInvalidateMemoizedValues() throws Exception {
+        String writer = " writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\"";
+        String ruleSetDefinition = ""
+                // @formatter:off
+                + "<ruleSet name=\"sequence\">"
+                + "  <rule id=\"APPROVE\">"
+                + "    <goals><attribute name=\"status\" value=\"approved\"" + writer + " /></goals>"
+                + "    <conditions><condition>"
+                + "      <attribute name=\"Direction\" value=\"O\" />"
+                + "      <attribute name=\"status\" value=\"approved\" negate=\"true\" />"
+                + "      <attribute name=\"status\" value=\"approved\" owner=\"TARGET\" negate=\"true\" />"
+                + "    </condition></conditions>"
+                + "  </rule>"
+                + "  <rule id=\"APPROVED\">"
+                + "    <goals><attribute name=\"approved\" value=\"x\"" + writer + " /></goals>"
+                + "    <conditions><condition><attribute name=\"status\" value=\"pending\" owner=\"TARGET\" negate=\"true\" /></condition></conditions>"
+                + "  </rule>"
+                + "  <rule id=\"REVIEWED\">"
+                + "    <goals><attribute name=\"reviewed\" value=\"x\"" + writer + " /></goals>"
+                + "    <conditions><condition><attribute name=\"status\" value=\"pending\" negate=\"true\" /></condition></conditions>"
+                + "  </rule>"
+                + "</ruleSet>";
+                // @formatter:on
+        List<Rule<Object>> rules = RuleSetLoader.newInstance().<Object> load(ruleSetDefinition);
+
+        // The goals of APPROVE change the status read by the next rules, from
+        // the target object and, when it is the same object, from the source
+        for (boolean sameObject : new boolean[] { false, true }) {
+            // Sequential application of the rules, as the reference
+            Map<String, Object> expectedTargetObject = newPendingTargetObject();
+            Object expectedSourceObject = sameObject ? expectedTargetObject : newSourceObject();
+            for (Rule<Object> rule : rules) {
+                Assert.assertEquals(Result.SUCCESS, rule.apply(expectedSourceObject, expectedTargetObject, null));
+            }
+            Assert.assertEquals("x", expectedTargetObject.get("approved"));
+            Assert.assertEquals("x", expectedTargetObject.get("reviewed"));
+
+            for (ExecutionMode executionMode : new ExecutionMode[] { ExecutionMode.ALL_MATCH,
+                    ExecutionMode.TERMINATING }) {
+                RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(rules, executionMode);
+                Map<String, Object> targetObject = newPendingTargetObject();
+                Assert.assertEquals("[APPROVE, APPROVED, REVIEWED]",
+                        executor.apply(sameObject ? targetObject : newSourceObject(), targetObject, null).toString());
+                Assert.assertEquals(expectedTargetObject, targetObject);
+
+                List<Object> sourceObjects = new ArrayList<>();
+                List<Object> targetObjects = new ArrayList<>();
+                targetObjects.add(newPendingTargetObject());
+                sourceObjects.add(sameObject ? targetObjects.get(0) : newSourceObject());
+                Assert.assertEquals("[[APPROVE, APPROVED, REVIEWED]]",
+                        executor.applyBatch(sourceObjects, targetObjects, null).toString());
+                Assert.assertEquals(expectedTargetObject, targetObjects.get(0));
+
+                targetObjects.set(0, newPendingTargetObject());
+                sourceObjects.set(0, sameObject ? targetObjects.get(0) : newSourceObject());
+                Assert.assertEquals("[[APPROVE, APPROVED, REVIEWED]]",
+                        executor.applyColumnar(sourceObjects, targetObjects, null).toString());
+                Assert.assertEquals(expectedTargetObject, targetObjects.get(0));
+            }
+        }
+    }
+
+    private static Map<String, Object> newSourceObject() {
+        Map<String, Object> sourceObject = new HashMap<>();
+        sourceObject.put("Direction", "O");
+        return sourceObject;
+    }
+
+    private static Map<String, Object> newPendingTargetObject() {
+        Map<String, Object> targetObject = new HashMap<>();
+        targetObject.put("Direction", "O");
+        targetObject.put("status", "pending");
+        return targetObject;
+    }
+
+    @Test
+    public void inValueSets() throws Exception {
+        StringBuilder currencyPairs = new StringBuilder("'EURUSD', \"USDCHF\", GBPJPY,,");
+        for (int i = 0; i < 5000; i++) {
+            currencyPairs.append(", P").append(i);
+        }
+        String ruleSetDefinition = ""
+                // @formatter:off
+                + "<ruleSet name=\"in\">"
+                + "  <rule id=\"SMALL\">"
+                + "    <goals><attribute name=\"small\" value=\"x\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" /></goals>"
+                + "    <conditions><condition><attribute name=\"Pair\" value=\"'EURUSD', &quot;USDCHF&quot;, GBPJPY\" operatorFunction=\"in\" /></condition></conditions>"
+                + "  </rule>"
+                + "  <rule id=\"LARGE\">"
+                + "    <goals><attribute name=\"large\" value=\"x\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" /></goals>"
+                + "    <conditions><condition><attribute name=\"Pair\" value=\"" + currencyPairs.toString().replace("\"", "&quot;") + "\" operatorFunction=\"in\" /></condition></conditions>"
+                + "  </rule>"
+                + "</ruleSet>";
+                // @formatter:on
+        RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(
+                RuleSetLoader.newInstance().<Object> load(ruleSetDefinition), ExecutionMode.ALL_MATCH);
+
+        String[] pairs = { "EURUSD", "USDCHF", "GBPJPY", "P0", "P4999", "P5000", "eurusd", " EURUSD", "", null };
+        String[] expectedRuleIds = { "[SMALL, LARGE]", "[SMALL, LARGE]", "[SMALL, LARGE]", "[LARGE]", "[LARGE]", "[]",
+                "[]", "[]", "[]", "[]" };
+        for (int i = 0; i < pairs.length; i++) {
+            Map<String, Object> sourceObject = new HashMap<>();
+            sourceObject.put("Pair", pairs[i]);
+            List<String> appliedRuleIds = new ArrayList<>();
+            for (Rule<Object> rule : executor.apply(sourceObject, new HashMap<>(), new HashMap<String, Object>())) {
+                appliedRuleIds.add(rule.getId());
+            }
+            Assert.assertEquals(pairs[i], expectedRuleIds[i], appliedRuleIds.toString());
+        }
+    }
+
+    @Test
+    public void nullActualValues() throws Exception {
+        String writer = " writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\"";
+        String ruleSetDefinition = ""
+                // @formatter:off
+                + "<ruleSet name=\"nulls\">"
+                + "  <rule id=\"MISSING\">"
+                + "    <goals><attribute name=\"missing\" value=\"x\"" + writer + " /></goals>"
+                + "    <conditions><condition><attribute name=\"Currency\" value=\"[NULL]\" /></condition></conditions>"
+                + "  </rule>"
+                + "  <rule id=\"NOT_USD\">"
+                + "    <goals><attribute name=\"notUsd\" value=\"x\"" + writer + " /></goals>"
+                + "    <conditions><condition><attribute name=\"Currency\" value=\"USD\" negate=\"true\" /></condition></conditions>"
+                + "  </rule>"
+                + "  <rule id=\"NULL_TEXT\">"
+                + "    <goals><attribute name=\"nullText\" value=\"x\"" + writer + " /></goals>"
+                + "    <conditions><condition><attribute name=\"Currency\" value=\"null\" /></condition></conditions>"
+                + "  </rule>"
+                + "  <rule id=\"NO_USER\">"
+                + "    <goals><attribute name=\"noUser\" value=\"x\"" + writer + " /></goals>"
+                + "    <conditions><condition><attribute name=\"${SELF}\" value=\"nu\" operatorFunction=\"startsWith\" readerClass=\"" + UserReader.class.getName() + "\" /></condition></conditions>"
+                + "  </rule>"
+                + "</ruleSet>";
+                // @formatter:on
+        List<Rule<Object>> rules = RuleSetLoader.newInstance().<Object> load(ruleSetDefinition);
+        RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(rules, ExecutionMode.ALL_MATCH);
+
+        // A missing value is null and matches no expected value, not even
+        // "null", while the null value of a reader is compared as "null"
+        Map<String, Object> sourceObject = new HashMap<>();
+        Assert.assertEquals("[NOT_USD, NO_USER]",
+                executor.apply(sourceObject, new HashMap<>(), new HashMap<String, Object>()).toString());
+        sourceObject.put("Currency", "null");
+        Assert.assertEquals("[NOT_USD, NULL_TEXT, NO_USER]",
+                executor.apply(sourceObject, new HashMap<>(), new HashMap<String, Object>()).toString());
+    }
+
+    @Test
+    public void concurrentContextReaders() throws Exception {
+        for (String readerClass : new String[] { UserReader.class.getName(), LegacyUserReader.class.getName() }) {
+            String ruleSetDefinition = ""
+                    // @formatter:off
+                    + "<ruleSet name=\"readers\">"
+                    + "  <rule id=\"ALICE\">"
+                    + "    <goals><attribute name=\"alice\" value=\"x\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" /></goals>"
+                    + "    <conditions><condition><attribute name=\"${SELF}\" value=\"alice\" readerClass=\"" + readerClass + "\" /></condition></conditions>"
+                    + "  </rule>"
+                    + "</ruleSet>";
+                    // @formatter:on
+            final RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(
+                    RuleSetLoader.newInstance().<Object> load(ruleSetDefinition), ExecutionMode.ALL_MATCH);
+
+            final AtomicInteger mismatchCount = new AtomicInteger();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final String user = t % 2 == 0 ? "alice" : "bob";
+                Thread thread = new Thread(() -> {
+                    Map<String, Object> contextVariables = new HashMap<>();
+                    contextVariables.put("USER", user);
+                    for (int i = 0; i < 20000; i++) {
+                        try {
+                            boolean applied = !executor.apply(new HashMap<>(), new HashMap<>(), contextVariables)
+                                    .isEmpty();
+                            if (applied != "alice".equals(user)) {
+                                mismatchCount.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            mismatchCount.incrementAndGet();
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            Assert.assertEquals(readerClass, 0, mismatchCount.get());
+        }
+    }
+
+    @Test
+    public void variableTemplates() throws Exception {
+        String ruleSetDefinition = ""
+                // @formatter:off
+                + "<ruleSet name=\"variables\">"
+                + "  <rule id=\"V\">"
+                + "    <goals>"
+                + "      <attribute name=\"user\" value=\"${USER@CONTEXT}\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" />"
+                + "      <attribute name=\"text\" value=\"${EMPTY@context}${USER@CONTEXT} paid ${Currency@SOURCE} ${MISSING@CONTEXT}.${\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" />"
+                + "      <attribute name=\"today\" value=\"${today@SYSTEM}${unknown@SYSTEM}\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" />"
+                + "      <attribute name=\"copy\" value=\"${user}\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" />"
+                + "    </goals>"
+                + "    <conditions><condition><attribute name=\"Currency\" value=\"USD\" /></condition></conditions>"
+                + "  </rule>"
+                + "</ruleSet>";
+                // @formatter:on
+        Rule<Object> rule = RuleSetLoader.newInstance().<Object> load(ruleSetDefinition).get(0);
+        GoalAttribute user = rule.getGoals().get(0);
+        Assert.assertTrue(user.getVariableTemplate().isSingleVariable());
+        Assert.assertEquals(Owner.TARGET, rule.getGoals().get(3).getVariableTemplate().getVariableOwner(0));
+
+        Map<String, Object> sourceObject = new HashMap<>();
+        sourceObject.put("Currency", "USD");
+        sourceObject.put("Amount", 42);
+        Map<String, Object> contextVariables = new HashMap<>();
+        contextVariables.put("USER", "alice");
+        contextVariables.put("EMPTY", "");
+        for (int i = 0; i < 2; i++) {
+            Map<String, Object> targetObject = new HashMap<>();
+            Assert.assertEquals(Result.SUCCESS, rule.apply(sourceObject, targetObject, contextVariables));
+            Assert.assertEquals("alice", targetObject.get("user"));
+            Assert.assertEquals("alice paid USD null.${", targetObject.get("text"));
+            Assert.assertTrue(((String) targetObject.get("today")).matches("\\d{4}-\\d{2}-\\d{2}.*"));
+            Assert.assertEquals("alice", targetObject.get("copy"));
+        }
+
+        Map<String, Object> targetObject = new HashMap<>();
+        Assert.assertEquals(Result.SUCCESS, rule.apply(sourceObject, targetObject, new HashMap<String, Object>()));
+        Assert.assertEquals("", targetObject.get("user"));
+        Assert.assertEquals(" paid USD .${", targetObject.get("text"));
+
+        VariableTemplate amount = VariableTemplate.compile("${Amount@SOURCE}", Owner.TARGET);
+        Assert.assertEquals(42, amount.resolve(user, sourceObject, targetObject, contextVariables));
+        Assert.assertNull(VariableTemplate.compile("${Amount}", Owner.TARGET).resolve(user, sourceObject,
+                targetObject, contextVariables));
+    }
+
+    @Test
+    public void typedGoals() throws Exception {
+        String ruleSetDefinition = ""
+                // @formatter:off
+                + "<ruleSet name=\"goals\">"
+                + "  <rule id=\"MAP\">"
+                + "    <goals>"
+                + "      <attribute name=\"amount\" value=\"${Amount@SOURCE}\" writerClass=\"" + ObjectValueWriter.class.getName() + "\" />"
+                + "    </goals>"
+                + "    <conditions><condition><attribute name=\"Currency\" value=\"USD\" /></condition></conditions>"
+                + "  </rule>"
+                + "  <rule id=\"BEAN\">"
+                + "    <goals>"
+                + "      <attribute name=\"balance\" value=\"${Amount@SOURCE}\" />"
+                + "      <attribute name=\"currency\" value=\"${Currency@SOURCE}\" />"
+                + "      <attribute name=\"note\" value=\"${Currency@SOURCE}\" method=\"put\" />"
+                + "    </goals>"
+                + "    <conditions><condition><attribute name=\"Currency\" value=\"USD\" /></condition></conditions>"
+                + "  </rule>"
+                + "</ruleSet>";
+                // @formatter:on
+        List<Rule<Object>> rules = RuleSetLoader.newInstance().<Object> load(ruleSetDefinition);
+
+        Map<String, Object> sourceObject = new HashMap<>();
+        sourceObject.put("Currency", "USD");
+        for (Object amount : new Object[] { "42", 42 }) {
+            sourceObject.put("Amount", amount);
+            TestAttributeAccessorRegistry.Account account = new TestAttributeAccessorRegistry.Account();
+            Assert.assertEquals(Result.SUCCESS, rules.get(1).apply(sourceObject, account, null));
+            Assert.assertEquals(42, account.getBalance());
+            Assert.assertEquals("USD", account.getCurrency());
+            Assert.assertEquals("note=USD", account.getNote());
+        }
+
+        // Writers and setters of Object values get strings, like BeanUtils sets them
+        Map<String, Object> contextVariables = new HashMap<>();
+        contextVariables.put("Amount", new BigDecimal("42.0"));
+        Map<String, Object> targetObject = new HashMap<>();
+        new GoalAttribute("amount", "${Amount@CONTEXT}", "", Owner.TARGET, ObjectValueWriter.class.getName())
+                .apply(sourceObject, targetObject, contextVariables);
+        Assert.assertEquals("42.0", targetObject.get("amount"));
+        new GoalAttribute("balance", "${Amount@CONTEXT}", "", Owner.TARGET).apply(sourceObject, targetObject,
+                contextVariables);
+        Assert.assertEquals("42.0", targetObject.get("balance"));
+
+        // The value type is the type argument of the writer, not one of its overloads
+        GoalAttribute integerGoal = new GoalAttribute("amount", "${Amount@SOURCE}", "", Owner.TARGET,
+                IntegerValueWriter.class.getName());
+        integerGoal.apply(sourceObject, targetObject, null);
+        Assert.assertEquals(42, targetObject.get("amount"));
+    }
+
+    public static class ObjectValueWriter implements ObjectAttributeWriter<Map<String, Object>, Object> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean write(Map<String, Object> targetObject, String attributeName, Object value) {
+            targetObject.put(attributeName, value);
+            return true;
+        }
+    }
+
+    public abstract static class TypedValueWriter<V> implements ObjectAttributeWriter<Map<String, Object>, V> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean write(Map<String, Object> targetObject, String attributeName, V value) {
+            targetObject.put(attributeName, value);
+            return true;
+        }
+    }
+
+    public static class IntegerValueWriter extends TypedValueWriter<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        public boolean write(Map<String, Object> targetObject, String attributeName, String value) {
+            return write(targetObject, attributeName, Integer.valueOf(value));
+        }
+    }
+
+    public static class UserReader implements ContextualObjectAttributeReader<Object, String> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String read(Object objectValue, Map<String, Object> contextData) {
+            return (String) contextData.get("USER");
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    public static class LegacyUserReader implements ContextAwareObjectAttributeReader<Object, String> {
+        private static final long serialVersionUID = 1L;
+
+        private Map<String, Object> contextData;
+
+        @Override
+        public String read(Object objectValue) {
+            Thread.yield();
+            return (String) contextData.get("USER");
+        }
+
+        @Override
+        public void setContextData(Map<String, Object> contextData) {
+            this.contextData = contextData;
+        }
+
+        @Override
+        public Map<String, Object> getContextData() {
+            return contextData;
+        }
+    }
+
+    private String execute(RuleSetExecutor<Object> executor) throws Exception {
+        Map<String, Object> sourceObject = new HashMap<>();
+        sourceObject.put("Direction", "O");
+        sourceObject.put("Currency", "USD");
+        Map<String, Object> targetObject = new HashMap<>();
+
+        List<String> appliedRuleIds = new ArrayList<>();
+        for (Rule<Object> rule : executor.apply(sourceObject, targetObject, new HashMap<String, Object>())) {
+            appliedRuleIds.add(rule.getId());
+            Assert.assertEquals("x", targetObject.get(rule.getId().toLowerCase()));
+        }
+
+        return appliedRuleIds.toString();
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.jrtech.engines.rules.RuleSetExecutor.ExecutionMode;
+import org.jrtech.engines.rules.model.Result;
+import org.jrtech.engines.rules.model.Rule;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestRuleSetIndex {
+
+    private static final String[] DIRECTIONS = { "I", "O" };
+
+    private static final String[] CURRENCIES = { "USD", "EUR", "CHF", "GBP", "JPY" };
+
+    private static final String[] MESSAGE_TYPES = { "103", "202", "540", "950" };
+
+    private String ruleSetDefinition;
+
+    @Before
+    public void init() {
+        Random random = new Random(4711);
+        StringBuilder sb = new StringBuilder("<ruleSet name=\"index\">");
+        for (int i = 0; i < 300; i++) {
+            sb.append("<rule id=\"R").append(i).append("\"><goals>");
+            sb.append("<attribute name=\"r\" value=\"x\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" />");
+            sb.append("</goals><conditions>");
+            for (int c = 0, count = 1 + random.nextInt(2); c < count; c++) {
+                sb.append("<condition>");
+                sb.append(attribute("Direction", DIRECTIONS[random.nextInt(DIRECTIONS.length)], random.nextInt(10) == 0, ""));
+                sb.append(attribute("Currency", CURRENCIES[random.nextInt(CURRENCIES.length)], random.nextInt(10) == 0, ""));
+                if (random.nextInt(5) == 0) {
+                    sb.append(attribute("MessageType", MESSAGE_TYPES[random.nextInt(MESSAGE_TYPES.length)].charAt(0) + ".*", false, "regex"));
+                } else {
+                    sb.append(attribute("MessageType", MESSAGE_TYPES[random.nextInt(MESSAGE_TYPES.length)], false, ""));
+                }
+                sb.append("</condition>");
+            }
+            sb.append("</conditions></rule>");
+        }
+        ruleSetDefinition = sb.append("</ruleSet>").toString();
+    }
+
+    @Test
+    public void indexedMatchesLinearScan() throws Exception {
+        List<Rule<Object>> linearRuleSet = RuleSetLoader.newInstance().load(ruleSetDefinition);
+        RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(RuleSetLoader.newInstance().<Object> load(
+                ruleSetDefinition), ExecutionMode.ALL_MATCH);
+        Assert.assertTrue(executor.getRuleSetIndex().getUnguardedRuleCount() < executor.size());
+
+        for (String direction : DIRECTIONS) {
+            for (String currency : CURRENCIES) {
+                for (String messageType : MESSAGE_TYPES) {
+                    Map<String, Object> sourceObject = new HashMap<>();
+                    sourceObject.put("Direction", direction);
+                    sourceObject.put("Currency", currency);
+                    sourceObject.put("MessageType", messageType);
+
+                    List<String> expectedRuleIds = new ArrayList<>();
+                    for (Rule<Object> rule : linearRuleSet) {
+                        if (Result.SUCCESS.equals(rule.apply(sourceObject, new HashMap<String, Object>(),
+                                new HashMap<String, Object>()))) {
+                            expectedRuleIds.add(rule.getId());
+                        }
+                    }
+
+                    List<String> appliedRuleIds = new ArrayList<>();
+                    for (Rule<Object> rule : executor.apply(sourceObject, new HashMap<String, Object>(),
+                            new HashMap<String, Object>())) {
+                        appliedRuleIds.add(rule.getId());
+                    }
+
+                    Assert.assertEquals(sourceObject.toString(), expectedRuleIds, appliedRuleIds);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rangesMatchLinearScan() throws Exception {
+        String[] numberOperators = { "greaterOrEquals", "greaterThan", "lessThan", "lessOrEquals", "equals" };
+        String[] dateOperators = { "since", "after", "before", "until", "at" };
+        Random random = new Random(4712);
+        StringBuilder sb = new StringBuilder("<ruleSet name=\"ranges\">");
+        for (int i = 0; i < 400; i++) {
+            sb.append("<rule id=\"R").append(i).append("\"><goals>");
+            sb.append("<attribute name=\"r\" value=\"x\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" />");
+            sb.append("</goals><conditions><condition>");
+            if (i % 2 == 0) {
+                // Amount bands, e.g. [1000, 1250)
+                int lower = (i / 2) * 250;
+                sb.append(attribute("NumberConditionalAttribute", "Amount", "" + lower, "greaterOrEquals"));
+                sb.append(attribute("NumberConditionalAttribute", "Amount", (lower + 250) + ".00", "lessThan"));
+                if (random.nextInt(4) == 0) {
+                    sb.append(attribute("NumberConditionalAttribute", "Amount", "" + (lower + random.nextInt(500)),
+                            numberOperators[random.nextInt(numberOperators.length)]));
+                }
+            } else {
+                String type = random.nextBoolean() ? "DateConditionalAttribute" : "DatetimeConditionalAttribute";
+                sb.append(attribute(type, "Now", "2018-" + month(random.nextInt(12)) + "-01",
+                        dateOperators[random.nextInt(dateOperators.length)]));
+                if (random.nextBoolean()) {
+                    sb.append(attribute(type, "Now", "2018-" + month(random.nextInt(12)) + "-15",
+                            dateOperators[random.nextInt(dateOperators.length)]));
+                }
+            }
+            sb.append("</condition></conditions></rule>");
+        }
+        String definition = sb.append("</ruleSet>").toString();
+
+        List<Rule<Object>> linearRuleSet = RuleSetLoader.newInstance().load(definition);
+        RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(RuleSetLoader.newInstance().<Object> load(
+                definition), ExecutionMode.ALL_MATCH);
+        Assert.assertEquals(0, executor.getRuleSetIndex().getUnguardedRuleCount());
+
+        String[] amounts = { "0", "249", "250", "249.99", "1000.5", "12345", "-1", "49999", "50000", "1e3", "abc", null };
+        String[] dates = { "2018-01-01", "2017-12-31", "2018-03-01", "2018-06-14", "2018-06-15", "2018-12-31",
+                "2019-01-01", "2018-06-15T10:00:00", "20180601", "2018-06-15.5", "1999-01-01", "2040-06-15",
+                "2040-06-15T10:00:00", "n/a", null };
+        for (String amount : amounts) {
+            for (String date : dates) {
+                Map<String, Object> sourceObject = new HashMap<>();
+                sourceObject.put("Amount", amount);
+                sourceObject.put("Now", date);
+
+                List<String> expectedRuleIds = new ArrayList<>();
+                for (Rule<Object> rule : linearRuleSet) {
+                    if (Result.SUCCESS.equals(rule.apply(sourceObject, new HashMap<String, Object>(),
+                            new HashMap<String, Object>()))) {
+                        expectedRuleIds.add(rule.getId());
+                    }
+                }
+
+                List<String> appliedRuleIds = new ArrayList<>();
+                for (Rule<Object> rule : executor.apply(sourceObject, new HashMap<String, Object>(),
+                        new HashMap<String, Object>())) {
+                    appliedRuleIds.add(rule.getId());
+                }
+
+                Assert.assertEquals(sourceObject.toString(), expectedRuleIds, appliedRuleIds);
+            }
+        }
+    }
+
+    @Test
+    public void patternsMatchLinearScan() throws Exception {
+        String[] operators = { "startsWith", "endsWith", "contains", "equals" };
+        String alphabet = "ABCD";
+        Random random = new Random(4713);
+        StringBuilder sb = new StringBuilder("<ruleSet name=\"patterns\">");
+        for (int i = 0; i < 400; i++) {
+            sb.append("<rule id=\"R").append(i).append("\"><goals>");
+            sb.append("<attribute name=\"r\" value=\"x\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" />");
+            sb.append("</goals><conditions><condition>");
+            sb.append(attribute("Bic", randomString(random, alphabet, 1 + random.nextInt(4)), false,
+                    operators[random.nextInt(operators.length)]));
+            if (random.nextInt(3) == 0) {
+                sb.append(attribute("Bic", i % 7 == 0 ? "" : randomString(random, alphabet, 1 + random.nextInt(2)),
+                        false, operators[random.nextInt(operators.length)]));
+            }
+            sb.append("</condition></conditions></rule>");
+        }
+        String definition = sb.append("</ruleSet>").toString();
+
+        List<Rule<Object>> linearRuleSet = RuleSetLoader.newInstance().load(definition);
+        RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(RuleSetLoader.newInstance().<Object> load(
+                definition), ExecutionMode.ALL_MATCH);
+        Assert.assertEquals(0, executor.getRuleSetIndex().getUnguardedRuleCount());
+
+        List<String> bics = new ArrayList<>();
+        bics.add(null);
+        bics.add("");
+        for (int i = 0; i < 200; i++) {
+            bics.add(randomString(random, alphabet + "X", random.nextInt(9)));
+        }
+        for (String bic : bics) {
+            Map<String, Object> sourceObject = new HashMap<>();
+            sourceObject.put("Bic", bic);
+
+            List<String> expectedRuleIds = new ArrayList<>();
+            for (Rule<Object> rule : linearRuleSet) {
+                if (Result.SUCCESS.equals(rule.apply(sourceObject, new HashMap<String, Object>(),
+                        new HashMap<String, Object>()))) {
+                    expectedRuleIds.add(rule.getId());
+                }
+            }
+
+            List<String> appliedRuleIds = new ArrayList<>();
+            for (Rule<Object> rule : executor.apply(sourceObject, new HashMap<String, Object>(),
+                    new HashMap<String, Object>())) {
+                appliedRuleIds.add(rule.getId());
+            }
+
+            Assert.assertEquals(sourceObject.toString(), expectedRuleIds, appliedRuleIds);
+        }
+    }
+
+    @Test
+    public void regexesMatchLinearScan() throws Exception {
+        // @formatter:off
+        String[] atoms = { "a", "b", "1", ".", "\\d", "\\w", "\\s", "\\.", "[ab]", "[^a]", "[a-c1]", "[-a]", "[\\d.]",
+                "(a|b1)", "(?:ab)", "()", "(a|)", "\\1", "(?=a)", "\\bx" };
+        String[] quantifiers = { "", "", "", "*", "+", "?", "{2}", "{1,3}", "{0,}", "*?", "+?", "*+" };
+        // @formatter:on
+        Random random = new Random(4714);
+        StringBuilder sb = new StringBuilder("<ruleSet name=\"regexes\">");
+        for (int i = 0; i < 300; i++) {
+            StringBuilder regex = new StringBuilder(random.nextInt(5) == 0 ? "^" : "");
+            for (int a = 0, count = 1 + random.nextInt(4); a < count; a++) {
+                regex.append(atoms[random.nextInt(atoms.length)]).append(quantifiers[random.nextInt(quantifiers.length)]);
+                if (random.nextInt(8) == 0) {
+                    regex.append("|");
+                }
+            }
+            regex.append(random.nextInt(5) == 0 ? "$" : "");
+            sb.append("<rule id=\"R").append(i).append("\"><goals>");
+            sb.append("<attribute name=\"r\" value=\"x\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" />");
+            sb.append("</goals><conditions><condition>");
+            sb.append(attribute("Reference", regex.toString().replace("&", "&amp;").replace("<", "&lt;"), false, "regex"));
+            sb.append("</condition></conditions></rule>");
+        }
+        String definition = sb.append("</ruleSet>").toString();
+
+        List<Rule<Object>> linearRuleSet = RuleSetLoader.newInstance().load(definition);
+        RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(RuleSetLoader.newInstance().<Object> load(
+                definition), ExecutionMode.ALL_MATCH);
+        Assert.assertTrue(executor.getRuleSetIndex().getUnguardedRuleCount() < executor.size() / 2);
+
+        List<String> references = new ArrayList<>();
+        references.add(null);
+        references.add("");
+        references.add("a\uD83D\uDE00");
+        for (int i = 0; i < 500; i++) {
+            references.add(randomString(random, "ab1c.- \n", random.nextInt(7)));
+        }
+        for (String reference : references) {
+            Map<String, Object> sourceObject = new HashMap<>();
+            sourceObject.put("Reference", reference);
+
+            List<String> expectedRuleIds = new ArrayList<>();
+            for (Rule<Object> rule : linearRuleSet) {
+                if (Result.SUCCESS.equals(rule.apply(sourceObject, new HashMap<String, Object>(),
+                        new HashMap<String, Object>()))) {
+                    expectedRuleIds.add(rule.getId());
+                }
+            }
+
+            List<String> appliedRuleIds = new ArrayList<>();
+            for (Rule<Object> rule : executor.apply(sourceObject, new HashMap<String, Object>(),
+                    new HashMap<String, Object>())) {
+                appliedRuleIds.add(rule.getId());
+            }
+
+            Assert.assertEquals(sourceObject.toString(), expectedRuleIds, appliedRuleIds);
+        }
+    }
+
+    @Test
+    public void regexesBeyondDfaMatchConcurrently() throws Exception {
+        // The DFA of the first expression needs 2^13 states, so the NFA is simulated
+        String[] regexes = { "[ab]*a[ab]{12}", "b[ab]*", "[ab]{13}" };
+        StringBuilder sb = new StringBuilder("<ruleSet name=\"nfa\">");
+        for (int i = 0; i < regexes.length; i++) {
+            sb.append("<rule id=\"R").append(i).append("\"><goals>");
+            sb.append("<attribute name=\"r\" value=\"x\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" />");
+            sb.append("</goals><conditions><condition>");
+            sb.append(attribute("Reference", regexes[i], false, "regex"));
+            sb.append("</condition></conditions></rule>");
+        }
+        final RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(RuleSetLoader.newInstance().<Object> load(
+                sb.append("</ruleSet>").toString()), ExecutionMode.ALL_MATCH);
+        Assert.assertEquals(0, executor.getRuleSetIndex().getUnguardedRuleCount());
+
+        final List<String> references = new ArrayList<>();
+        Random random = new Random(4715);
+        for (int i = 0; i < 200; i++) {
+            references.add(randomString(random, "ab", 10 + random.nextInt(8)));
+        }
+        final List<String> failures = Collections.synchronizedList(new ArrayList<String>());
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    for (String reference : references) {
+                        Map<String, Object> sourceObject = new HashMap<>();
+                        sourceObject.put("Reference", reference);
+                        List<String> expectedRuleIds = new ArrayList<>();
+                        for (int i = 0; i < regexes.length; i++) {
+                            if (reference.matches(regexes[i])) {
+                                expectedRuleIds.add("R" + i);
+                            }
+                        }
+                        List<String> appliedRuleIds = new ArrayList<>();
+                        for (Rule<Object> rule : executor.apply(sourceObject, new HashMap<String, Object>(), null)) {
+                            appliedRuleIds.add(rule.getId());
+                        }
+                        if (!expectedRuleIds.equals(appliedRuleIds)) {
+                            failures.add(reference + ": " + appliedRuleIds);
+                        }
+                    }
+                } catch (Exception e) {
+                    failures.add(e.toString());
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals("[]", failures.toString());
+    }
+
+    @Test
+    public void goalsEnableGuardedRules() throws Exception {
+        String writer = " writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\"";
+        String definition = ""
+                // @formatter:off
+                + "<ruleSet name=\"sequence\">"
+                + "  <rule id=\"APPROVE\">"
+                + "    <goals><attribute name=\"status\" value=\"approved\"" + writer + " /></goals>"
+                + "    <conditions><condition><attribute name=\"Direction\" value=\"O\" /></condition></conditions>"
+                + "  </rule>"
+                + "  <rule id=\"APPROVED\">"
+                + "    <goals><attribute name=\"approved\" value=\"x\"" + writer + " /></goals>"
+                + "    <conditions><condition><attribute name=\"status\" value=\"approved\" owner=\"TARGET\" /></condition></conditions>"
+                + "  </rule>"
+                + "</ruleSet>";
+                // @formatter:on
+        Map<String, Object> sourceObject = new HashMap<>();
+        sourceObject.put("Direction", "O");
+        for (ExecutionMode executionMode : new ExecutionMode[] { ExecutionMode.ALL_MATCH, ExecutionMode.TERMINATING }) {
+            RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(RuleSetLoader.newInstance().<Object> load(
+                    definition), executionMode);
+            Assert.assertEquals(0, executor.getRuleSetIndex().getUnguardedRuleCount());
+
+            Map<String, Object> targetObject = new HashMap<>();
+            Assert.assertEquals("[APPROVE, APPROVED]", executor.apply(sourceObject, targetObject, null).toString());
+            Assert.assertEquals("x", targetObject.get("approved"));
+
+            List<Object> sourceObjects = new ArrayList<>();
+            sourceObjects.add(sourceObject);
+            List<Object> targetObjects = new ArrayList<>();
+            targetObjects.add(new HashMap<String, Object>());
+            Assert.assertEquals("[[APPROVE, APPROVED]]",
+                    executor.applyBatch(sourceObjects, targetObjects, null).toString());
+        }
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    private static String month(int month) {
+        return month < 9 ? "0" + (month + 1) : "" + (month + 1);
+    }
+
+    private static String attribute(String name, String value, boolean negate, String operatorFunction) {
+        return "<attribute name=\"" + name + "\" value=\"" + value + "\" negate=\"" + negate
+                + "\" operatorFunction=\"" + operatorFunction + "\" />";
+    }
+
+    private static String attribute(String type, String name, String value, String operatorFunction) {
+        return "<attribute type=\"" + type + "\" name=\"" + name + "\" value=\"" + value
+                + "\" operatorFunction=\"" + operatorFunction + "\" />";
+    }
+}
@@ -16,13 +16,22 @@
  */
 package org.jrtech.engines.rules;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 
+import org.jrtech.engines.rules.model.AbstractAttribute.Owner;
+import org.jrtech.engines.rules.model.ConditionalAttribute;
+import org.jrtech.engines.rules.model.DateConditionalAttribute;
+import org.jrtech.engines.rules.model.GoalAttribute;
 import org.jrtech.engines.rules.model.Rule;
 import org.junit.Assert;
 import org.junit.Test;
+import org.w3c.dom.Element;
 
 public class TestRuleSetLoader {
     
@@ -49,4 +58,135 @@ public class TestRuleSetLoader {
         }
     }
 
+    @Test
+    public void internAttributes() throws Exception {
+        InputStream is = getClass().getResourceAsStream("/rules/test-rule-def-2.xml");
+        try {
+            List<Rule<Object>> intList = loder.load(is);
+            // Spring ends where Summer starts
+            ConditionalAttribute springBefore = intList.get(0).getConditions().get(0).getAttributes().get(1);
+            ConditionalAttribute summerSince = intList.get(1).getConditions().get(0).getAttributes().get(0);
+            Assert.assertEquals(springBefore.getValue(), summerSince.getValue());
+            Assert.assertNotSame(springBefore, summerSince);
+            Assert.assertNotEquals(springBefore.getConditionId(), summerSince.getConditionId());
+
+            Assert.assertSame(intList.get(0).getGoals().get(0), loder.getAttributeInterner().intern(
+                    new GoalAttribute("timeLabel", "Spring", "", Owner.TARGET,
+                            "org.jrtech.engines.rules.writer.MapStringValueWriter")));
+            Assert.assertSame(summerSince, loder.getAttributeInterner().intern(
+                    new DateConditionalAttribute("Now", "2018-06-01", false, Owner.SOURCE, "since")));
+        } finally {
+            is.close();
+        }
+    }
+
+    @Test
+    public void reloadRenumbersAttributes() throws Exception {
+        for (RuleSetLoader loader : new RuleSetLoader[] { RuleSetLoader.newInstance(),
+                StreamingRuleSetLoader.newInstance() }) {
+            List<Rule<Object>> first = load(loader, "/rules/test-rule-def-2.xml");
+            int conditionCount = loader.getAttributeInterner().getConditionCount();
+            int valueSlotCount = loader.getAttributeInterner().getValueSlotCount();
+            List<Rule<Object>> second = load(loader, "/rules/test-rule-def-2.xml");
+            Assert.assertEquals(conditionCount, loader.getAttributeInterner().getConditionCount());
+            Assert.assertEquals(valueSlotCount, loader.getAttributeInterner().getValueSlotCount());
+            Assert.assertEquals(first.get(1).getConditions().get(0).getAttributes().get(0).getConditionId(),
+                    second.get(1).getConditions().get(0).getAttributes().get(0).getConditionId());
+        }
+    }
+
+    private static List<Rule<Object>> load(RuleSetLoader loader, String resource) throws Exception {
+        InputStream is = TestRuleSetLoader.class.getResourceAsStream(resource);
+        try {
+            return loader.load(is);
+        } finally {
+            is.close();
+        }
+    }
+
+    @Test
+    public void parallelIncludes() throws Exception {
+        List<File> includeFiles = new ArrayList<>();
+        try {
+            StringBuilder mainRuleSet = new StringBuilder("<ruleSet name=\"main\"><rule id=\"M\" scopeIndex=\"A\" />");
+            for (int i = 0; i < 10; i++) {
+                File includeFile = File.createTempFile("include-" + i + "-", ".xml");
+                includeFiles.add(includeFile);
+                // Each include repeats the rule of the previous one and includes itself
+                Files.write(includeFile.toPath(), ("<ruleSet name=\"include\">" + "<rule id=\"I" + i
+                        + "\" scopeIndex=\"A\" /><rule id=\"I" + Math.max(0, i - 1) + "\" /><include uri=\""
+                        + includeFile.toURI() + "\" /></ruleSet>").getBytes(StandardCharsets.UTF_8));
+                mainRuleSet.append("<include uri=\"").append(includeFile.toURI()).append("\" />");
+            }
+            mainRuleSet.append("<include uri=\"missing-include.xml\" /></ruleSet>");
+
+            String expected = "[M, I0, I1, I2, I3, I4, I5, I6, I7, I8, I9]";
+            for (int includeParallelism : new int[] { 1, 4 }) {
+                RuleSetLoader loader = RuleSetLoader.newInstance();
+                loader.setIncludeParallelism(includeParallelism);
+                Assert.assertEquals(expected, loader.load(mainRuleSet.toString()).toString());
+                Assert.assertEquals("main", loader.getRuleSetName());
+                Assert.assertEquals(expected, loader.getScopeIndexedRuleSetCatalog().get("A").toString());
+            }
+        } finally {
+            for (File includeFile : includeFiles) {
+                includeFile.delete();
+            }
+        }
+    }
+
+    @Test
+    public void skipMalformedIncludes() throws Exception {
+        File goodIncludeFile = File.createTempFile("good-include", ".xml");
+        File badIncludeFile = File.createTempFile("bad-include", ".xml");
+        try {
+            Files.write(goodIncludeFile.toPath(), "<ruleSet name=\"good\"><rule id=\"G\" /></ruleSet>"
+                    .getBytes(StandardCharsets.UTF_8));
+            // The rules of an include are skipped as a whole
+            Files.write(badIncludeFile.toPath(), ("<ruleSet name=\"bad\"><rule id=\"B\" />"
+                    + "<rule id=\"MALFORMED\" /></ruleSet>").getBytes(StandardCharsets.UTF_8));
+            String mainRuleSet = "<ruleSet name=\"main\"><rule id=\"M1\" /><include uri=\"" + badIncludeFile.toURI()
+                    + "\" /><include uri=\"" + goodIncludeFile.toURI() + "\" /><rule id=\"M2\" /></ruleSet>";
+
+            // @formatter:off
+            RuleSetLoader[] loaders = {
+                new RuleSetLoader() {
+                    @Override
+                    protected <T> Rule<T> xmlToRule(Element xmlRuleElement) {
+                        return super.xmlToRule(checkMalformed(xmlRuleElement));
+                    }
+                },
+                new StreamingRuleSetLoader() {
+                    @Override
+                    protected <T> Rule<T> xmlToRule(Element xmlRuleElement) {
+                        return super.xmlToRule(checkMalformed(xmlRuleElement));
+                    }
+                },
+                new IncrementalRuleSetLoader() {
+                    @Override
+                    protected <T> Rule<T> xmlToRule(Element xmlRuleElement) {
+                        return super.xmlToRule(checkMalformed(xmlRuleElement));
+                    }
+                } };
+            // @formatter:on
+            for (RuleSetLoader loader : loaders) {
+                for (int includeParallelism : new int[] { 1, 4 }) {
+                    loader.setIncludeParallelism(includeParallelism);
+                    Assert.assertEquals("[M1, G, M2]", loader.load(mainRuleSet).toString());
+                }
+            }
+        } finally {
+            goodIncludeFile.delete();
+            badIncludeFile.delete();
+        }
+    }
+
+    private static Element checkMalformed(Element xmlRuleElement) {
+        if ("MALFORMED".equals(xmlRuleElement.getAttribute("id"))) {
+            throw new IllegalArgumentException("Malformed rule");
+        }
+
+        return xmlRuleElement;
+    }
+
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.jrtech.engines.rules.RuleSetExecutor.ExecutionMode;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestRuleSetRegistry {
+
+    private static final long WATCH_TIMEOUT_MILLIS = 30000;
+
+    @Test
+    public void pushedVersions() throws Exception {
+        try (RuleSetRegistry<Object> registry = RuleSetRegistry.newInstance()) {
+            Assert.assertNull(registry.getExecutor("routing"));
+
+            registry.push("routing", createRuleSet("v1"), ExecutionMode.FIRST_MATCH).get(10, TimeUnit.SECONDS);
+            RuleSetExecutor<Object> inFlight = registry.getExecutor("routing");
+            Assert.assertEquals(1, registry.getVersion("routing"));
+
+            registry.push("routing", createRuleSet("v2"), ExecutionMode.FIRST_MATCH).get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(2, registry.getVersion("routing"));
+            Assert.assertEquals("v2", route(registry.getExecutor("routing")));
+            // An evaluation holding the previous version is not affected
+            Assert.assertEquals("v1", route(inFlight));
+
+            try {
+                registry.push("routing", "<ruleSet", ExecutionMode.FIRST_MATCH).get(10, TimeUnit.SECONDS);
+                Assert.fail("Invalid rule set must not be published.");
+            } catch (ExecutionException e) {
+                // expected
+            }
+            Assert.assertEquals(2, registry.getVersion("routing"));
+            Assert.assertEquals("v2", route(registry.getExecutor("routing")));
+
+            // An unknown rule set is only registered with a valid version
+            try {
+                registry.push("billing", "<ruleSet", ExecutionMode.FIRST_MATCH).get(10, TimeUnit.SECONDS);
+                Assert.fail("Invalid rule set must not be registered.");
+            } catch (ExecutionException e) {
+                // expected
+            }
+            Assert.assertNull(registry.getExecutor("billing"));
+            Assert.assertEquals(-1, registry.getVersion("billing"));
+            Assert.assertFalse(registry.getKeys().contains("billing"));
+        }
+    }
+
+    @Test
+    public void watchedFile() throws Exception {
+        File ruleSetFile = File.createTempFile("registry", ".xml");
+        try (RuleSetRegistry<Object> registry = RuleSetRegistry.newInstance(StreamingRuleSetLoader::newInstance)) {
+            Files.write(ruleSetFile.toPath(), createRuleSet("v1").getBytes(StandardCharsets.UTF_8));
+            Assert.assertEquals("v1",
+                    route(registry.register("routing", ruleSetFile.toPath(), ExecutionMode.FIRST_MATCH)));
+            Assert.assertEquals("routing-v1", registry.getExecutor("routing").getRuleSetName());
+
+            Files.write(ruleSetFile.toPath(), createRuleSet("v2").getBytes(StandardCharsets.UTF_8));
+            long deadline = System.currentTimeMillis() + WATCH_TIMEOUT_MILLIS;
+            while (!"v2".equals(route(registry.getExecutor("routing"))) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            Assert.assertEquals("v2", route(registry.getExecutor("routing")));
+
+            Files.write(ruleSetFile.toPath(), createRuleSet("v3").getBytes(StandardCharsets.UTF_8));
+            Assert.assertEquals("v3", route(registry.reload("routing").get(10, TimeUnit.SECONDS)));
+
+            // The directory is watched as long as a rule set file of it is registered
+            Path directory = ruleSetFile.toPath().toAbsolutePath().normalize().getParent();
+            registry.register("routing-copy", ruleSetFile.toPath(), ExecutionMode.FIRST_MATCH);
+            registry.unregister("routing");
+            Assert.assertTrue(registry.getWatchedDirectories().contains(directory));
+            registry.unregister("routing-copy");
+            Assert.assertFalse(registry.getWatchedDirectories().contains(directory));
+        } finally {
+            ruleSetFile.delete();
+        }
+    }
+
+    private String route(RuleSetExecutor<Object> executor) throws Exception {
+        Map<String, Object> sourceObject = new HashMap<>();
+        sourceObject.put("Direction", "O");
+        Map<String, Object> targetObject = new HashMap<>();
+        executor.apply(sourceObject, targetObject, new HashMap<String, Object>());
+
+        return (String) targetObject.get("route");
+    }
+
+    private static String createRuleSet(String route) {
+        // @formatter:off
+        return "<ruleSet name=\"routing-" + route + "\">"
+                + "  <rule id=\"R1\">"
+                + "    <goals><attribute name=\"route\" value=\"" + route + "\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" /></goals>"
+                + "    <conditions><condition><attribute name=\"Direction\" value=\"O\" /></condition></conditions>"
+                + "  </rule>"
+                + "</ruleSet>";
+        // @formatter:on
+    }
+}
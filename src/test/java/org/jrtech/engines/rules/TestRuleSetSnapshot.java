@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.jrtech.engines.rules.model.Rule;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestRuleSetSnapshot {
+
+    private static final String RULE_SET = ""
+            // @formatter:off
+            + "<ruleSet name=\"snapshot\">"
+            + "  <rule id=\"R1\" scopeIndex=\"A\" terminating=\"true\">"
+            + "    <goals>"
+            + "      <attribute name=\"route\" value=\"Q1\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" />"
+            + "      <attribute name=\"state\" method=\"changeState\"><parameter name=\"user\" value=\"${USER@CONTEXT}\" /></attribute>"
+            + "    </goals>"
+            + "    <conditions>"
+            + "      <condition>"
+            + "        <attribute name=\"Direction\" value=\"O\" />"
+            + "        <attribute name=\"Currency\" value=\"usd\" operatorFunction=\"ignoreCase\" negate=\"true\" />"
+            + "        <attribute type=\"NumberConditionalAttribute\" name=\"Amount\" value=\"1000\" operatorFunction=\"greaterThan\" />"
+            + "      </condition>"
+            + "      <condition>"
+            + "        <attribute type=\"DateConditionalAttribute\" name=\"ValueDate\" value=\"2018-03-01\" operatorFunction=\"since\" owner=\"TARGET\" />"
+            + "        <attribute type=\"BooleanConditionalAttribute\" name=\"Urgent\" value=\"true\" />"
+            + "      </condition>"
+            + "    </conditions>"
+            + "  </rule>"
+            + "  <rule id=\"R2\">"
+            + "    <goals><attribute name=\"route\" value=\"Q1\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" /></goals>"
+            + "    <conditions><condition><attribute name=\"Direction\" value=\"O\" /></condition></conditions>"
+            + "  </rule>"
+            + "  <rule scopeIndex=\"A\" />"
+            + "</ruleSet>";
+            // @formatter:on
+
+    @Test
+    public void writeAndOpen() throws Exception {
+        RuleSetLoader loader = RuleSetLoader.newInstance();
+        List<Rule<Object>> ruleSet = loader.load(RULE_SET);
+
+        File snapshotFile = File.createTempFile("rule-set", ".snapshot");
+        try {
+            RuleSetSnapshot.write(snapshotFile, loader, ruleSet);
+            RuleSetSnapshot snapshot = RuleSetSnapshot.open(snapshotFile);
+
+            Assert.assertEquals("snapshot", snapshot.getRuleSetName());
+            Assert.assertEquals(3, snapshot.size());
+            Assert.assertEquals(0, snapshot.getMaterializedRuleCount());
+
+            List<Rule<Object>> snapshotRuleSet = snapshot.getRules();
+            Rule<Object> r2 = snapshotRuleSet.get(1);
+            Assert.assertEquals(1, snapshot.getMaterializedRuleCount());
+            Assert.assertSame(r2, snapshotRuleSet.get(1));
+
+            Assert.assertEquals(describe(ruleSet), describe(snapshotRuleSet));
+            Assert.assertEquals(3, snapshot.getMaterializedRuleCount());
+            Assert.assertEquals("[R1, 0]", snapshot.getScopeIndexedRuleSetCatalog().get("A").toString());
+            Assert.assertSame(snapshotRuleSet.get(0), snapshot.getScopeIndexedRuleSetCatalog().get("A").get(0));
+
+            // Shared attributes stay shared
+            Assert.assertSame(snapshotRuleSet.get(0).getConditions().get(0).getAttributes().get(0),
+                    r2.getConditions().get(0).getAttributes().get(0));
+            Assert.assertSame(snapshotRuleSet.get(0).getGoals().get(0), r2.getGoals().get(0));
+            Assert.assertEquals("${USER@CONTEXT}",
+                    snapshotRuleSet.get(0).getGoals().get(1).getParameterByName("user").getValue());
+        } finally {
+            snapshotFile.delete();
+        }
+    }
+
+    @Test
+    public void sameRulesAsLoader() throws Exception {
+        InputStream is = getClass().getResourceAsStream("/rules/test-rule-def-1.xml");
+        File snapshotFile = File.createTempFile("rule-set", ".snapshot");
+        try {
+            RuleSetLoader loader = RuleSetLoader.newInstance();
+            List<Rule<Object>> ruleSet = loader.load(is);
+            RuleSetSnapshot.write(snapshotFile, loader, ruleSet);
+
+            Assert.assertEquals(describe(ruleSet), describe(RuleSetSnapshot.open(snapshotFile).<Object> getRules()));
+        } finally {
+            is.close();
+            snapshotFile.delete();
+        }
+    }
+
+    @Test
+    public void invalidSnapshot() throws Exception {
+        try {
+            RuleSetSnapshot.open(ByteBuffer.wrap("<ruleSet name=\"xml\" />".getBytes("UTF-8")));
+            Assert.fail("XML must not be accepted as snapshot.");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private String describe(List<Rule<Object>> ruleSet) {
+        StringBuilder sb = new StringBuilder();
+        for (Rule<Object> rule : ruleSet) {
+            sb.append(rule.getId()).append(rule.getScopeIndex()).append(rule.isTerminating())
+                    .append(rule.getGoals()).append(rule.getConditions()).append("\n");
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jrtech.engines.rules.model.Rule;
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+public class TestStreamingRuleSetLoader {
+
+    private static final int STREAMED_RULE_COUNT = 2000;
+
+    @Test
+    public void sameRulesAsDomLoader() throws Exception {
+        for (String resource : new String[] { "/rules/test-rule-def-1.xml", "/rules/test-rule-def-2.xml" }) {
+            InputStream domStream = getClass().getResourceAsStream(resource);
+            InputStream streamingStream = getClass().getResourceAsStream(resource);
+            try {
+                Assert.assertEquals(resource, describe(RuleSetLoader.newInstance().<Object> load(domStream)),
+                        describe(StreamingRuleSetLoader.newInstance().<Object> load(streamingStream)));
+            } finally {
+                domStream.close();
+                streamingStream.close();
+            }
+        }
+    }
+
+    @Test
+    public void includesAndScopes() throws Exception {
+        File includeFile = File.createTempFile("streaming-include", ".xml");
+        try {
+            Files.write(includeFile.toPath(), createRuleSet("I", 3).getBytes(StandardCharsets.UTF_8));
+
+            StreamingRuleSetLoader loader = StreamingRuleSetLoader.newInstance();
+            List<Rule<Object>> ruleSet = loader.load("<ruleSet name=\"main\">"
+                    + "<rule id=\"M1\" scopeIndex=\"A\"><goals><attribute name=\"m\" value=\"x\">"
+                    + "<parameter name=\"p\">text</parameter></attribute></goals></rule>"
+                    + "<include uri=\"" + includeFile.toURI() + "\" />"
+                    + "<include uri=\"" + includeFile.toURI() + "\" />"
+                    + "<rule id=\"M2\" /></ruleSet>");
+
+            Assert.assertEquals("[M1, I0, I1, I2, M2]", ruleSet.toString());
+            Assert.assertEquals("main", loader.getRuleSetName());
+            Assert.assertEquals("text", ruleSet.get(0).getGoals().get(0).getParameterList().get(0).getValue());
+            Assert.assertEquals("[M1, I0, I2]", loader.getScopeIndexedRuleSetCatalog().get("A").toString());
+        } finally {
+            includeFile.delete();
+        }
+    }
+
+    @Test
+    public void streamRulesIncrementally() throws Exception {
+        byte[] ruleSetDefinition = createRuleSet("R", STREAMED_RULE_COUNT).getBytes(StandardCharsets.UTF_8);
+        final CountingInputStream xmlStream = new CountingInputStream(new ByteArrayInputStream(ruleSetDefinition));
+        final List<Long> readByteCounts = new ArrayList<>();
+        StreamingRuleSetLoader loader = new StreamingRuleSetLoader() {
+
+            @Override
+            protected <T> Rule<T> xmlToRule(Element xmlRuleElement) {
+                // Every rule is converted from a detached fragment, nothing of the document is kept
+                Assert.assertNull(xmlRuleElement.getParentNode());
+                Assert.assertFalse(xmlRuleElement.getOwnerDocument().getDocumentElement().hasChildNodes());
+                readByteCounts.add(xmlStream.getCount());
+                return super.xmlToRule(xmlRuleElement);
+            }
+        };
+
+        Assert.assertEquals(STREAMED_RULE_COUNT, loader.load(xmlStream).size());
+        Assert.assertEquals(STREAMED_RULE_COUNT, readByteCounts.size());
+        Assert.assertEquals(ruleSetDefinition.length, xmlStream.getCount());
+        // The first rules are converted before most of the document is read
+        Assert.assertTrue(readByteCounts.get(0) < ruleSetDefinition.length / 4);
+        Assert.assertTrue(readByteCounts.get(0) < readByteCounts.get(STREAMED_RULE_COUNT - 1));
+    }
+
+    private String describe(List<Rule<Object>> ruleSet) {
+        StringBuilder sb = new StringBuilder();
+        for (Rule<Object> rule : ruleSet) {
+            sb.append(rule.getId()).append(rule.getScopeIndex()).append(rule.isTerminating())
+                    .append(rule.getGoals()).append(rule.getConditions()).append("\n");
+        }
+
+        return sb.toString();
+    }
+
+    private static String createRuleSet(String idPrefix, int ruleCount) {
+        StringBuilder sb = new StringBuilder("<ruleSet name=\"" + idPrefix + "\">\n");
+        for (int i = 0; i < ruleCount; i++) {
+            // @formatter:off
+            sb.append("  <rule id=\"").append(idPrefix).append(i).append("\"").append(i % 2 == 0 ? " scopeIndex=\"A\"" : "").append(">\n")
+              .append("    <goals><attribute name=\"route\" value=\"Q").append(i % 50).append("\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" /></goals>\n")
+              .append("    <conditions>\n")
+              .append("      <condition>\n")
+              .append("        <attribute name=\"Direction\" value=\"").append(i % 2 == 0 ? "O" : "I").append("\" />\n")
+              .append("        <attribute name=\"Currency\" value=\"C").append(i % 30).append("\" />\n")
+              .append("        <attribute type=\"NumberConditionalAttribute\" name=\"Amount\" value=\"").append(i).append("\" operatorFunction=\"greaterThan\" />\n")
+              .append("      </condition>\n")
+              .append("    </conditions>\n")
+              .append("  </rule>\n");
+            // @formatter:on
+        }
+
+        return sb.append("</ruleSet>").toString();
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int readCount = super.read(b, off, len);
+            if (readCount > 0) {
+                count += readCount;
+            }
+            return readCount;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
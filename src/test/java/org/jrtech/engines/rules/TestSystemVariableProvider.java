@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jrtech.engines.rules.RuleSetExecutor.ExecutionMode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSystemVariableProvider {
+
+    private final SystemVariableProvider defaultProvider = SystemVariableProvider.getDefault();
+
+    @After
+    public void restoreDefault() {
+        SystemVariableProvider.setDefault(defaultProvider);
+    }
+
+    @Test
+    public void cachedValues() {
+        TickingClock clock = new TickingClock(Instant.parse("2026-10-18T21:59:58.500Z"), ZoneOffset.ofHours(2));
+        SystemVariableProvider provider = SystemVariableProvider.newInstance(clock);
+
+        String now = provider.getNow();
+        Assert.assertEquals("2026-10-18T23:59:58+02:00", now);
+        Assert.assertEquals("2026-10-18+02:00", provider.getToday());
+        clock.advance(400);
+        Assert.assertSame(now, provider.getNow());
+        clock.advance(100);
+        Assert.assertEquals("2026-10-18T23:59:59+02:00", provider.getNow());
+        Assert.assertEquals("2026-10-18+02:00", provider.getValue("TODAY"));
+        clock.advance(1000);
+        Assert.assertEquals("2026-10-19T00:00:00+02:00", provider.getValue("now"));
+        Assert.assertEquals("2026-10-19+02:00", provider.getToday());
+        Assert.assertEquals("", provider.getValue("tomorrow"));
+
+        provider.begin();
+        provider.begin();
+        now = provider.getNow();
+        clock.advance(5000);
+        Assert.assertEquals(now, provider.getNow());
+        provider.end();
+        Assert.assertEquals(now, provider.getNow());
+        provider.end();
+        Assert.assertEquals("2026-10-19T00:00:05+02:00", provider.getNow());
+    }
+
+    @Test
+    public void consistentGoals() throws Exception {
+        String ruleSetDefinition = ""
+                // @formatter:off
+                + "<ruleSet name=\"system\">"
+                + "  <rule id=\"S\">"
+                + "    <goals>"
+                + "      <attribute name=\"created\" value=\"${now@SYSTEM}\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" />"
+                + "      <attribute name=\"modified\" value=\"${NOW@system}\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" />"
+                + "      <attribute name=\"label\" value=\"${today@SYSTEM} by ${USER@CONTEXT}\" writerClass=\"org.jrtech.engines.rules.writer.MapStringValueWriter\" />"
+                + "    </goals>"
+                + "    <conditions><condition><attribute name=\"Direction\" value=\"O\" /></condition></conditions>"
+                + "  </rule>"
+                + "</ruleSet>";
+                // @formatter:on
+        TickingClock clock = new TickingClock(Instant.parse("2026-10-18T07:30:15Z"), ZoneOffset.UTC);
+        clock.setTickPerRead(700);
+        SystemVariableProvider.setDefault(SystemVariableProvider.newInstance(clock));
+        RuleSetExecutor<Object> executor = RuleSetExecutor.newInstance(
+                RuleSetLoader.newInstance().<Object> load(ruleSetDefinition), ExecutionMode.ALL_MATCH);
+
+        Map<String, Object> sourceObject = new HashMap<>();
+        sourceObject.put("Direction", "O");
+        Map<String, Object> contextVariables = new HashMap<>();
+        contextVariables.put("USER", "alice");
+        Map<String, Object> targetObject = new HashMap<>();
+        Assert.assertEquals(1, executor.apply(sourceObject, targetObject, contextVariables).size());
+        Assert.assertEquals("2026-10-18T07:30:15Z", targetObject.get("created"));
+        Assert.assertEquals(targetObject.get("created"), targetObject.get("modified"));
+        Assert.assertEquals("2026-10-18Z by alice", targetObject.get("label"));
+
+        executor.apply(sourceObject, targetObject, contextVariables);
+        Assert.assertEquals("2026-10-18T07:30:15Z", targetObject.get("created"));
+        executor.apply(sourceObject, targetObject, contextVariables);
+        Assert.assertEquals("2026-10-18T07:30:16Z", targetObject.get("created"));
+        Assert.assertEquals(targetObject.get("created"), targetObject.get("modified"));
+    }
+
+    private static class TickingClock extends Clock {
+
+        private final ZoneId zone;
+
+        private long millis;
+
+        private long tickPerRead = 0;
+
+        private TickingClock(Instant instant, ZoneId zone) {
+            this.millis = instant.toEpochMilli();
+            this.zone = zone;
+        }
+
+        private void advance(long durationMillis) {
+            millis += durationMillis;
+        }
+
+        private void setTickPerRead(long tickPerRead) {
+            this.tickPerRead = tickPerRead;
+        }
+
+        @Override
+        public long millis() {
+            long currentMillis = millis;
+            millis += tickPerRead;
+            return currentMillis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new TickingClock(Instant.ofEpochMilli(millis), zone);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2016-2026 Jumin Rubin
+ * LinkedIn: https://www.linkedin.com/in/juminrubin/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jrtech.engines.rules.function;
+
+import java.math.BigDecimal;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCompiledFunctions {
+
+    // @formatter:off
+    private static final String[] NUMBERS = { "0", "-0", "007", "-007", "1", "-1", "+5", "1.5", "-1.50", "0.0", ".5",
+            "2147483647", "2147483648", "-2147483648", "-2147483649", "999999999999999999", "1000000000000000000",
+            "-999999999999999999", "-1000000000000000000", "9223372036854775807", "9223372036854775808",
+            "-9223372036854775808", "-9223372036854775809", "1e3", "-", "abc", "", null };
+
+    private static final String[] DATES = { "2018-06-15", "20180615", "2018-06-14", "2018-06-16", "2018-6-15",
+            "2018-06-15T00:00:00", "2018-06-15T10:00:00", "20180615100000", "2018-06-15T10:00:00.5",
+            "2018-06-15 10:00:00", "2018-06-15.5", "-2018-06-15", "0000-00-00", "0", "00000000",
+            "9999-12-31T23:59:59", "999999999999999999", "1000000000000000000", "99999-12-31T23:59:59.999",
+            "n/a", "", null };
+
+    private static final String[] TIMES = { "10:00:00", "100000", "09:59:59", "10:00:01", "10:00", "1000",
+            "10:00:00.500", "10:00:00.5", "00:00:00", "0", "000000", "23:59:59", "-10:00:00", "007",
+            "235959999", "2147483647", "2147483648", "999999999999999999", "1000000000000000000", "10-00-00",
+            "n/a", "", null };
+
+    private static final String[] STRINGS = { "USD", "usd", "US", "SD", "", " USD", "null", "'USD', EUR", "USD, EUR",
+            null };
+
+    private static final String[] REGEXES = { "abc", "a.c", "a*", "[a-c]+\\d?", "(a|b)c", "^abc$", "", ".*", "ABC",
+            "a\\.c", "[a", "(", "*", null };
+    // @formatter:on
+
+    @Test
+    public void numbersMatchUncompiled() {
+        assertCompiledMatchesUncompiled(new NumberEqualsFunctionImpl(), NUMBERS);
+        assertCompiledMatchesUncompiled(new NumberGreaterOrEqualsFunctionImpl(), NUMBERS);
+        assertCompiledMatchesUncompiled(new NumberGreaterThanFunctionImpl(), NUMBERS);
+        assertCompiledMatchesUncompiled(new NumberLessOrEqualsFunctionImpl(), NUMBERS);
+        assertCompiledMatchesUncompiled(new NumberLessThanFunctionImpl(), NUMBERS);
+    }
+
+    @Test
+    public void datesMatchUncompiled() {
+        assertCompiledMatchesUncompiled(new DateAfterFunctionImpl(), DATES);
+        assertCompiledMatchesUncompiled(new DateAtFunctionImpl(), DATES);
+        assertCompiledMatchesUncompiled(new DateBeforeFunctionImpl(), DATES);
+        assertCompiledMatchesUncompiled(new DateEqualsFunctionImpl(), DATES);
+        assertCompiledMatchesUncompiled(new DateSinceFunctionImpl(), DATES);
+        assertCompiledMatchesUncompiled(new DateUntilFunctionImpl(), DATES);
+    }
+
+    @Test
+    public void timesMatchUncompiled() {
+        assertCompiledMatchesUncompiled(new TimeAfterFunctionImpl(), TIMES);
+        assertCompiledMatchesUncompiled(new TimeAtFunctionImpl(), TIMES);
+        assertCompiledMatchesUncompiled(new TimeBeforeFunctionImpl(), TIMES);
+        assertCompiledMatchesUncompiled(new TimeSinceFunctionImpl(), TIMES);
+        assertCompiledMatchesUncompiled(new TimeUntilFunctionImpl(), TIMES);
+    }
+
+    @Test
+    public void datesFarApartCompareBySign() {
+        // Datetimes a year apart differ by more than Integer.MAX_VALUE, fractions by less than one
+        String[][] pairs = { { "2040-06-15", "2018-06-15" }, { "2019-06-15T10:00:00", "2018-06-15T10:00:00" },
+                { "2018-06-15T10:00:00.5", "2018-06-15T10:00:00" } };
+        for (String[] pair : pairs) {
+            assertMatches(true, new DateAfterFunctionImpl(), pair[0], pair[1]);
+            assertMatches(true, new DateSinceFunctionImpl(), pair[0], pair[1]);
+            assertMatches(false, new DateAtFunctionImpl(), pair[0], pair[1]);
+            assertMatches(false, new DateBeforeFunctionImpl(), pair[0], pair[1]);
+            assertMatches(false, new DateUntilFunctionImpl(), pair[0], pair[1]);
+            assertMatches(false, new DateAfterFunctionImpl(), pair[1], pair[0]);
+            assertMatches(true, new DateBeforeFunctionImpl(), pair[1], pair[0]);
+        }
+        assertMatches(true, new TimeAfterFunctionImpl(), "999999999999", "000000");
+        assertMatches(false, new TimeAtFunctionImpl(), "10:00:00.5", "10:00:00");
+
+        // Subclasses overriding the comparison of the values keep working
+        AbstractDateFunctionImpl function = new AbstractDateFunctionImpl() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean compareValues(BigDecimal actualDate, BigDecimal expectedDate) {
+                return actualDate.compareTo(expectedDate) < 0;
+            }
+
+            @Override
+            protected String getLogicalOperatorExpression() {
+                return "Before";
+            }
+        };
+        assertMatches(true, function, "2018-06-14", "2018-06-15");
+        assertMatches(false, function, "2040-06-15", "2018-06-15");
+        assertMatches(false, function, "2018-06-15.5", "2018-06-15");
+    }
+
+    @Test
+    public void stringsMatchUncompiled() {
+        assertCompiledMatchesUncompiled(new StringContainsFunctionImpl(), STRINGS);
+        assertCompiledMatchesUncompiled(new StringEndsWithFunctionImpl(), STRINGS);
+        assertCompiledMatchesUncompiled(new StringEqualsFunctionImpl(), STRINGS);
+        assertCompiledMatchesUncompiled(new StringIgnoreCaseFunctionImpl(), STRINGS);
+        assertCompiledMatchesUncompiled(new StringInFunctionImpl(), STRINGS);
+        assertCompiledMatchesUncompiled(new StringStartsWithFunctionImpl(), STRINGS);
+
+        // A null actual value is not compared as "null"
+        Assert.assertFalse(new StringEqualsFunctionImpl().compile("null").match(null));
+        Assert.assertTrue(new StringEqualsFunctionImpl().compile(null).match(null));
+    }
+
+    @Test
+    public void regexesMatchUncompiled() {
+        assertCompiledMatchesUncompiled(new StringRegexFunctionImpl(), REGEXES);
+    }
+
+    @Test
+    public void cachePatterns() {
+        PatternCache patternCache = new PatternCache(10);
+        Pattern pattern = patternCache.get("[A-Z]{6}");
+        Assert.assertSame(pattern, patternCache.get("[A-Z]{6}"));
+        Assert.assertEquals(1, patternCache.getMissCount());
+        Assert.assertEquals(1, patternCache.getHitCount());
+        Assert.assertEquals(1, patternCache.size());
+
+        // Invalid patterns are reported on every lookup and not cached
+        for (int i = 0; i < 2; i++) {
+            try {
+                patternCache.get("[A-Z");
+                Assert.fail();
+            } catch (PatternSyntaxException e) {
+                // expected
+            }
+        }
+        Assert.assertEquals(1, patternCache.size());
+
+        // The compiled function shares the pattern of the default cache
+        Pattern sharedPattern = PatternCache.getInstance().get("[A-Z]{6}");
+        Assert.assertTrue(new StringRegexFunctionImpl().compile("[A-Z]{6}").match("ABCDEF"));
+        Assert.assertSame(sharedPattern, PatternCache.getInstance().get("[A-Z]{6}"));
+
+        // Invalid patterns are reported on evaluation, not on compilation
+        ValueMatcher matcher = new StringRegexFunctionImpl().compile("[A-Z");
+        try {
+            matcher.match("ABCDEF");
+            Assert.fail();
+        } catch (PatternSyntaxException e) {
+            // expected
+        }
+        Assert.assertFalse(matcher.match(null));
+    }
+
+    private static void assertMatches(boolean expected, AbstractInternalFunctionImpl function, String actualValue,
+            String expectedValue) {
+        String message = function.getClass().getSimpleName() + "(" + actualValue + ", " + expectedValue + ")";
+        Assert.assertEquals(message, expected, function.match(actualValue, expectedValue));
+        Assert.assertEquals(message, expected, function.compile(expectedValue).match(actualValue));
+    }
+
+    /**
+     * Compares the compiled and the uncompiled results of every pair of the
+     * given values, a failure counting as a result.
+     */
+    private static void assertCompiledMatchesUncompiled(AbstractInternalFunctionImpl function, String[] values) {
+        for (String expectedValue : values) {
+            ValueMatcher matcher = function.compile(expectedValue);
+            for (String actualValue : values) {
+                String uncompiled;
+                try {
+                    uncompiled = "" + function.match(actualValue, expectedValue);
+                } catch (RuntimeException e) {
+                    uncompiled = e.getClass().getName();
+                }
+                String compiled;
+                try {
+                    compiled = "" + matcher.match(actualValue);
+                } catch (RuntimeException e) {
+                    compiled = e.getClass().getName();
+                }
+                Assert.assertEquals(function.getClass().getSimpleName() + "(" + actualValue + ", " + expectedValue
+                        + ")", uncompiled, compiled);
+            }
+        }
+    }
+}
@@ -20,22 +20,20 @@ import java.util.Map;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.jrtech.engines.rules.ContextualObjectAttributeReader;
 import org.jrtech.engines.rules.model.AbstractStateManagedObject;
-import org.jrtech.engines.rules.ContextAwareObjectAttributeReader;
 
-public class FinalApproveReader<T extends AbstractStateManagedObject> implements ContextAwareObjectAttributeReader<T, Boolean> {
+public class FinalApproveReader<T extends AbstractStateManagedObject> implements ContextualObjectAttributeReader<T, Boolean> {
 
     private static final long serialVersionUID = 7856439590774982339L;
-    
-    private Map<String, Object> contextData;
 
     @Override
-    public Boolean read(T objectValue) {
+    public Boolean read(T objectValue, Map<String, Object> contextData) {
         if (objectValue.getApproverList() == null || "".equals(objectValue.getApproverList())) {
             return false;
         } else {
             String[] approvers = StringUtils.split(objectValue.getApproverList(), ',');
-            String currentUser = (String) getContextData().get("USER");
+            String currentUser = (String) contextData.get("USER");
             if (ArrayUtils.contains(approvers, currentUser)) {
                 return false; // skip
             }
@@ -44,14 +42,4 @@ public class FinalApproveReader<T extends AbstractStateManagedObject> implements
         return true;
     }
 
-    @Override
-    public void setContextData(Map<String, Object> contextData) {
-        this.contextData = contextData;
-    }
-
-    @Override
-    public Map<String, Object> getContextData() {
-        return contextData;
-    }
-
 }